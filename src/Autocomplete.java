@@ -1,75 +1,113 @@
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 
 public class Autocomplete {
-    private TrieNode root;
+    // how many ranked suggestions every prefix keeps when we rank by vote count
+    public static final int DEFAULT_TOP_K = 10;
 
-    // constructor - root node is a TrieNode
+    // the titles in a flat array trie (see CompactTrie), keyed by lowercase title
+    private final CompactTrie trie;
+    // for mistyped prefixes, see getSuggestions
+    private final FuzzySearch fuzzy;
+
+    // constructor - builds the trie over all titles at once
+    // suggestions come in alphabetical order
     public Autocomplete(List<String> movieTitles) {
-        root = new TrieNode();
-        // insert all titles
-        for (String title : movieTitles) {
-            insert(title);
-        }
+        this(new CompactTrie(movieTitles));
     }
 
+    // ranked suggestions: best score first (ties alphabetical). every trie node keeps
+    // its topK best titles from build time, so a lookup never walks the subtree or
+    // sorts anything, but a single lookup returns at most topK titles
+    public Autocomplete(List<String> movieTitles, ToDoubleFunction<String> score, int topK) {
+        this(new CompactTrie(movieTitles, scores(movieTitles, score), topK));
+    }
 
-    // methods
-
-    // add word into Trie
-    private void insert(String word) {
-        // insert from the root
-        TrieNode node = root;
+    // the most voted on movies first, what GameUI uses
+    public static Autocomplete byVoteCount(Collection<Movie> movies, int topK) {
+        List<String> titles = new ArrayList<>(movies.size());
+        double[] votes = new double[movies.size()];
+        for (Movie m : movies) {
+            votes[titles.size()] = m.getVoteCount();
+            titles.add(m.getTitle());
+        }
+        return new Autocomplete(new CompactTrie(titles, votes, topK));
+    }
 
-        for (char c : word.toLowerCase().toCharArray()) {
-            // if the node's children do not contain char, create child Node for it
-            if (!node.children.containsKey(c)) {
-                node.children.put(c, new TrieNode());
-            }
-            // update node
-            node = node.children.get(c);
+    private static double[] scores(List<String> titles, ToDoubleFunction<String> score) {
+        double[] scores = new double[titles.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score.applyAsDouble(titles.get(i));
         }
+        return scores;
+    }
 
-        // at the end of the word
-        node.isEndOfWord = true;
-        node.fullWord = word;
+    private Autocomplete(CompactTrie trie) {
+        this.trie = trie;
+        this.fuzzy = new FuzzySearch(trie);
     }
 
+
+    // methods
+
     // to be used in GameUI
+    // titles starting with the prefix (case insensitive), at most maxSuggestions of them.
+    // alphabetical order of their lowercase form, or best first if built with a score.
+    // if no title starts with the prefix we assume a typo and suggest titles starting
+    // with something a few edits away from it (see FuzzySearch), closest first
     public List<String> getSuggestions(String prefix, int maxSuggestions) {
+        List<String> results = getPrefixSuggestions(prefix, maxSuggestions);
+        return results.isEmpty() ? getTypoSuggestions(prefix, maxSuggestions) : results;
+    }
+
+    // just the titles really starting with the prefix
+    public List<String> getPrefixSuggestions(String prefix, int maxSuggestions) {
         List<String> results = new ArrayList<>();
-        TrieNode prefixNode = getNode(prefix.toLowerCase());
-        if (prefixNode == null) {
-            return results;
+        int node = trie.find(prefix.toLowerCase());
+        if (node >= 0) {
+            addWords(node, results, null, maxSuggestions);
         }
-
-        dfs(prefixNode, results, maxSuggestions);
         return results;
     }
 
-    // find suggestions using dfs
-    public void dfs(TrieNode node, List<String> results, int max) {
-        if (results.size() == max) {
-            return;
+    // titles starting with something a typo or two away from the prefix, closest first
+    public List<String> getTypoSuggestions(String prefix, int maxSuggestions) {
+        List<String> results = new ArrayList<>();
+        int distance = FuzzySearch.defaultMaxDistance(prefix.length());
+        if (distance == 0) {
+            return results;
         }
-        if (node.isEndOfWord) {
-            results.add(node.fullWord);
+        // a closer node can sit under a farther one, don't suggest a title twice
+        Set<Integer> seen = new HashSet<>();
+        for (int near : fuzzy.prefixNodes(prefix, distance)) {
+            if (results.size() == maxSuggestions) {
+                break;
+            }
+            addWords(near, results, seen, maxSuggestions);
         }
+        return results;
+    }
 
-        // sort
-        node.children.keySet().stream().sorted()
-                .forEach(c -> dfs(node.children.get(c), results, max));
+    // a cursor for one input box, follows the text as it is typed so every keystroke
+    // only moves one step in the trie (see SuggestionCursor)
+    public SuggestionCursor newCursor() {
+        return new SuggestionCursor(this, trie);
     }
 
-    // get node representing end of prefix
-    private TrieNode getNode(String prefix) {
-        TrieNode node = root;
-        for (char c : prefix.toCharArray()) {
-            if (!node.children.containsKey(c)) {
-                return null;
+    // the words under a node are already in order, just take the first few
+    void addWords(int node, List<String> results, Set<Integer> seen, int max) {
+        boolean ranked = trie.isRanked();
+        int from = ranked ? trie.topFrom(node) : trie.wordFrom(node);
+        int end = ranked ? trie.topTo(node) : trie.wordTo(node);
+        for (int i = from; i < end && results.size() != max; i++) {
+            int word = ranked ? trie.topWord(i) : i;
+            if (seen == null || seen.add(word)) {
+                results.add(trie.word(word));
             }
-            node = node.children.get(c);
         }
-        return node;
     }
 }
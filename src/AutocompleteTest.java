@@ -43,6 +43,40 @@ public class AutocompleteTest {
         assertEquals(exp, sugg);
     }
 
+    @Test
+    public void testRankedByScore() {
+        // longer titles score higher here, so the ranking differs from alphabetical
+        ac = new Autocomplete(movies, String::length, 2);
+        assertEquals(Arrays.asList("Despicable Me", "Divergent"), ac.getSuggestions("d", 5));
+        assertEquals(Arrays.asList("Despicable Me"), ac.getSuggestions("d", 1));
+        assertEquals(Arrays.asList("Ace in the Hole", "Accolades"), ac.getSuggestions("ac", 5));
+        assertTrue(ac.getSuggestions("Bam", 3).isEmpty());
+        // same score: alphabetical
+        ac = new Autocomplete(movies, title -> 1, 3);
+        assertEquals(Arrays.asList("Diamond", "Die Hard", "Divergent"), ac.getSuggestions("di", 5));
+    }
+
+    @Test
+    public void testByVoteCount() {
+        Movie low = new Movie(1, "Star Trek", 2009, "", "", Arrays.asList(),
+                Arrays.asList(), Arrays.asList(), Arrays.asList());
+        Movie high = new Movie(2, "Star Wars", 1977, "", "", Arrays.asList(),
+                Arrays.asList(), Arrays.asList(), Arrays.asList());
+        low.setVoteCount(10);
+        high.setVoteCount(5000);
+        ac = Autocomplete.byVoteCount(Arrays.asList(low, high), 5);
+        assertEquals(Arrays.asList("Star Wars", "Star Trek"), ac.getSuggestions("sta", 5));
+    }
+
+    @Test
+    public void testTypoFallsBackToFuzzy() {
+        ac = new Autocomplete(movies);
+        assertEquals(Arrays.asList("Avengers"), ac.getSuggestions("Avangers", 5));
+        assertEquals(Arrays.asList("Despicable Me"), ac.getSuggestions("Dispicable", 5));
+        // too short to guess what was meant
+        assertTrue(ac.getSuggestions("Bv", 5).isEmpty());
+    }
+
     @Test
     public void testNumbers() {
         ac = new Autocomplete(movies);
@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+//micro benchmarks for the hot paths: loading, title lookups, random draws, autocomplete,
+//move validation, legal move counting and distances between movies. runs against the
+//real tmdb 5000 files by default, or against a SyntheticCatalog of any size to see how
+//things scale:
+//
+//  java Benchmarks                      tmdb 5000 csv files
+//  java Benchmarks --synthetic 100000   generated catalog with 100k movies
+//  java Benchmarks --seconds 3 ...      measure each benchmark for longer (default 1)
+//
+//every benchmark warms up for a while first (so the JIT has done its thing), then runs
+//for the measuring time and reports the average time per call. results go through
+//`sink` so the JIT can't throw the work away
+public class Benchmarks {
+
+    private static volatile Object sink;
+
+    private final double seconds;
+
+    private Benchmarks(double seconds) {
+        this.seconds = seconds;
+    }
+
+    //one call of the code being measured, i is the call number
+    interface Op {
+        Object run(int i);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int synthetic = 0;
+        double seconds = 1.0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--synthetic")) {
+                synthetic = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--seconds")) {
+                seconds = Double.parseDouble(args[++i]);
+            }
+        }
+
+        String movies = "tmdb_5000_movies.csv";
+        String credits = "tmdb_5000_credits.csv";
+        if (synthetic > 0) {
+            Path dir = Files.createTempDirectory("synthetic");
+            long start = System.nanoTime();
+            SyntheticCatalog.write(dir, synthetic, 42L);
+            System.out.printf("generated %d movies in %d ms (%s)%n", synthetic,
+                    (System.nanoTime() - start) / 1_000_000, dir);
+            movies = dir.resolve(SyntheticCatalog.MOVIES_FILE).toString();
+            credits = dir.resolve(SyntheticCatalog.CREDITS_FILE).toString();
+        } else if (!Files.exists(MovieDatabase.resolve(movies))) {
+            System.err.println("tmdb csv files not found, run with --synthetic <movies>");
+            return;
+        }
+        new Benchmarks(seconds).runAll(movies, credits);
+    }
+
+    private void runAll(String movies, String credits) throws IOException {
+        // loading is slow enough to just time a few whole runs
+        time("loadAll (1 thread)", 3, () -> load(movies, credits, 1));
+        int cores = Runtime.getRuntime().availableProcessors();
+        time("loadAll (parallel x" + cores + ")", 3, () -> load(movies, credits, cores));
+
+        MovieDatabase db = load(movies, credits, cores);
+        int count = db.getMovieCount();
+        System.out.printf("%d movies, %d graph edges%n", count, db.getGraph().getEdgeCount());
+
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            titles.add(db.getMovieByOrdinal(i).getTitle());
+        }
+        Random random = new Random(1);
+        String[] lookups = new String[1024];
+        String[] prefixes = new String[1024];
+        for (int i = 0; i < lookups.length; i++) {
+            String title = titles.get(random.nextInt(titles.size()));
+            lookups[i] = title.toLowerCase();
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(4)));
+        }
+
+        bench("searchByTitlePrefix", i -> db.searchByTitlePrefix(prefixes[i & 1023]));
+        bench("getMovieByTitle", i -> db.getMovieByTitle(lookups[i & 1023]));
+        // one typo in the middle of every title (the warm up builds the fuzzy index)
+        String[] typos = new String[lookups.length];
+        for (int i = 0; i < typos.length; i++) {
+            StringBuilder sb = new StringBuilder(lookups[i]);
+            if (sb.length() > 3) {
+                sb.setCharAt(sb.length() / 2, '#');
+            }
+            typos[i] = sb.toString();
+        }
+        bench("getClosestMovieByTitle (typo)", i -> db.getClosestMovieByTitle(typos[i & 1023]));
+        bench("getRandomMovie", i -> {
+            Movie m = db.getRandomMovie();
+            if (m == null) {
+                db.resetRandomMovies();
+            }
+            return m;
+        });
+
+        time("Autocomplete construction", 5, () -> new Autocomplete(titles));
+        Autocomplete ac = new Autocomplete(titles);
+        bench("Autocomplete.getSuggestions",
+                i -> ac.getSuggestions(prefixes[i & 1023], 5));
+        // one keystroke per call: type a title char by char, then start the next one
+        SuggestionCursor cursor = ac.newCursor();
+        bench("SuggestionCursor keystroke", i -> {
+            String title = lookups[(i >>> 4) & 1023];
+            return cursor.getPrefixSuggestions(
+                    title.substring(0, Math.min(title.length(), i & 15)), 5);
+        });
+        bench("full lookup per keystroke", i -> {
+            String title = lookups[(i >>> 4) & 1023];
+            return ac.getPrefixSuggestions(
+                    title.substring(0, Math.min(title.length(), i & 15)), 5);
+        });
+        List<Movie> all = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            all.add(db.getMovieByOrdinal(i));
+        }
+        time("Autocomplete.byVoteCount", 5,
+                () -> Autocomplete.byVoteCount(all, Autocomplete.DEFAULT_TOP_K));
+        Autocomplete ranked = Autocomplete.byVoteCount(all, Autocomplete.DEFAULT_TOP_K);
+        bench("ranked getSuggestions",
+                i -> ranked.getSuggestions(prefixes[i & 1023], 5));
+
+        TitleSearchIndex titleIndex = db.getTitleIndex();
+        time("TitleSearchIndex construction", 3, () -> TitleSearchIndex.build(db));
+        String[] words = new String[1024];
+        for (int i = 0; i < words.length; i++) {
+            List<String> w = TitleSearchIndex.tokenize(lookups[i], true);
+            String word = w.isEmpty() ? lookups[i] : w.get(random.nextInt(w.size()));
+            words[i] = word.substring(0, Math.min(word.length(), 2 + random.nextInt(4)));
+        }
+        bench("TitleSearchIndex.searchWords", i -> titleIndex.searchWords(words[i & 1023], 5));
+        bench("TitleSearchIndex.searchSubstring",
+                i -> titleIndex.searchSubstring(lookups[i & 1023].substring(1), 5));
+
+        benchMoves(db, random);
+        benchPaths(db, random);
+    }
+
+    //shortest chains between random movies, one by one and as a parallel batch, and
+    //the landmark bounds for the same pairs
+    private void benchPaths(MovieDatabase db, Random random) {
+        time("PathFinder construction", 3, () -> PathFinder.build(db));
+        PathFinder finder = db.getPathFinder();
+        int count = db.getMovieCount();
+        int[] from = new int[1024];
+        int[] to = new int[1024];
+        for (int i = 0; i < from.length; i++) {
+            from[i] = random.nextInt(count);
+            to[i] = random.nextInt(count);
+        }
+        bench("PathFinder.distance", i -> finder.distance(from[i & 1023], to[i & 1023]));
+        time("PathFinder.findAll (1024 pairs)", 5,
+                () -> finder.findAll(from, to, null, null, PathFinder.UNLIMITED));
+
+        time("DistanceOracle construction", 3, () -> DistanceOracle.build(db.getGraph(),
+                DistanceOracle.DEFAULT_LANDMARKS));
+        DistanceOracle oracle = db.getDistanceOracle();
+        bench("DistanceOracle bounds", i -> oracle.lowerBound(from[i & 1023], to[i & 1023])
+                + oracle.upperBound(from[i & 1023], to[i & 1023]));
+    }
+
+    //tryBuildMove / isValidMove from a few hundred positions, half the guesses are
+    //movies that connect (so there is a move to find), half are random
+    private void benchMoves(MovieDatabase db, Random random) {
+        MovieGraph graph = db.getGraph();
+        int positions = 256;
+        GameState[] states = new GameState[positions];
+        Movie[] guesses = new Movie[positions];
+        for (int p = 0; p < positions; p++) {
+            Movie current = db.getMovieByOrdinal(random.nextInt(db.getMovieCount()));
+            int from = current.getOrdinal();
+            int edges = graph.edgeEnd(from) - graph.edgeStart(from);
+            Movie guess;
+            if (p % 2 == 0 && edges > 0) {
+                guess = db.getMovieByOrdinal(graph.neighbor(
+                        graph.edgeStart(from) + random.nextInt(edges)));
+            } else {
+                guess = db.getMovieByOrdinal(random.nextInt(db.getMovieCount()));
+            }
+            states[p] = stateAt(db, current);
+            guesses[p] = guess;
+        }
+
+        bench("GameState.tryBuildMove", i -> {
+            int p = i & (positions - 1);
+            return states[p].tryBuildMove(states[p].getCurrentPlayer(), guesses[p]);
+        });
+        Move[] moves = new Move[positions];
+        for (int p = 0; p < positions; p++) {
+            Optional<Move> move = states[p].tryBuildMove(states[p].getCurrentPlayer(),
+                    guesses[p]);
+            moves[p] = move.orElse(new Move(states[p].getCurrentPlayer(), guesses[p],
+                    Move.ConnectionType.ACTOR, "Nobody"));
+        }
+        bench("GameState.isValidMove", i -> states[i & (positions - 1)]
+                .isValidMove(moves[i & (positions - 1)]));
+        bench("GameState.fork", i -> states[i & (positions - 1)].fork());
+        // a fork plus one move, what a search pays per branch
+        bench("GameState.fork+applyMove", i -> {
+            GameState fork = states[i & (positions - 1)].fork();
+            fork.applyMove(moves[i & (positions - 1)]);
+            return fork;
+        });
+        // a new analysis has nothing cached, so every call does the full scan over
+        // the current movie's edges
+        bench("MoveAnalysis.legalMoveCount", i ->
+                new MoveAnalysis(states[i & (positions - 1)]).legalMoveCount());
+    }
+
+    //a game whose current movie is `current`, on top of the loaded database
+    private static GameState stateAt(MovieDatabase db, Movie current) {
+        MovieDatabase startsAt = new MovieDatabase() {
+            @Override
+            public Movie getRandomMovie() {
+                return current;
+            }
+
+            @Override
+            public MovieGraph getGraph() {
+                return db.getGraph();
+            }
+
+            @Override
+            public Movie getMovieByOrdinal(int ordinal) {
+                return db.getMovieByOrdinal(ordinal);
+            }
+
+            @Override
+            public int getMovieCount() {
+                return db.getMovieCount();
+            }
+
+            @Override
+            public NameDictionary getNames() {
+                return db.getNames();
+            }
+        };
+        List<Player> players = Arrays.asList(
+                new Player("a", new WinCondition(Move.ConnectionType.GENRE, "Western", 99)),
+                new Player("b", new WinCondition(Move.ConnectionType.GENRE, "Western", 99)));
+        GameState state = new GameState(startsAt, players);
+        state.initialGameState();
+        return state;
+    }
+
+    private static MovieDatabase load(String movies, String credits, int threads) {
+        MovieDatabase db = new MovieDatabase();
+        db.setLoadParallelism(threads);
+        try {
+            db.loadAll(movies, credits);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return db;
+    }
+
+    //warm up, then call op in batches until the measuring time is up
+    private void bench(String name, Op op) {
+        run(op, (long) (seconds * 0.5e9));
+        long calls = 0;
+        long start = System.nanoTime();
+        long end = start + (long) (seconds * 1e9);
+        long now;
+        do {
+            for (int i = 0; i < 1024; i++) {
+                sink = op.run((int) calls + i);
+            }
+            calls += 1024;
+            now = System.nanoTime();
+        } while (now < end);
+        double ns = (now - start) / (double) calls;
+        System.out.printf("%-32s %12.1f ns/op %14.0f ops/s%n", name, ns, 1e9 / ns);
+    }
+
+    private static void run(Op op, long nanos) {
+        long end = System.nanoTime() + nanos;
+        int i = 0;
+        while (System.nanoTime() < end) {
+            for (int k = 0; k < 256; k++) {
+                sink = op.run(i++);
+            }
+        }
+    }
+
+    //for things that take long enough to time one by one (first run is warm up)
+    private static void time(String name, int runs, Supplier<Object> op) {
+        sink = op.get();
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int r = 0; r < runs; r++) {
+            long start = System.nanoTime();
+            sink = op.get();
+            long took = System.nanoTime() - start;
+            best = Math.min(best, took);
+            total += took;
+        }
+        System.out.printf("%-32s %12.1f ms avg %11.1f ms best%n", name,
+                total / 1e6 / runs, best / 1e6);
+    }
+}
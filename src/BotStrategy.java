@@ -0,0 +1,110 @@
+import java.util.Random;
+
+//how an automated player picks its next movie, for GameSimulator.
+//
+//a strategy only proposes a movie, the simulator still runs it through
+//GameState.tryBuildMove / applyMove like the controller does for a person, so a bot
+//can't do anything a player couldn't. strategies must not keep per game state in
+//fields, one instance plays many games on many threads at once
+public interface BotStrategy {
+
+    //the movie to play on top of state.getCurrentMovie(), or null if the bot can't
+    //find one (it then loses the game, same as a player whose time runs out)
+    Movie chooseMovie(GameState state, Player me, Random random);
+
+    //name used in the simulation report
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    //any legal movie, picked at random
+    static BotStrategy random() {
+        return new BotStrategy() {
+            @Override
+            public Movie chooseMovie(GameState state, Player me, Random random) {
+                return anyLegalMovie(state, me, random);
+            }
+
+            @Override
+            public String getName() {
+                return "random";
+            }
+        };
+    }
+
+    //a legal movie that counts for its own win condition if there is one, otherwise
+    //any legal movie
+    static BotStrategy greedy() {
+        return new BotStrategy() {
+            @Override
+            public Movie chooseMovie(GameState state, Player me, Random random) {
+                Movie progress = progressMovie(state, me, random);
+                return progress != null ? progress : anyLegalMovie(state, me, random);
+            }
+
+            @Override
+            public String getName() {
+                return "greedy";
+            }
+        };
+    }
+
+    //a random one of the legal moves the state's MoveAnalysis keeps, null if there is none
+    static Movie anyLegalMovie(GameState state, Player me, Random random) {
+        MoveAnalysis analysis = state.getMoveAnalysis();
+        int count = analysis.legalMoveCount();
+        if (count == 0) {
+            return null;
+        }
+        Movie next = state.getDatabase().getMovieByOrdinal(
+                analysis.legalMove(random.nextInt(count)));
+        // the analysis follows the same rules, so this is only a sanity check
+        return state.tryBuildMove(me, next).isPresent() ? next : null;
+    }
+
+    //a legal neighbor that moves me's win condition forward, or null. checks the
+    //condition on the movies first and only builds moves for the ones that count
+    static Movie progressMovie(GameState state, Player me, Random random) {
+        WinCondition wc = me.getWinCondition();
+        int valueId = state.getDatabase().getNames().lookup(wc.getValue());
+        Movie current = state.getCurrentMovie();
+        boolean genre = wc.getType() == Move.ConnectionType.GENRE;
+        if (valueId < 0 || (!genre && !current.hasConnection(wc.getType(), wc.getValue()))) {
+            return null;
+        }
+        MovieGraph graph = state.getDatabase().getGraph();
+        int from = current.getOrdinal();
+        int start = graph.edgeStart(from);
+        int count = graph.edgeEnd(from) - start;
+        if (count == 0) {
+            return null;
+        }
+        int offset = random.nextInt(count);
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            int to = graph.neighbor(start + (offset + i) % count);
+            if (to == last) {
+                continue;
+            }
+            last = to;
+            Movie next = state.getDatabase().getMovieByOrdinal(to);
+            if (next.hasConnection(wc.getType(), valueId) && !state.isMovieUsed(next)
+                    && counts(state, me, next)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    //would playing next record progress for me (what applyMove checks)
+    static boolean counts(GameState state, Player me, Movie next) {
+        WinCondition wc = me.getWinCondition();
+        if (wc.getType() == Move.ConnectionType.GENRE) {
+            return next.hasConnection(Move.ConnectionType.GENRE, wc.getValue())
+                    && state.tryBuildMove(me, next).isPresent();
+        }
+        return state.tryBuildMove(me, next).map(move ->
+                move.getConnectionType() == wc.getType()
+                        && move.getConnectionValue().equals(wc.getValue())).orElse(false);
+    }
+}
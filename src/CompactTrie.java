@@ -0,0 +1,303 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//trie over lowercased keys kept in a few flat arrays instead of one object per node.
+//
+//  node n's children are the edges childStart[n] .. childStart[n + 1] - 1, sorted by
+//  their label char, edge e leads to childNode[e] over the char labels[e]
+//  nodes are numbered in preorder (root = 0) and the words are stored sorted by key,
+//  so the words under node n are exactly words wordFrom[n] .. wordTo[n] - 1 in order
+//
+//walking the sorted children depth first (node's own word before its children) gives
+//the keys in plain String order, so "the first k words under a prefix" is just a
+//slice of the sorted word array: no traversal and nothing allocated per node.
+//when several words have the same lowercase key the one added last wins
+//
+//built with scores, every node also keeps its best k words (highest score first, ties
+//in key order) in topWords[topStart[n] .. topStart[n + 1] - 1]. they are merged
+//bottom up from the children's lists once at build time, so "the k best words under
+//a prefix" is also just a slice
+public class CompactTrie {
+
+    private final String[] words;
+    private final double[] scores;
+    private int[] childStart;
+    private char[] labels;
+    private int[] childNode;
+    private int[] wordFrom;
+    private int[] wordTo;
+    private int[] topStart;
+    private int[] topWords;
+    private int nodes = 0;
+    private int edges = 0;
+
+    //words in key order only (no ranking)
+    public CompactTrie(List<String> values) {
+        this(values, null, 0);
+    }
+
+    //scores[i] is the score of values.get(i), every node keeps its k best words
+    public CompactTrie(List<String> values, double[] scores, int k) {
+        if (scores != null && scores.length != values.size()) {
+            throw new IllegalArgumentException("need one score per value");
+        }
+        // stable sort on the key, then keep the last word of every run of equal keys
+        String[] lower = new String[values.size()];
+        Integer[] order = new Integer[values.size()];
+        for (int i = 0; i < order.length; i++) {
+            lower[i] = values.get(i).toLowerCase();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> lower[a].compareTo(lower[b]));
+        List<String> keys = new ArrayList<>(order.length);
+        List<String> kept = new ArrayList<>(order.length);
+        double[] keptScores = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            if (i + 1 < order.length && lower[order[i + 1]].equals(lower[order[i]])) {
+                continue;
+            }
+            if (scores != null) {
+                keptScores[kept.size()] = scores[order[i]];
+            }
+            keys.add(lower[order[i]]);
+            kept.add(values.get(order[i]));
+        }
+        words = kept.toArray(new String[0]);
+        this.scores = scores == null ? null : Arrays.copyOf(keptScores, words.length);
+
+        int capacity = 16;
+        childStart = new int[capacity + 1];
+        wordFrom = new int[capacity];
+        wordTo = new int[capacity];
+        labels = new char[capacity];
+        childNode = new int[capacity];
+        build(keys, 0, keys.size(), 0);
+        childStart[nodes] = edges;
+
+        childStart = Arrays.copyOf(childStart, nodes + 1);
+        wordFrom = Arrays.copyOf(wordFrom, nodes);
+        wordTo = Arrays.copyOf(wordTo, nodes);
+        labels = Arrays.copyOf(labels, edges);
+        childNode = Arrays.copyOf(childNode, edges);
+        if (this.scores != null) {
+            rank(Math.max(0, k));
+        }
+    }
+
+    //make the node for keys[lo, hi) (which all share their first `depth` chars),
+    //then its children. a node's edges are reserved before any child is built, so
+    //they end up next to each other
+    private int build(List<String> keys, int lo, int hi, int depth) {
+        int node = nodes++;
+        ensureNodes(nodes);
+        wordFrom[node] = lo;
+        wordTo[node] = hi;
+        childStart[node] = edges;
+
+        int first = lo;
+        if (first < hi && keys.get(first).length() == depth) {
+            first++; // the node's own word
+        }
+        // one edge per distinct next char
+        int children = 0;
+        for (int i = first; i < hi; i++) {
+            if (i == first || keys.get(i).charAt(depth) != keys.get(i - 1).charAt(depth)) {
+                children++;
+            }
+        }
+        int edge = edges;
+        edges += children;
+        ensureEdges(edges);
+
+        int start = first;
+        for (int i = first + 1; i <= hi; i++) {
+            if (i == hi || keys.get(i).charAt(depth) != keys.get(start).charAt(depth)) {
+                labels[edge] = keys.get(start).charAt(depth);
+                // children are built (and numbered) after this node's edges exist.
+                // build first: it may grow (replace) childNode
+                int child = build(keys, start, i, depth + 1);
+                childNode[edge] = child;
+                edge++;
+                start = i;
+            }
+        }
+        return node;
+    }
+
+    //fill topStart/topWords. children are numbered after their parent, so going
+    //backwards every child's list is done before its parent needs it. a node's
+    //candidates are its own word plus its children's top lists, kept in a small
+    //sorted buffer of at most k
+    private void rank(int k) {
+        topStart = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            topStart[n + 1] = topStart[n] + Math.min(k, wordTo[n] - wordFrom[n]);
+        }
+        topWords = new int[topStart[nodes]];
+        int[] best = new int[k];
+        for (int n = nodes - 1; n >= 0; n--) {
+            int size = 0;
+            if (hasOwnWord(n)) {
+                size = offer(best, size, wordFrom[n]);
+            }
+            for (int e = childStart[n]; e < childStart[n + 1]; e++) {
+                int child = childNode[e];
+                for (int i = topStart[child]; i < topStart[child + 1]; i++) {
+                    if (size == k && !before(topWords[i], best[k - 1])) {
+                        break; // the child's list is sorted, the rest won't fit either
+                    }
+                    size = offer(best, size, topWords[i]);
+                }
+            }
+            System.arraycopy(best, 0, topWords, topStart[n], size);
+        }
+    }
+
+    //insert a word into the sorted buffer best[0 .. size - 1] (capacity best.length),
+    //dropping whatever falls off the end. returns the new size
+    private int offer(int[] best, int size, int word) {
+        int k = best.length;
+        if (k == 0 || (size == k && !before(word, best[k - 1]))) {
+            return size;
+        }
+        int i = size == k ? k - 1 : size++;
+        while (i > 0 && before(word, best[i - 1])) {
+            best[i] = best[i - 1];
+            i--;
+        }
+        best[i] = word;
+        return size;
+    }
+
+    //higher score first, then key order
+    private boolean before(int a, int b) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    //a node's own word (the key that ends there) is the first of its range, the
+    //children's ranges start after it
+    private boolean hasOwnWord(int node) {
+        if (wordFrom[node] == wordTo[node]) {
+            return false;
+        }
+        int e = childStart[node];
+        return e == childStart[node + 1] || wordFrom[childNode[e]] > wordFrom[node];
+    }
+
+    private void ensureNodes(int n) {
+        if (n >= wordFrom.length) {
+            int size = wordFrom.length * 2;
+            childStart = Arrays.copyOf(childStart, size + 1);
+            wordFrom = Arrays.copyOf(wordFrom, size);
+            wordTo = Arrays.copyOf(wordTo, size);
+        }
+    }
+
+    private void ensureEdges(int n) {
+        if (n > labels.length) {
+            int size = Math.max(labels.length * 2, n);
+            labels = Arrays.copyOf(labels, size);
+            childNode = Arrays.copyOf(childNode, size);
+        }
+    }
+
+    public int root() {
+        return 0;
+    }
+
+    //the child of node over c, or -1 (binary search over the node's sorted edges)
+    public int child(int node, char c) {
+        int lo = childStart[node];
+        int hi = childStart[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (labels[mid] < c) {
+                lo = mid + 1;
+            } else if (labels[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return childNode[mid];
+            }
+        }
+        return -1;
+    }
+
+    //the node for a (lowercase) prefix, or -1 if no key starts with it
+    public int find(String prefix) {
+        int node = root();
+        for (int i = 0; i < prefix.length() && node >= 0; i++) {
+            node = child(node, prefix.charAt(i));
+        }
+        return node;
+    }
+
+    //index of the word whose key ends exactly at this node, or -1
+    public int ownWord(int node) {
+        return hasOwnWord(node) ? wordFrom[node] : -1;
+    }
+
+    //edges of a node are edgeFrom(node) .. edgeTo(node) - 1, sorted by label
+    public int edgeFrom(int node) {
+        return childStart[node];
+    }
+
+    public int edgeTo(int node) {
+        return childStart[node + 1];
+    }
+
+    public char edgeLabel(int edge) {
+        return labels[edge];
+    }
+
+    public int edgeChild(int edge) {
+        return childNode[edge];
+    }
+
+    //the words under a node are word(wordFrom(node)) .. word(wordTo(node) - 1)
+    public int wordFrom(int node) {
+        return wordFrom[node];
+    }
+
+    public int wordTo(int node) {
+        return wordTo[node];
+    }
+
+    //i-th word in key order
+    public String word(int i) {
+        return words[i];
+    }
+
+    //the best words under a node (see the top of the file) are
+    //word(topWord(i)) for i = topFrom(node) .. topTo(node) - 1, best first.
+    //only for a trie built with scores
+    public boolean isRanked() {
+        return scores != null;
+    }
+
+    public int topFrom(int node) {
+        return topStart[node];
+    }
+
+    public int topTo(int node) {
+        return topStart[node + 1];
+    }
+
+    public int topWord(int i) {
+        return topWords[i];
+    }
+
+    //score the i-th word was built with
+    public double score(int i) {
+        return scores[i];
+    }
+
+    //number of distinct keys
+    public int size() {
+        return words.length;
+    }
+
+    public int nodeCount() {
+        return nodes;
+    }
+}
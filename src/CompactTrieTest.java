@@ -0,0 +1,112 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class CompactTrieTest {
+
+    @Test
+    public void testFindAndWords() {
+        CompactTrie trie = new CompactTrie(Arrays.asList("Die Hard", "Diamond", "Divergent",
+                "Doctors", "Avatar"));
+        assertEquals(5, trie.size());
+        int di = trie.find("di");
+        assertTrue(di >= 0);
+        List<String> under = new ArrayList<>();
+        for (int i = trie.wordFrom(di); i < trie.wordTo(di); i++) {
+            under.add(trie.word(i));
+        }
+        assertEquals(Arrays.asList("Diamond", "Die Hard", "Divergent"), under);
+        assertEquals(-1, trie.find("dx"));
+        assertEquals(trie.root(), trie.find(""));
+        assertEquals(trie.find("dia"), trie.child(trie.find("di"), 'a'));
+    }
+
+    @Test
+    public void testLastDuplicateWins() {
+        CompactTrie trie = new CompactTrie(Arrays.asList("Avatar", "AVATAR", "avatar 2"));
+        assertEquals(2, trie.size());
+        assertEquals("AVATAR", trie.word(trie.wordFrom(trie.find("avatar"))));
+    }
+
+    @Test
+    public void testTopKMatchesSorting() {
+        Random r = new Random(12);
+        List<String> words = new ArrayList<>();
+        double[] scores = new double[3000];
+        for (int i = 0; i < scores.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = r.nextInt(6); k >= 0; k--) {
+                sb.append("abcd".charAt(r.nextInt(4)));
+            }
+            words.add(sb.toString());
+            scores[i] = r.nextInt(50); // plenty of ties
+        }
+        int k = 7;
+        CompactTrie trie = new CompactTrie(words, scores, k);
+        assertTrue(trie.isRanked());
+        for (String prefix : Arrays.asList("", "a", "ab", "dcb", "bbbb", "x")) {
+            // every distinct key under the prefix, sorted best first then by key
+            List<Integer> under = new ArrayList<>();
+            for (int i = 0; i < trie.size(); i++) {
+                if (trie.word(i).startsWith(prefix)) {
+                    under.add(i);
+                }
+            }
+            under.sort((a, b) -> trie.score(a) != trie.score(b)
+                    ? Double.compare(trie.score(b), trie.score(a)) : a - b);
+            List<Integer> expected = under.subList(0, Math.min(k, under.size()));
+            int node = trie.find(prefix);
+            List<Integer> actual = new ArrayList<>();
+            if (node >= 0) {
+                for (int i = trie.topFrom(node); i < trie.topTo(node); i++) {
+                    actual.add(trie.topWord(i));
+                }
+            }
+            assertEquals("prefix '" + prefix + "'", expected, actual);
+        }
+    }
+
+    @Test
+    public void testLastDuplicateScoreWins() {
+        CompactTrie trie = new CompactTrie(Arrays.asList("Up", "UP", "Upside"),
+                new double[] {100, 1, 50}, 2);
+        int node = trie.find("up");
+        assertEquals("Upside", trie.word(trie.topWord(trie.topFrom(node))));
+        assertEquals("UP", trie.word(trie.topWord(trie.topFrom(node) + 1)));
+    }
+
+    @Test
+    public void testMatchesSortedList() {
+        Random r = new Random(11);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = r.nextInt(8); k >= 0; k--) {
+                sb.append("abC d".charAt(r.nextInt(5)));
+            }
+            words.add(sb.toString());
+        }
+        CompactTrie trie = new CompactTrie(words);
+        TreeSet<String> keys = new TreeSet<>();
+        for (String w : words) {
+            keys.add(w.toLowerCase());
+        }
+        assertEquals(keys.size(), trie.size());
+        for (String prefix : Arrays.asList("", "a", "ab", "c d", "dd", "b a", "zz")) {
+            List<String> expected = new ArrayList<>();
+            for (String k : keys) {
+                if (k.startsWith(prefix)) {
+                    expected.add(k);
+                }
+            }
+            int node = trie.find(prefix);
+            List<String> actual = new ArrayList<>();
+            if (node >= 0) {
+                for (int i = trie.wordFrom(node); i < trie.wordTo(node); i++) {
+                    actual.add(trie.word(i).toLowerCase());
+                }
+            }
+            assertEquals("prefix '" + prefix + "'", expected, actual);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+//how often every connection (a type plus a NameDictionary id, like ACTOR: Tom Hanks)
+//was used, as an open addressing table of primitives: keys are type << 32 | id, linear
+//probing, doubled when half full. a game only ever uses a few hundred connections, so
+//this stays a couple of small arrays, nothing is boxed and a copy is two array copies.
+//SearchBot counts with it, GameState keeps its counts in a PersistentCounts (same keys)
+public class ConnectionCounts {
+
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public ConnectionCounts() {
+        this(16);
+    }
+
+    //room for about capacity / 2 connections before it grows
+    public ConnectionCounts(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+        keys = new long[slots];
+        counts = new int[slots];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private ConnectionCounts(ConnectionCounts other) {
+        keys = other.keys.clone();
+        counts = other.counts.clone();
+        size = other.size;
+    }
+
+    public static long key(Move.ConnectionType type, int valueId) {
+        return (long) type.ordinal() << 32 | valueId;
+    }
+
+    public int get(Move.ConnectionType type, int valueId) {
+        return valueId < 0 ? 0 : get(key(type, valueId));
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    //one more use, returns the count after
+    public int increment(Move.ConnectionType type, int valueId) {
+        return add(key(type, valueId), 1) + 1;
+    }
+
+    //add delta (negative to take uses back) to the count of key, returns the count before
+    public int add(long key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = slot(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        int before = counts[slot];
+        counts[slot] = before + delta;
+        return before;
+    }
+
+    //connections in the table (including ones taken back to 0)
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    //an independent copy
+    public ConnectionCounts copy() {
+        return new ConnectionCounts(this);
+    }
+
+    //the slot of key, or the empty slot it would go in
+    private int slot(long key) {
+        int m = keys.length - 1;
+        // splitmix finalizer, the low bits of a key alone are just the name id
+        long h = key * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        int i = (int) (h ^ (h >>> 31)) & m;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & m;
+        }
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int to = slot(oldKeys[i]);
+                keys[to] = oldKeys[i];
+                counts[to] = oldCounts[i];
+            }
+        }
+    }
+}
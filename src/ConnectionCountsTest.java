@@ -0,0 +1,48 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ConnectionCountsTest {
+
+    @Test
+    public void testCountsPerTypeAndName() {
+        ConnectionCounts counts = new ConnectionCounts();
+        assertEquals(0, counts.get(Move.ConnectionType.ACTOR, 7));
+        assertEquals(1, counts.increment(Move.ConnectionType.ACTOR, 7));
+        assertEquals(2, counts.increment(Move.ConnectionType.ACTOR, 7));
+        assertEquals(1, counts.increment(Move.ConnectionType.DIRECTOR, 7));
+        assertEquals(2, counts.get(Move.ConnectionType.ACTOR, 7));
+        assertEquals(1, counts.get(Move.ConnectionType.DIRECTOR, 7));
+        assertEquals("unknown names were never used", 0,
+                counts.get(Move.ConnectionType.ACTOR, -1));
+        assertEquals(2, counts.size());
+    }
+
+    @Test
+    public void testGrowsAndTakesBack() {
+        ConnectionCounts counts = new ConnectionCounts(4);
+        for (int id = 0; id < 1000; id++) {
+            counts.add(ConnectionCounts.key(Move.ConnectionType.WRITER, id), id % 3 + 1);
+        }
+        for (int id = 0; id < 1000; id++) {
+            assertEquals(id % 3 + 1, counts.get(Move.ConnectionType.WRITER, id));
+        }
+        long key = ConnectionCounts.key(Move.ConnectionType.WRITER, 5);
+        assertEquals(3, counts.add(key, -1));
+        assertEquals(2, counts.get(key));
+        counts.clear();
+        assertEquals(0, counts.size());
+        assertEquals(0, counts.get(key));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        ConnectionCounts counts = new ConnectionCounts();
+        counts.increment(Move.ConnectionType.CINES, 1);
+        ConnectionCounts copy = counts.copy();
+        copy.increment(Move.ConnectionType.CINES, 1);
+        copy.increment(Move.ConnectionType.CINES, 2);
+        assertEquals(1, counts.get(Move.ConnectionType.CINES, 1));
+        assertEquals(0, counts.get(Move.ConnectionType.CINES, 2));
+        assertEquals(2, copy.get(Move.ConnectionType.CINES, 1));
+    }
+}
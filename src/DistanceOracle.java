@@ -0,0 +1,236 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+//"how many moves apart are these two movies", answered from a table instead of a
+//search, for showing the distance to a win condition after every move of every game.
+//
+//a few landmark movies are picked and the MovieGraph distance from each of them to
+//every movie is stored, a byte per movie and landmark (movie major, so one movie's
+//row is a few bytes next to each other). the triangle inequality then bounds any
+//distance d(a, b) from both sides for every landmark l:
+//
+//  |d(a, l) - d(b, l)|  <=  d(a, b)  <=  d(a, l) + d(l, b)
+//
+//so a query is a pass over two rows, O(landmarks), no matter how big the catalog is.
+//the bounds are as tight as the landmarks are well spread: they are picked one by one,
+//each the movie farthest from the ones picked so far (a movie no landmark reaches
+//yet, if any, so every big component gets one). used movies are ignored, this is the
+//distance on the full catalog, see PathFinder for exact chains around them.
+//
+//built from the graph after loading and kept in the snapshot (see MovieSnapshot)
+public class DistanceOracle {
+
+    public static final int DEFAULT_LANDMARKS = 16;
+
+    //bound for movies that can't reach each other
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // stored distances are 0..FAR, longer ones are stored as FAR, NONE means unreachable
+    private static final int FAR = 254;
+    private static final int NONE = 255;
+
+    private final int movieCount;
+    private final int[] landmarks;
+    // distance from landmarks[l] to movie m at distances[m * landmarks.length + l]
+    private final byte[] distances;
+
+    private DistanceOracle(int movieCount, int[] landmarks, byte[] distances) {
+        this.movieCount = movieCount;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    //pick the landmarks and measure everything from them, a BFS over the graph each
+    public static DistanceOracle build(MovieGraph graph, int landmarkCount) {
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("need at least one landmark");
+        }
+        int count = graph.getMovieCount();
+        int k = Math.min(landmarkCount, Math.max(1, count));
+        int[] landmarks = new int[0];
+        byte[] distances = new byte[count * k];
+        Arrays.fill(distances, (byte) NONE);
+        if (count == 0) {
+            return new DistanceOracle(0, landmarks, distances);
+        }
+
+        // distance from each movie to its nearest landmark so far, -1 if none reaches it
+        int[] nearest = new int[count];
+        Arrays.fill(nearest, -1);
+        int[] dist = new int[count];
+        int[] queue = new int[count];
+        for (int l = 0; l < k; l++) {
+            int landmark = next(graph, nearest, l == 0);
+            if (landmark < 0) {
+                break;
+            }
+            landmarks = Arrays.copyOf(landmarks, l + 1);
+            landmarks[l] = landmark;
+            bfs(graph, landmark, dist, queue);
+            for (int m = 0; m < count; m++) {
+                if (dist[m] >= 0) {
+                    distances[m * k + l] = (byte) Math.min(dist[m], FAR);
+                    nearest[m] = nearest[m] < 0 ? dist[m] : Math.min(nearest[m], dist[m]);
+                }
+            }
+        }
+        if (landmarks.length < k) {
+            // fewer movies than landmarks asked for, squeeze the rows
+            byte[] packed = new byte[count * landmarks.length];
+            for (int m = 0; m < count; m++) {
+                System.arraycopy(distances, m * k, packed, m * landmarks.length,
+                        landmarks.length);
+            }
+            distances = packed;
+        }
+        return new DistanceOracle(count, landmarks, distances);
+    }
+
+    //the next landmark: the best connected movie no landmark reaches yet, or else the
+    //one farthest from all landmarks. -1 once every movie is a landmark
+    private static int next(MovieGraph graph, int[] nearest, boolean first) {
+        int best = -1;
+        int bestDegree = -1;
+        int farthest = -1;
+        int farthestDistance = 0;
+        for (int m = 0; m < nearest.length; m++) {
+            if (nearest[m] < 0) {
+                int degree = graph.edgeEnd(m) - graph.edgeStart(m);
+                if (degree > bestDegree) {
+                    best = m;
+                    bestDegree = degree;
+                }
+            } else if (nearest[m] > farthestDistance) {
+                farthest = m;
+                farthestDistance = nearest[m];
+            }
+        }
+        // a movie on its own is no use as a landmark while a component is left over
+        return best >= 0 && (bestDegree > 0 || farthest < 0 || first) ? best : farthest;
+    }
+
+    //hop counts from `from` into dist (-1 for movies it can't reach)
+    private static void bfs(MovieGraph graph, int from, int[] dist, int[] queue) {
+        Arrays.fill(dist, -1);
+        dist[from] = 0;
+        queue[0] = from;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int v = queue[head++];
+            int d = dist[v] + 1;
+            for (int e = graph.edgeStart(v), end = graph.edgeEnd(v); e < end; e++) {
+                int u = graph.neighbor(e);
+                if (dist[u] < 0) {
+                    dist[u] = d;
+                    queue[tail++] = u;
+                }
+            }
+        }
+    }
+
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    //ordinals of the landmark movies
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    //at least this many moves from a to b. UNREACHABLE if a landmark reaches one of
+    //them but not the other (they're in different components)
+    public int lowerBound(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        int k = landmarks.length;
+        int best = 1;
+        for (int l = 0, ra = a * k, rb = b * k; l < k; l++) {
+            int da = distances[ra + l] & 0xFF;
+            int db = distances[rb + l] & 0xFF;
+            if (da == NONE || db == NONE) {
+                if (da != db) {
+                    return UNREACHABLE;
+                }
+                continue;
+            }
+            best = Math.max(best, Math.abs(da - db));
+        }
+        return best;
+    }
+
+    //at most this many moves from a to b, UNREACHABLE if no landmark connects them (so
+    //they may well be connected, just not through a landmark)
+    public int upperBound(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        int k = landmarks.length;
+        int best = UNREACHABLE;
+        for (int l = 0, ra = a * k, rb = b * k; l < k; l++) {
+            int da = distances[ra + l] & 0xFF;
+            int db = distances[rb + l] & 0xFF;
+            // FAR may stand for more, no use for an upper bound
+            if (da < FAR && db < FAR) {
+                best = Math.min(best, da + db);
+            }
+        }
+        return best;
+    }
+
+    //lowerBound to the closest of the targets (like all movies with a win condition's
+    //value), UNREACHABLE if there are none it can reach
+    public int lowerBound(int a, int[] targets) {
+        int best = UNREACHABLE;
+        for (int t : targets) {
+            best = Math.min(best, lowerBound(a, t));
+            if (best == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    //upperBound to the closest of the targets
+    public int upperBound(int a, int[] targets) {
+        int best = UNREACHABLE;
+        for (int t : targets) {
+            best = Math.min(best, upperBound(a, t));
+            if (best == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    //the oracle as part of a MovieSnapshot payload
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(movieCount);
+        out.writeInt(landmarks.length);
+        for (int landmark : landmarks) {
+            out.writeInt(landmark);
+        }
+        out.write(distances);
+    }
+
+    static DistanceOracle read(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        int k = in.readInt();
+        if (count < 0 || k < 0 || (long) count * k > Integer.MAX_VALUE) {
+            throw new IOException("bad distance oracle size");
+        }
+        int[] landmarks = new int[k];
+        for (int l = 0; l < k; l++) {
+            landmarks[l] = in.readInt();
+            if (landmarks[l] < 0 || landmarks[l] >= count) {
+                throw new IOException("bad landmark");
+            }
+        }
+        byte[] distances = new byte[count * k];
+        in.readFully(distances);
+        return new DistanceOracle(count, landmarks, distances);
+    }
+}
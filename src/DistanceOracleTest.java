@@ -0,0 +1,103 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class DistanceOracleTest {
+
+    private final TestCatalog fixture = new TestCatalog();
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    //a chain a0 - a1 - ... - a5 over actors, and a pair on its own
+    private MovieGraph chain() {
+        for (int i = 0; i < 6; i++) {
+            fixture.movie(i + 1, "M" + i, "Drama", "x" + i, "x" + (i + 1));
+        }
+        fixture.movie(10, "P", "Drama", "p");
+        fixture.movie(11, "Q", "Drama", "p");
+        return fixture.graph();
+    }
+
+    @Test
+    public void testBoundsOnAChain() {
+        DistanceOracle oracle = DistanceOracle.build(chain(), 3);
+        // the best connected movie (M1), then the pair nothing reaches yet, then the
+        // movie farthest from M1: the end of the chain
+        assertEquals(Arrays.asList(1, 6, 5), Arrays.asList(oracle.getLandmarks()[0],
+                oracle.getLandmarks()[1], oracle.getLandmarks()[2]));
+        assertEquals(5, oracle.lowerBound(0, 5));
+        assertEquals(5, oracle.upperBound(0, 5));
+        assertEquals(0, oracle.lowerBound(3, 3));
+        assertEquals(2, oracle.lowerBound(1, 3));
+        assertEquals(2, oracle.upperBound(1, 3));
+        assertEquals(1, oracle.lowerBound(6, 7));
+        assertEquals(1, oracle.upperBound(6, 7));
+        assertEquals(DistanceOracle.UNREACHABLE, oracle.lowerBound(0, 6));
+        assertEquals(DistanceOracle.UNREACHABLE, oracle.lowerBound(0, new int[] {6, 7}));
+        assertEquals(2, oracle.lowerBound(0, new int[] {7, 2, 4}));
+    }
+
+    @Test
+    public void testFewLandmarksStillBound() {
+        DistanceOracle oracle = DistanceOracle.build(chain(), 1);
+        assertTrue(oracle.lowerBound(0, 5) <= 5);
+        assertTrue(oracle.upperBound(0, 5) >= 5);
+        // no landmark in the pair's component, so nothing better than one move is known
+        assertEquals(1, oracle.lowerBound(6, 7));
+        assertEquals(DistanceOracle.UNREACHABLE, oracle.upperBound(6, 7));
+    }
+
+    @Test
+    public void testBoundsHoldOnRealCatalog() throws Exception {
+        MovieDatabase catalog = new MovieDatabase();
+        catalog.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        DistanceOracle oracle = catalog.getDistanceOracle();
+        assertSame(oracle, catalog.getDistanceOracle());
+        PathFinder finder = catalog.getPathFinder();
+        Random random = new Random(4);
+        int count = catalog.getMovieCount();
+        for (int i = 0; i < 500; i++) {
+            int a = random.nextInt(count);
+            int b = random.nextInt(count);
+            int d = finder.distance(a, b);
+            int lower = oracle.lowerBound(a, b);
+            int upper = oracle.upperBound(a, b);
+            if (d < 0) {
+                assertEquals(DistanceOracle.UNREACHABLE, lower);
+            } else {
+                assertTrue(lower + " <= " + d, lower <= d);
+                assertTrue(d + " <= " + upper, d <= upper);
+            }
+        }
+    }
+
+    @Test
+    public void testKeptInSnapshot() throws Exception {
+        chain();
+        DistanceOracle oracle = fixture.db.getDistanceOracle();
+        Path dir = temp.newFolder("oracle").toPath();
+        Path snapshot = dir.resolve("movies.snapshot");
+        MovieSnapshot.write(fixture.db, snapshot, null, null);
+        MovieDatabase copy = new MovieDatabase();
+        assertTrue(MovieSnapshot.read(snapshot, null, null, copy));
+        DistanceOracle restored = copy.builtDistanceOracle();
+        assertNotNull("snapshot should bring the oracle back", restored);
+        assertArrayEquals(oracle.getLandmarks(), restored.getLandmarks());
+        for (int a = 0; a < 8; a++) {
+            for (int b = 0; b < 8; b++) {
+                assertEquals(oracle.lowerBound(a, b), restored.lowerBound(a, b));
+                assertEquals(oracle.upperBound(a, b), restored.upperBound(a, b));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsALandmark() {
+        DistanceOracle.build(chain(), 0);
+    }
+}
@@ -8,7 +8,9 @@ public class EscapeCommand implements Command {
 
     @Override
     public void execute(GameState state) {
-        Movie newRandomMovie = database.getRandomMovie();
+        // games on the server share one database, they draw from their own MovieDraw
+        Movie newRandomMovie = state.hasMovieDraw()
+                ? state.drawRandomMovie() : database.getRandomMovie();
 
         // escape gives us a new random movie that is played, like a free change
         state.setCurrentMovie(newRandomMovie);
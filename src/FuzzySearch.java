@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.List;
+
+//typo tolerant lookups over a CompactTrie: which keys (or prefixes) are within a few
+//edits of what the player typed. an edit is inserting, deleting or changing one char,
+//or swapping two neighbouring chars ("knigth" -> "knight" is one edit).
+//
+//this is the usual edit distance table, just shared along the trie: walking down an
+//edge adds one row to the table of the path above it, so every key prefix is worked
+//out once no matter how many keys start with it. a branch is dropped as soon as every
+//cell of its newest row is over the limit, since rows further down can only be worse,
+//which keeps a search with 1-2 edits to a small corner of the trie.
+//
+//keys are compared lowercase, like the trie stores them. immutable after construction,
+//so one instance can be shared between threads
+public class FuzzySearch {
+
+    private final CompactTrie trie;
+
+    public FuzzySearch(CompactTrie trie) {
+        this.trie = trie;
+    }
+
+    public CompactTrie trie() {
+        return trie;
+    }
+
+    //how many edits we forgive by default: none for very short input (everything
+    //would match), one for short words, two for anything longer
+    public static int defaultMaxDistance(int length) {
+        if (length < 3) {
+            return 0;
+        }
+        return length < 6 ? 1 : 2;
+    }
+
+    //index (see CompactTrie.word) of the key closest to `key`, or -1 if none is within
+    //maxDistance edits. ties go to the higher score if the trie has scores, then to
+    //key order
+    public int closest(String key, int maxDistance) {
+        Search s = new Search(key.toLowerCase(), maxDistance);
+        s.closest(trie.root(), 0);
+        return s.best;
+    }
+
+    //nodes whose prefix is within maxDistance edits of `prefix`, closest first (the
+    //suggestions for a mistyped prefix are the words under these nodes). once a node
+    //matches, its descendants are only reported if they match with fewer edits
+    public List<Integer> prefixNodes(String prefix, int maxDistance) {
+        Search s = new Search(prefix.toLowerCase(), maxDistance);
+        s.prefixes(trie.root(), 0, maxDistance);
+        List<Integer> nodes = new ArrayList<>();
+        for (int d = 0; d <= maxDistance; d++) {
+            for (int i = 0; i < s.found.size(); i++) {
+                if (s.foundDistance.get(i) == d) {
+                    nodes.add(s.found.get(i));
+                }
+            }
+        }
+        return nodes;
+    }
+
+    //one search: the table rows of the current path (rows[d] is the path of length d)
+    private final class Search {
+        private final String query;
+        private final int[][] rows;
+        private final char[] path;
+        private int limit;
+        private int best = -1;
+        private int bestDistance = Integer.MAX_VALUE;
+        private final List<Integer> found = new ArrayList<>();
+        private final List<Integer> foundDistance = new ArrayList<>();
+
+        Search(String query, int maxDistance) {
+            this.query = query;
+            this.limit = Math.max(0, maxDistance);
+            // a path longer than query + limit is over the limit in every cell
+            int depth = query.length() + limit + 1;
+            rows = new int[depth + 1][query.length() + 1];
+            path = new char[depth + 1];
+            for (int j = 0; j <= query.length(); j++) {
+                rows[0][j] = j;
+            }
+        }
+
+        //fill rows[depth] for the path extended by c, returns the row minimum
+        private int step(int depth, char c) {
+            int[] prev = rows[depth - 1];
+            int[] row = rows[depth];
+            path[depth - 1] = c;
+            row[0] = depth;
+            int min = row[0];
+            for (int j = 1; j <= query.length(); j++) {
+                char q = query.charAt(j - 1);
+                int cost = q == c ? 0 : 1;
+                int v = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+                if (depth > 1 && j > 1 && c == query.charAt(j - 2) && path[depth - 2] == q) {
+                    v = Math.min(v, rows[depth - 2][j - 2] + 1);
+                }
+                row[j] = v;
+                min = Math.min(min, v);
+            }
+            return min;
+        }
+
+        private void closest(int node, int depth) {
+            int word = trie.ownWord(node);
+            if (word >= 0) {
+                int d = rows[depth][query.length()];
+                if (d <= limit && better(word, d)) {
+                    best = word;
+                    bestDistance = d;
+                    // nothing further than this one can win any more
+                    limit = d;
+                }
+            }
+            if (depth + 1 >= rows.length) {
+                return;
+            }
+            for (int e = trie.edgeFrom(node); e < trie.edgeTo(node); e++) {
+                if (step(depth + 1, trie.edgeLabel(e)) <= limit) {
+                    closest(trie.edgeChild(e), depth + 1);
+                }
+            }
+        }
+
+        private boolean better(int word, int d) {
+            if (d != bestDistance) {
+                return d < bestDistance;
+            }
+            if (trie.isRanked() && trie.score(word) != trie.score(best)) {
+                return trie.score(word) > trie.score(best);
+            }
+            return word < best;
+        }
+
+        private void prefixes(int node, int depth, int bound) {
+            int d = rows[depth][query.length()];
+            if (d <= bound) {
+                found.add(node);
+                foundDistance.add(d);
+                // anything below is already covered unless it's closer
+                bound = d - 1;
+                if (bound < 0) {
+                    return;
+                }
+            }
+            if (depth + 1 >= rows.length) {
+                return;
+            }
+            for (int e = trie.edgeFrom(node); e < trie.edgeTo(node); e++) {
+                if (step(depth + 1, trie.edgeLabel(e)) <= bound) {
+                    prefixes(trie.edgeChild(e), depth + 1, bound);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class FuzzySearchTest {
+
+    private static final List<String> TITLES = Arrays.asList("The Dark Knight", "Avatar",
+            "Avengers", "Alien", "Aliens", "Up", "Heat", "Titanic", "The Dark Knight Rises");
+
+    @Test
+    public void testClosest() {
+        FuzzySearch fuzzy = new FuzzySearch(new CompactTrie(TITLES));
+        assertEquals("The Dark Knight", word(fuzzy, "the dark knigth", 2)); // swapped
+        assertEquals("The Dark Knight", word(fuzzy, "The Drk Knight", 1));  // dropped
+        assertEquals("Avatar", word(fuzzy, "avatr", 1));
+        assertEquals("Alien", word(fuzzy, "alien", 2));                    // exact wins
+        assertEquals("Titanic", word(fuzzy, "titanicc", 1));
+        assertNull(word(fuzzy, "titnaicc", 1));
+        assertNull(word(fuzzy, "casablanca", 2));
+    }
+
+    @Test
+    public void testTiesGoToHigherScore() {
+        // "Heal" is one edit away from both
+        CompactTrie trie = new CompactTrie(Arrays.asList("Heat", "Heel"), new double[] {5, 50}, 0);
+        assertEquals("Heel", trie.word(new FuzzySearch(trie).closest("heal", 1)));
+        trie = new CompactTrie(Arrays.asList("Heat", "Heel"), new double[] {50, 5}, 0);
+        assertEquals("Heat", trie.word(new FuzzySearch(trie).closest("heal", 1)));
+    }
+
+    @Test
+    public void testClosestMatchesBruteForce() {
+        Random r = new Random(13);
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            words.add(randomWord(r));
+        }
+        CompactTrie trie = new CompactTrie(words);
+        FuzzySearch fuzzy = new FuzzySearch(trie);
+        for (int q = 0; q < 300; q++) {
+            String query = randomWord(r);
+            for (int max = 0; max <= 2; max++) {
+                int best = -1;
+                int bestDistance = max + 1;
+                for (int i = 0; i < trie.size(); i++) {
+                    int d = distance(query, trie.word(i));
+                    if (d < bestDistance) {
+                        best = i;
+                        bestDistance = d;
+                    }
+                }
+                assertEquals("'" + query + "' within " + max, best, fuzzy.closest(query, max));
+            }
+        }
+    }
+
+    @Test
+    public void testPrefixNodes() {
+        CompactTrie trie = new CompactTrie(TITLES);
+        FuzzySearch fuzzy = new FuzzySearch(trie);
+        List<Integer> nodes = fuzzy.prefixNodes("avangers", 1);
+        assertEquals(1, nodes.size());
+        assertEquals("Avengers", trie.word(trie.wordFrom(nodes.get(0))));
+
+        // exact prefix comes first, then the ones a typo away
+        nodes = fuzzy.prefixNodes("alie", 1);
+        assertEquals(trie.find("alie"), (int) nodes.get(0));
+        assertTrue(fuzzy.prefixNodes("zzzz", 1).isEmpty());
+    }
+
+    private static String word(FuzzySearch fuzzy, String key, int max) {
+        int i = fuzzy.closest(key, max);
+        return i < 0 ? null : fuzzy.trie().word(i);
+    }
+
+    private static String randomWord(Random r) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 1 + r.nextInt(7); k > 0; k--) {
+            sb.append("abcde".charAt(r.nextInt(5)));
+        }
+        return sb.toString();
+    }
+
+    // plain table version (with swaps of neighbouring chars) to compare against
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1),
+                        d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2)
+                        && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
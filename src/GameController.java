@@ -1,17 +1,30 @@
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
 public class GameController {
 
     // fields
     private MovieDatabase database;
-    private GameUI ui;
+    private GameView ui;
     private GameState state;
+    // players the computer plays for, see setBot
+    private final Map<Player, BotStrategy> bots = new HashMap<>();
+    private final Random botRandom = new Random();
+    // the game before each of the human player's moves, for !undo. snapshots share
+    // everything with the game, so keeping all of them is cheap
+    private final Deque<GameState.Snapshot> undo = new ArrayDeque<>();
+    // a title we only guessed from a typo, played if the next input is a yes
+    private Movie suggestion;
 
 
 
     // constructs a controller with required info
-    public GameController(GameState state, GameUI ui) {
+    public GameController(GameState state, GameView ui) {
         this.state = state;
         this.ui = ui;
         this.database = state.getDatabase();
@@ -19,6 +32,13 @@ public class GameController {
 
 
 
+    // let the computer play this player's turns (e.g. a SearchBot), nobody is
+    // prompted for them
+    public void setBot(Player player, BotStrategy bot) {
+        bots.put(player, bot);
+    }
+
+
     // game loop start (this is the method that starts the game loop)
     // initializes the game state
     public void start() throws IOException {
@@ -30,7 +50,19 @@ public class GameController {
             // UI -- show the game state + prompt the current player for input
             // ui.showGameState(state);
             Player currentPlayer = state.getCurrentPlayer();
+            BotStrategy bot = bots.get(currentPlayer);
+            if (bot != null) {
+                playBotTurn(currentPlayer, bot);
+                continue;
+            }
             String input = ui.promptPlayer(state.getCurrentPlayer());
+            // the prompt gets cancelled when the turn timer runs out, which ends the game
+            if (state.isGameOver()) {
+                break;
+            }
+            // a suggestion only stands for the very next input
+            Movie offered = suggestion;
+            suggestion = null;
 
             // parse input to determine if its a powerUP (skip, block, escape) or a Movie
             // convert the input string into a corresponding Command object
@@ -45,6 +77,18 @@ public class GameController {
             // convert input to lowercase
             input = input.trim().toLowerCase();
 
+            // take back the last move (and the computer's answer to it). only against
+            // the computer, another human gets no say in it
+            if (input.equals("!undo")) {
+                if (bots.isEmpty() || undo.isEmpty()) {
+                    ui.showError("Nothing to undo!");
+                } else {
+                    state.restore(undo.pop());
+                    ui.showGameState(state);
+                }
+                continue;
+            }
+            GameState.Snapshot before = state.snapshot();
 
             // if its a command, call state.appluCommand(player, command)
             Optional<Command> commandMaybe = getCommandFromInput(input);
@@ -59,6 +103,7 @@ public class GameController {
                 currentPlayer = state.getCurrentPlayer();
 
                 if (state.applyCommand(currentPlayer, command)) {
+                    undo.push(before);
                     // don't call nextTurn here
                     ui.showGameState(state);
                 }
@@ -67,7 +112,22 @@ public class GameController {
 
             // if there is nothing in commandMaybe, then it's a MOVIE
             } else {
-                Movie guessedMovie = database.getMovieByTitle(input);
+                // exact title first, then the closest one if it was just a typo. a
+                // guessed title is only offered, the player has to say yes to it (it
+                // may be a real movie we just don't have)
+                Movie guessedMovie;
+                if (offered != null && (input.equals("yes") || input.equals("y"))) {
+                    guessedMovie = offered;
+                } else {
+                    guessedMovie = database.getClosestMovieByTitle(input);
+                    if (guessedMovie != null
+                            && !guessedMovie.getTitle().equalsIgnoreCase(input)) {
+                        suggestion = guessedMovie;
+                        ui.showError("Did you mean " + guessedMovie.getTitle()
+                                + "? Type yes to play it.");
+                        continue;
+                    }
+                }
 
                 // if the guessedMovie is null, the movie doesn't exist in the database
                 if (guessedMovie == null) {
@@ -90,6 +150,7 @@ public class GameController {
                 }
                 // If present, continue, it means it's a valid move and the game
                 // should continue like usual call this state.applyMove(move);
+                undo.push(before);
                 state.applyMove(newMove);
                 //mustCallNextTurn = true;
                 state.nextTurn();
@@ -106,6 +167,24 @@ public class GameController {
     }
 
 
+    // the computer's turn: it picks a movie (already checked against the rules) and
+    // we play it like a typed one. with nothing left to play it gives up, which ends
+    // the game the same way running out of time does
+    private void playBotTurn(Player player, BotStrategy bot) throws IOException {
+        Movie choice = bot.chooseMovie(state, player, botRandom);
+        Optional<Move> move = choice == null ? Optional.empty()
+                : state.tryBuildMove(player, choice);
+        if (!move.isPresent()) {
+            ui.showError(player.getName() + " can't find a movie to play!");
+            state.setTimeExpired(true);
+            return;
+        }
+        state.applyMove(move.get());
+        state.nextTurn();
+        ui.showGameState(state);
+    }
+
+
     // helper func to parse command from input string
     // I will use print statements here just for visibility
     // (it goes against checkstyle, but terminal is
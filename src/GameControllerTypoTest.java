@@ -0,0 +1,99 @@
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class GameControllerTypoTest {
+    private MovieDatabase db;
+    private Movie movie1;
+    private Movie movie2;
+    private GameState state;
+
+    //plays the given lines, then leaves the game
+    private static class ScriptedView implements GameView {
+        private final Deque<String> inputs;
+        final List<String> errors = new ArrayList<>();
+        Player winner;
+
+        ScriptedView(String... inputs) {
+            this.inputs = new ArrayDeque<>(Arrays.asList(inputs));
+        }
+
+        @Override
+        public String promptPlayer(Player currentPlayer) throws IOException {
+            if (inputs.isEmpty()) {
+                throw new IOException("done");
+            }
+            return inputs.poll();
+        }
+
+        @Override
+        public void showGameState(GameState state) {
+        }
+
+        @Override
+        public void showError(String message) {
+            errors.add(message);
+        }
+
+        @Override
+        public void showGameEnd(Player winner) {
+            this.winner = winner;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        movie1 = new Movie(1, "Movie One", 2000, "Dir A", "", Arrays.asList("Actor X"),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        movie2 = new Movie(2, "Movie Two", 2001, "Dir B", "", Arrays.asList("Actor X"),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        db = new MovieDatabase() {
+            @Override
+            public Movie getRandomMovie() {
+                return movie1;
+            }
+        };
+        db.addMovie(movie1);
+        db.addMovie(movie2);
+        db.buildIndexes();
+        Player player = new Player("Player 0",
+                new WinCondition(Move.ConnectionType.ACTOR, "Actor X", 1));
+        state = new GameState(db, Collections.singletonList(player));
+        state.initialGameState();
+    }
+
+    private void play(ScriptedView view) {
+        try {
+            new GameController(state, view).start();
+        } catch (IOException done) {
+            // out of input
+        }
+    }
+
+    @Test
+    public void testTypoIsOfferedNotPlayed() {
+        ScriptedView view = new ScriptedView("movie twp");
+        play(view);
+        assertEquals(Collections.singletonList("Did you mean Movie Two? Type yes to play it."),
+                view.errors);
+        assertFalse("nothing is played without a yes", state.isMovieUsed(movie2));
+    }
+
+    @Test
+    public void testYesPlaysTheSuggestion() {
+        ScriptedView view = new ScriptedView("movie twp", "yes");
+        play(view);
+        assertTrue(state.isMovieUsed(movie2));
+        assertSame("the move wins the game", state.getPlayers().get(0), view.winner);
+    }
+
+    @Test
+    public void testSuggestionOnlyStandsForTheNextInput() {
+        ScriptedView view = new ScriptedView("movie twp", "", "yes");
+        play(view);
+        assertFalse(state.isMovieUsed(movie2));
+        assertEquals("Invalid input. Please try again!", view.errors.get(1));
+    }
+}
@@ -0,0 +1,83 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+//headless server mode: every tcp connection gets its own game (see TextGameView for
+//the protocol), all of them sharing one loaded MovieDatabase through a SessionManager.
+//start it with `java MovieNameGame --server [port]` and try it with e.g. `nc localhost 5940`
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 5940;
+
+    private final SessionManager sessions;
+    private final ServerSocket socket;
+
+    public GameServer(MovieDatabase catalog, int port) throws IOException {
+        this.sessions = new SessionManager(catalog);
+        this.socket = new ServerSocket(port);
+    }
+
+    //accept connections until the server socket is closed
+    public void serve() throws IOException {
+        System.out.println("Movie Name Game server listening on port " + socket.getLocalPort());
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    client.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                    client.getOutputStream(), StandardCharsets.UTF_8));
+            sessions.start(new TextGameView(in, out) {
+                @Override
+                public void showGameEnd(Player winner) {
+                    super.showGameEnd(winner);
+                    closeQuietly(client);
+                }
+
+                @Override
+                public String promptPlayer(Player currentPlayer) throws IOException {
+                    try {
+                        return super.promptPlayer(currentPlayer);
+                    } catch (IOException e) {
+                        closeQuietly(client);
+                        throw e;
+                    }
+                }
+            });
+        }
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        sessions.close();
+    }
+
+    private static void closeQuietly(Socket client) {
+        try {
+            client.close();
+        } catch (IOException ignore) {
+
+        }
+    }
+}
@@ -0,0 +1,60 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+//one game hosted by a SessionManager. the movie catalog is shared with every other
+//session and only ever read; everything a game changes lives here: its GameState,
+//the players and their win conditions, and the MovieDraw random movies come from
+public class GameSession implements Runnable {
+
+    private final int id;
+    private final GameState state;
+    private final GameView view;
+    private volatile boolean finished = false;
+
+    //set up a fresh two player game. the seed drives both the movie draws and the
+    //win conditions, so two sessions with the same seed play out the same
+    GameSession(int id, MovieDatabase catalog, GameView view, long seed) {
+        this.id = id;
+        this.view = view;
+        Random random = new Random(seed);
+        MovieDraw draw = new MovieDraw(catalog.getMovieCount(), random);
+
+        List<Player> players = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            WinCondition wc = WinCondition.random(catalog, 5, true, random, () -> {
+                int ordinal = draw.draw();
+                return ordinal < 0 ? null : catalog.getMovieByOrdinal(ordinal);
+            });
+            players.add(new Player("Player " + i, wc));
+        }
+        state = new GameState(catalog, players, draw);
+        state.initialGameState();
+    }
+
+    //play the game to the end (or until the client goes away)
+    @Override
+    public void run() {
+        try {
+            view.showGameState(state);
+            new GameController(state, view).start();
+        } catch (IOException e) {
+            // the client left, nothing to clean up but the session itself
+        } finally {
+            finished = true;
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
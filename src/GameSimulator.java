@@ -0,0 +1,233 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//plays whole games between two BotStrategy bots with no ui at all, as many as we
+//want, on every core, and sums them up in a SimulationReport (win rates, game length,
+//how hard every win condition is). meant for tuning the WinCondition.random targets
+//with data instead of guessing.
+//
+//a game is the same GameState the controller drives, only the moves come from the
+//bots: propose a movie, tryBuildMove, applyMove, nextTurn. a bot that can't find a
+//movie loses like a player whose time runs out (GameState.setTimeExpired). games run
+//one per ForkJoin leaf, the catalog is only read, so they don't share anything but
+//the database. the bots swap seats every game so moving first doesn't favour one
+//
+//  java GameSimulator [--synthetic <movies>] [--games <n>] [--target <n>] [--all-types]
+//                      [--bots <first>,<second>]   (random, greedy or search)
+public class GameSimulator {
+
+    public static final int DEFAULT_TARGET = 5;
+    public static final int DEFAULT_MAX_MOVES = 500;
+
+    // games per ForkJoin leaf, small enough to spread well, big enough to not matter
+    private static final int GAMES_PER_TASK = 8;
+
+    private final MovieDatabase database;
+    private final BotStrategy[] bots;
+    private int target = DEFAULT_TARGET;
+    private boolean defaultOnly = true;
+    private int maxMoves = DEFAULT_MAX_MOVES;
+    private int parallelism = 0;
+    // one MovieDraw per worker thread, reset for every game instead of reallocated
+    private final ThreadLocal<MovieDraw> draws;
+
+    public GameSimulator(MovieDatabase database, BotStrategy first, BotStrategy second) {
+        if (database.getGraph() == null) {
+            throw new IllegalStateException("the bots need the movie graph, load the "
+                    + "database with loadAll first");
+        }
+        this.database = database;
+        this.bots = new BotStrategy[] {first, second};
+        int count = database.getMovieCount();
+        this.draws = ThreadLocal.withInitial(() -> new MovieDraw(count, new Random()));
+    }
+
+    //win condition target, like the 5 the real game uses
+    public void setTarget(int target) {
+        this.target = target;
+    }
+
+    //only genre win conditions (the default), or every connection type
+    public void setDefaultOnly(boolean defaultOnly) {
+        this.defaultOnly = defaultOnly;
+    }
+
+    //moves after which a game counts as a draw
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+
+    //worker threads, 0 (the default) means the common ForkJoin pool
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    //play this many games. game g is seeded from seed and g alone, so the same seed
+    //gives the same report no matter how many threads play it
+    public SimulationReport run(int games, long seed) {
+        long start = System.nanoTime();
+        Games task = new Games(seed, 0, games);
+        SimulationReport report;
+        if (parallelism <= 0) {
+            report = ForkJoinPool.commonPool().invoke(task);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                report = pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private SimulationReport newReport() {
+        return new SimulationReport(bots[0].getName(), bots[1].getName());
+    }
+
+    //games [lo, hi), split in half until they're small enough to just play
+    private final class Games extends RecursiveTask<SimulationReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int lo;
+        private final int hi;
+
+        Games(long seed, int lo, int hi) {
+            this.seed = seed;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (hi - lo <= GAMES_PER_TASK) {
+                SimulationReport report = newReport();
+                for (int g = lo; g < hi; g++) {
+                    play(g, seed, report);
+                }
+                return report;
+            }
+            int mid = (lo + hi) >>> 1;
+            Games left = new Games(seed, lo, mid);
+            left.fork();
+            SimulationReport report = new Games(seed, mid, hi).compute();
+            report.merge(left.join());
+            return report;
+        }
+    }
+
+    //play game number g and add it to the report
+    void play(int g, long seed, SimulationReport report) {
+        Random random = new Random(seed + g * 0x9E3779B97F4A7C15L);
+        MovieDraw draw = draws.get();
+        draw.reset();
+        draw.setRandom(random);
+
+        // strategy s sits in seat (s + g) % 2, seat 0 moves first
+        int firstBot = g & 1;
+        List<Player> players = new ArrayList<>(2);
+        WinCondition[] conditions = new WinCondition[2];
+        for (int seat = 0; seat < 2; seat++) {
+            WinCondition wc = WinCondition.random(database, target, defaultOnly, random, () -> {
+                int ordinal = draw.draw();
+                return ordinal < 0 ? null : database.getMovieByOrdinal(ordinal);
+            });
+            conditions[(firstBot + seat) & 1] = wc;
+            players.add(new Player(bots[(firstBot + seat) & 1].getName(), wc));
+        }
+        GameState state = new GameState(database, players, draw);
+        state.initialGameState();
+
+        int moves = 0;
+        boolean stuck = false;
+        while (!state.isGameOver() && moves < maxMoves) {
+            Player me = state.getCurrentPlayer();
+            BotStrategy bot = bots[(firstBot + seatOf(players, me)) & 1];
+            Movie next = bot.chooseMovie(state, me, random);
+            Optional<Move> move = next == null ? Optional.empty() : state.tryBuildMove(me, next);
+            if (!move.isPresent()) {
+                // out of ideas, the other side wins
+                state.setTimeExpired(true);
+                stuck = true;
+                break;
+            }
+            state.applyMove(move.get());
+            state.nextTurn();
+            moves++;
+        }
+
+        Player winner = state.isGameOver() ? state.getWinner() : null;
+        int winnerSeat = winner == null ? -1 : seatOf(players, winner);
+        int winnerBot = winnerSeat < 0 ? -1 : (firstBot + winnerSeat) & 1;
+        report.addGame(winnerBot, winnerSeat == 0, stuck, moves, conditions);
+    }
+
+    private static BotStrategy bot(String name) {
+        switch (name) {
+            case "random":
+                return BotStrategy.random();
+            case "greedy":
+                return BotStrategy.greedy();
+            case "search":
+                return new SearchBot();
+            default:
+                throw new IllegalArgumentException("unknown bot: " + name);
+        }
+    }
+
+    private static int seatOf(List<Player> players, Player p) {
+        return players.get(0) == p ? 0 : 1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int synthetic = 0;
+        int games = 10000;
+        int target = DEFAULT_TARGET;
+        boolean allTypes = false;
+        long seed = 42L;
+        String[] botNames = {"greedy", "random"};
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--synthetic")) {
+                synthetic = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--games")) {
+                games = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--target")) {
+                target = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--all-types")) {
+                allTypes = true;
+            } else if (args[i].equals("--seed")) {
+                seed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--bots")) {
+                botNames = args[++i].split(",");
+            }
+        }
+
+        String movies = "tmdb_5000_movies.csv";
+        String credits = "tmdb_5000_credits.csv";
+        if (synthetic > 0) {
+            Path dir = Files.createTempDirectory("synthetic");
+            SyntheticCatalog.write(dir, synthetic, 42L);
+            movies = dir.resolve(SyntheticCatalog.MOVIES_FILE).toString();
+            credits = dir.resolve(SyntheticCatalog.CREDITS_FILE).toString();
+        } else if (!Files.exists(MovieDatabase.resolve(movies))) {
+            System.err.println("tmdb csv files not found, run with --synthetic <movies>");
+            return;
+        }
+        MovieDatabase db = new MovieDatabase();
+        db.setLoadParallelism(Runtime.getRuntime().availableProcessors());
+        db.loadAll(movies, credits);
+
+        GameSimulator sim = new GameSimulator(db, bot(botNames[0]), bot(botNames[1]));
+        sim.setTarget(target);
+        sim.setDefaultOnly(!allTypes);
+        System.out.print(sim.run(games, seed));
+    }
+}
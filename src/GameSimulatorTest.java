@@ -0,0 +1,97 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class GameSimulatorTest {
+
+    private static MovieDatabase db;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        db = new MovieDatabase();
+        db.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+    }
+
+    @Test
+    public void testReportAddsUp() {
+        GameSimulator sim = new GameSimulator(db, BotStrategy.greedy(), BotStrategy.random());
+        SimulationReport report = sim.run(300, 7L);
+        assertEquals(300, report.getGames());
+        assertEquals("every game is won by someone or hits the limit", 300,
+                report.getWins(0) + report.getWins(1) + report.getDraws());
+        assertTrue(report.getAverageGameLength() > 0);
+        SimulationReport.ConditionStats genre = report.getTypeStats(Move.ConnectionType.GENRE);
+        assertEquals("two players per game, genre only by default", 600, genre.getDealt());
+        assertTrue(genre.getCompleted() <= report.getWins(0) + report.getWins(1));
+        assertTrue(report.toString().contains("greedy"));
+    }
+
+    @Test
+    public void testGreedyBeatsRandom() {
+        GameSimulator sim = new GameSimulator(db, BotStrategy.greedy(), BotStrategy.random());
+        SimulationReport report = sim.run(200, 1L);
+        assertTrue("greedy should win most games: " + report,
+                report.getWins(0) > 3 * report.getWins(1));
+    }
+
+    @Test
+    public void testSameSeedSameResultOnAnyThreadCount() {
+        GameSimulator one = new GameSimulator(db, BotStrategy.greedy(), BotStrategy.greedy());
+        one.setParallelism(1);
+        one.setDefaultOnly(false);
+        one.setTarget(2);
+        one.setMaxMoves(100);
+        GameSimulator four = new GameSimulator(db, BotStrategy.greedy(), BotStrategy.greedy());
+        four.setParallelism(4);
+        four.setDefaultOnly(false);
+        four.setTarget(2);
+        four.setMaxMoves(100);
+        SimulationReport a = one.run(150, 99L);
+        SimulationReport b = four.run(150, 99L);
+        assertEquals(a.getTotalMoves(), b.getTotalMoves());
+        assertEquals(a.getWins(0), b.getWins(0));
+        assertEquals(a.getDraws(), b.getDraws());
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            SimulationReport.ConditionStats sa = a.getTypeStats(type);
+            SimulationReport.ConditionStats sb = b.getTypeStats(type);
+            assertEquals(type.toString(), sa == null, sb == null);
+            if (sa != null) {
+                assertEquals(sa.getDealt(), sb.getDealt());
+                assertEquals(sa.getCompleted(), sb.getCompleted());
+            }
+        }
+    }
+
+    @Test
+    public void testBotsOnlyProposeLegalMovies() {
+        Random random = new Random(3);
+        MovieDraw draw = new MovieDraw(db.getMovieCount(), random);
+        List<Player> players = new ArrayList<>(Arrays.asList(
+                new Player("a", new WinCondition(Move.ConnectionType.GENRE, "Drama", 5)),
+                new Player("b", new WinCondition(Move.ConnectionType.GENRE, "Comedy", 5))));
+        GameState state = new GameState(db, players, draw);
+        state.initialGameState();
+        for (int i = 0; i < 20 && !state.isGameOver(); i++) {
+            BotStrategy bot = i % 2 == 0 ? BotStrategy.greedy() : BotStrategy.random();
+            Movie next = bot.chooseMovie(state, state.getCurrentPlayer(), random);
+            if (next == null) {
+                break;
+            }
+            assertFalse(state.isMovieUsed(next));
+            Move move = state.tryBuildMove(state.getCurrentPlayer(), next).orElse(null);
+            assertNotNull("bot proposed an illegal movie: " + next.getTitle(), move);
+            state.applyMove(move);
+            state.nextTurn();
+            assertTrue(state.isMovieUsed(next));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNeedsGraph() {
+        new GameSimulator(new MovieDatabase(), BotStrategy.random(), BotStrategy.random());
+    }
+}
@@ -1,38 +1,64 @@
 import java.util.*;
+import java.util.function.IntPredicate;
 
 public class GameState {
 
+    // how often one exact connection (say ACTOR: Tom Hanks) may be used in a game
+    public static final int MAX_CONNECTION_USES = 3;
+
     // fields
     private MovieDatabase database;
     // tracks currently played (top of pile) movie
     private Movie currentMovie;
     private List<Player> players;
-    private Set<Player> blockedPlayers = new HashSet<>();
+
+    // everything below that changes during the game is immutable and gets replaced
+    // rather than changed (the maps and sets too), so a fork or a snapshot just keeps
+    // pointing at what's there (see fork, snapshot and restore)
+    private Set<Player> blockedPlayers = Collections.emptySet();
 
     // it's either the player or the computer
     private int currentPlayerIndex = 0;
-    // track the ids (aka movies) that were already played
-    private Set<Integer> usedMovieIds = new HashSet<>();
-
-    // this tracks the number of times that this type of connection
-    // has been used in this game.
-    // String = connection type
-    // Integer = how many times this connection types has been used so far
-    // we need to fill out this map with our different connection types and their initial values (0)
-    private Map<Move.ConnectionType, Map<String,Integer>> connectionUsage = new HashMap<>();
-
-    private List<Movie> playedMoviesHistory = new ArrayList<>();
-    private List<Move> moveHistory = new ArrayList<>();
+    // the movies that were already played, a bit per movie ordinal. movies that
+    // aren't in the database (built by hand) go by id in usedElsewhere instead
+    private PersistentBitSet usedMovies = PersistentBitSet.EMPTY;
+    private PersistentCounts usedElsewhere = PersistentCounts.EMPTY;
+
+    // how many times every exact connection (type + name, like ACTOR: Tom Hanks) has
+    // been used in this game, keys by ConnectionCounts.key. exhaustedNames has the
+    // database's name ids with a connection at MAX_CONNECTION_USES, for MoveAnalysis
+    private PersistentCounts connectionUsage = PersistentCounts.EMPTY;
+    private PersistentBitSet exhaustedNames = PersistentBitSet.EMPTY;
+    // ids for names the catalog doesn't have (movies built by hand), this game's own
+    // so the shared catalog is only ever read. they start at OUTSIDE_NAMES, above any
+    // catalog id. replaced when a name is added, never changed, like the state above
+    private Map<String, Integer> outsideNames = Collections.emptyMap();
+    private static final int OUTSIDE_NAMES = 1 << 30;
+
+    // newest first, every entry points at the one before
+    private Link<Movie> playedMoviesHistory;
+    private Link<Move> moveHistory;
 
 
     // tracks the available power Ups
     // Player = player 1 or 2
     // List<command> = list of commands they have left (out of the 3)
-    private final Map<Player, List<Command>> availablePowerUps = new HashMap<>();
+    private Map<Player, List<Command>> availablePowerUps = new HashMap<>();
 
     private int roundsPlayed = 0;
 
-    private boolean timeExpired = false;
+    // set by the ui's timer thread, read by the controller
+    private volatile boolean timeExpired = false;
+
+    // where random movies come from when several games share one database (see
+    // GameSession). null means the database's own getRandomMovie
+    private MovieDraw movieDraw;
+
+    // what can still be played from the current movie, made on first use (see
+    // getMoveAnalysis). it reads the state below and caches per version
+    private MoveAnalysis moveAnalysis;
+    // bumped whenever the current movie, the used movies or connections change
+    private long version;
 
 
     // constructor
@@ -47,10 +73,162 @@ public class GameState {
             listOfPowerUps.add(new BlockCommand());
             listOfPowerUps.add(new SkipCommand());
             listOfPowerUps.add(new EscapeCommand(database));
-            availablePowerUps.put(player,listOfPowerUps);
+            availablePowerUps.put(player, Collections.unmodifiableList(listOfPowerUps));
+        }
+    }
+
+    // same, but random movies are drawn from this game's own MovieDraw (over the
+    // database's movie ordinals) so the database itself is never modified
+    public GameState(MovieDatabase database, List<Player> players, MovieDraw movieDraw) {
+        this(database, players);
+        this.movieDraw = movieDraw;
+    }
+
+    // an independent game that goes on from here, to try moves on without touching
+    // this one (bots, simulations). O(1): both keep pointing at the same immutable
+    // state and from then on each replaces only its own. the win condition progress
+    // lives in the players, so the fork gets copies of them, in the same seats (see
+    // getPlayers). the database and the movie draw are shared
+    public GameState fork() {
+        return new GameState(this);
+    }
+
+    private GameState(GameState other) {
+        this.database = other.database;
+        this.players = new ArrayList<>(other.players.size());
+        Map<Player, Player> seats = new HashMap<>();
+        for (Player player : other.players) {
+            Player copy = player.copy();
+            players.add(copy);
+            seats.put(player, copy);
         }
-        for (Move.ConnectionType ct : Move.ConnectionType.values()) {
-            connectionUsage.put(ct, new HashMap<>());
+        Set<Player> blocked = new HashSet<>();
+        for (Player player : other.blockedPlayers) {
+            blocked.add(seats.get(player));
+        }
+        this.blockedPlayers = blocked;
+        for (Map.Entry<Player, List<Command>> e : other.availablePowerUps.entrySet()) {
+            availablePowerUps.put(seats.get(e.getKey()), e.getValue());
+        }
+        this.currentMovie = other.currentMovie;
+        this.currentPlayerIndex = other.currentPlayerIndex;
+        this.usedMovies = other.usedMovies;
+        this.usedElsewhere = other.usedElsewhere;
+        this.connectionUsage = other.connectionUsage;
+        this.exhaustedNames = other.exhaustedNames;
+        this.outsideNames = other.outsideNames;
+        this.playedMoviesHistory = other.playedMoviesHistory;
+        this.moveHistory = other.moveHistory;
+        this.roundsPlayed = other.roundsPlayed;
+        this.timeExpired = other.timeExpired;
+        this.movieDraw = other.movieDraw;
+    }
+
+    // the game as it is now, to go back to later with restore (undo, replays). O(1),
+    // it shares everything with the state
+    public Snapshot snapshot() {
+        Player[] seats = new Player[players.size()];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = players.get(i).copy();
+        }
+        return new Snapshot(this, seats);
+    }
+
+    // put the game back the way it was when the snapshot was taken
+    public void restore(Snapshot snapshot) {
+        if (snapshot.game != this) {
+            throw new IllegalArgumentException("snapshot of another game");
+        }
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).restoreFrom(snapshot.seats[i]);
+        }
+        blockedPlayers = snapshot.blockedPlayers;
+        currentMovie = snapshot.currentMovie;
+        currentPlayerIndex = snapshot.currentPlayerIndex;
+        usedMovies = snapshot.usedMovies;
+        usedElsewhere = snapshot.usedElsewhere;
+        connectionUsage = snapshot.connectionUsage;
+        exhaustedNames = snapshot.exhaustedNames;
+        playedMoviesHistory = snapshot.playedMoviesHistory;
+        moveHistory = snapshot.moveHistory;
+        availablePowerUps = snapshot.availablePowerUps;
+        roundsPlayed = snapshot.roundsPlayed;
+        timeExpired = snapshot.timeExpired;
+        // movies drawn since (escape) go back into the game's own draw
+        if (movieDraw != null && snapshot.drawMark >= 0) {
+            movieDraw.rewind(snapshot.drawMark);
+        }
+        version++;
+    }
+
+    // one point in a game (see snapshot), nothing in it ever changes
+    public static final class Snapshot {
+        private final GameState game;
+        // the players' score and progress, in seat order
+        private final Player[] seats;
+        private final Set<Player> blockedPlayers;
+        private final Movie currentMovie;
+        private final int currentPlayerIndex;
+        private final PersistentBitSet usedMovies;
+        private final PersistentCounts usedElsewhere;
+        private final PersistentCounts connectionUsage;
+        private final PersistentBitSet exhaustedNames;
+        private final Link<Movie> playedMoviesHistory;
+        private final Link<Move> moveHistory;
+        private final Map<Player, List<Command>> availablePowerUps;
+        private final int roundsPlayed;
+        private final boolean timeExpired;
+        // movieDraw.mark(), -1 without a draw of its own
+        private final int drawMark;
+
+        private Snapshot(GameState game, Player[] seats) {
+            this.game = game;
+            this.seats = seats;
+            this.blockedPlayers = game.blockedPlayers;
+            this.currentMovie = game.currentMovie;
+            this.currentPlayerIndex = game.currentPlayerIndex;
+            this.usedMovies = game.usedMovies;
+            this.usedElsewhere = game.usedElsewhere;
+            this.connectionUsage = game.connectionUsage;
+            this.exhaustedNames = game.exhaustedNames;
+            this.playedMoviesHistory = game.playedMoviesHistory;
+            this.moveHistory = game.moveHistory;
+            this.availablePowerUps = game.availablePowerUps;
+            this.roundsPlayed = game.roundsPlayed;
+            this.timeExpired = game.timeExpired;
+            this.drawMark = game.movieDraw == null ? -1 : game.movieDraw.mark();
+        }
+
+        // moves played up to this point
+        public int getMoveCount() {
+            return Link.size(moveHistory);
+        }
+    }
+
+    // an immutable list entry, newest first
+    private static final class Link<T> {
+        final T value;
+        final Link<T> prev;
+        final int size;
+
+        Link(T value, Link<T> prev) {
+            this.value = value;
+            this.prev = prev;
+            this.size = prev == null ? 1 : prev.size + 1;
+        }
+
+        static int size(Link<?> link) {
+            return link == null ? 0 : link.size;
+        }
+
+        // oldest first
+        static <T> List<T> toList(Link<T> link) {
+            List<T> list = new ArrayList<>(size(link));
+            for (Link<T> l = link; l != null; l = l.prev) {
+                list.add(l.value);
+            }
+            Collections.reverse(list);
+            return list;
         }
     }
 
@@ -59,21 +237,71 @@ public class GameState {
         // 1. Create "starting move"
 
         // select random movie from database
-        Movie initialMovie = database.getRandomMovie();
+        Movie initialMovie = drawRandomMovie();
 
         // set this initialMovie to be the current movie of this gamestate
         this.currentMovie = initialMovie;
 
         // add this movie to "used" lists
-        usedMovieIds.add(initialMovie.getId());
-        playedMoviesHistory.add(initialMovie);
+        markUsed(initialMovie);
+        playedMoviesHistory = new Link<>(initialMovie, playedMoviesHistory);
+        version++;
 
         // I'm NOT going to create a Move for this initial movie, because it's
         // technically not a Move (its not player-made)
     }
 
+    // a random movie nobody drew yet, or null if there are none left
+    public Movie drawRandomMovie() {
+        if (movieDraw == null) {
+            return database.getRandomMovie();
+        }
+        int ordinal = movieDraw.draw();
+        return ordinal < 0 ? null : database.getMovieByOrdinal(ordinal);
+    }
+
+    public boolean hasMovieDraw() {
+        return movieDraw != null;
+    }
+
+    // the movie on top of the pile
+    public Movie getCurrentMovie() {
+        return currentMovie;
+    }
+
+    // has this movie been played already (it can't be played again)
+    public boolean isMovieUsed(Movie movie) {
+        int ordinal = ordinalOf(movie);
+        if (ordinal >= 0) {
+            return usedMovies.get(ordinal);
+        }
+        return usedElsewhere.get(movie.getId()) > 0;
+    }
+
+    private void markUsed(Movie movie) {
+        int ordinal = ordinalOf(movie);
+        if (ordinal >= 0) {
+            usedMovies = usedMovies.with(ordinal);
+        } else if (usedElsewhere.get(movie.getId()) == 0) {
+            usedElsewhere = usedElsewhere.add(movie.getId(), 1);
+        }
+    }
+
+    // the movie's ordinal if it's one of the database's movies, otherwise -1
+    private int ordinalOf(Movie movie) {
+        int ordinal = movie.getOrdinal();
+        return ordinal >= 0 && ordinal < database.getMovieCount()
+                && database.getMovieByOrdinal(ordinal).getId() == movie.getId() ? ordinal : -1;
+    }
+
+    // how often this exact connection was used so far in this game
+    public int getConnectionUses(Move.ConnectionType type, String value) {
+        int valueId = nameId(value);
+        return valueId < 0 ? 0 : connectionUsage.get(ConnectionCounts.key(type, valueId));
+    }
+
     public List<Movie> getPlayedMoviesHistory() {
-        return new ArrayList<>(playedMoviesHistory);
+        return Link.toList(playedMoviesHistory);
     }
 
 
@@ -86,8 +314,27 @@ public class GameState {
     // this validated Move will contain all the things we need to fill in the missing
     // connection related values
     public Optional<Move> tryBuildMove(Player player, Movie nextMovie) {
-        // PRIORITIZES / checks for win condition first
         WinCondition wc = player.getWinCondition();
+
+        // with the movie graph the shared names are already listed on the edges
+        // between the two movies, in the same order the code below tries them
+        MovieGraph graph = graphFor(currentMovie, nextMovie);
+        if (graph != null) {
+            if (isMovieUsed(nextMovie)) {
+                return Optional.empty();
+            }
+            int from = currentMovie.getOrdinal();
+            int first = graph.firstEdge(from, nextMovie.getOrdinal());
+            // the edge says the movies share the name, only the uses are left to check
+            int e = first < 0 ? -1 : chooseEdge(graph, first, graph.runEnd(from, first),
+                    wc.getType(), database.getNames().lookup(wc.getValue()),
+                    edge -> connectionUsage.get(ConnectionCounts.key(graph.edgeType(edge),
+                            graph.edgeValue(edge))) < MAX_CONNECTION_USES);
+            return e < 0 ? Optional.empty() : Optional.of(new Move(player, nextMovie,
+                    graph.edgeType(e), database.getNames().nameOf(graph.edgeValue(e))));
+        }
+
+        // PRIORITIZES / checks for win condition first
         if (currentMovie.hasConnection(wc.getType(), wc.getValue())
                 && nextMovie.hasConnection(wc.getType(), wc.getValue())) {
 
@@ -97,7 +344,6 @@ public class GameState {
             }
         }
 
-
         // try to build a move using any valid connection (excluding GENRE connections)
         for (Move.ConnectionType eachType : Move.ConnectionType.values()) {
             // skip GENRE type as it's not a valid connection method
@@ -105,10 +351,17 @@ public class GameState {
                 continue;
             }
             // code gets here, its not of the connection type of GENRE
-            List<String> nextMovieConnections = nextMovie.getConnections(eachType);
-            for (String value : nextMovieConnections) {
-                if (currentMovie.hasConnection(eachType, value)) {
-                    Move candidate = new Move(player, nextMovie, eachType, value);
+            // names are dictionary ids, so matching is int comparisons and we only
+            // look a name up again once we actually build the Move. ids only compare
+            // within one dictionary, movies from elsewhere go by the name
+            NameDictionary names = nextMovie.getNames();
+            boolean sameNames = names == currentMovie.getNames();
+            int[] nextMovieConnections = nextMovie.getConnectionIds(eachType);
+            for (int valueId : nextMovieConnections) {
+                if (sameNames ? currentMovie.hasConnection(eachType, valueId)
+                        : currentMovie.hasConnection(eachType, names.nameOf(valueId))) {
+                    Move candidate = new Move(player, nextMovie, eachType,
+                            names.nameOf(valueId));
                     if (isValidMove(candidate)) {
                         return Optional.of(candidate);
                     }
@@ -121,6 +374,28 @@ public class GameState {
     }
 
 
+    // which of the edges [start, end) to one neighbor a move takes (see tryBuildMove):
+    // the win condition's connection (wcType, name id wcValue) if it's one of them and
+    // usable, otherwise the first usable one. -1 if none is. SearchBot and MoveAnalysis
+    // pick their edges with this too, so they follow the game's rules
+    static int chooseEdge(MovieGraph graph, int start, int end, Move.ConnectionType wcType,
+                          int wcValue, IntPredicate usable) {
+        if (wcValue >= 0) {
+            for (int e = start; e < end; e++) {
+                if (graph.edgeType(e) == wcType && graph.edgeValue(e) == wcValue
+                        && usable.test(e)) {
+                    return e;
+                }
+            }
+        }
+        for (int e = start; e < end; e++) {
+            if (usable.test(e)) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
     // determines if this current Move is valid, based on gamestate.
     // if already used, or if surpasses connection usage limit, or the connection
     // has no match, then  = false
@@ -138,26 +413,31 @@ public class GameState {
         Movie next = move.getMoviePlayed();
 
 
-        // Check usedMovieIds, connectionUsage limits, and actual connection validity
+        // Check used movies, connectionUsage limits, and actual connection validity
 
-        // check if usedMovieIds already has this movie in it, then it's false, not valid Move
-        if (usedMovieIds.contains(move.getMoviePlayed().getId())) {
+        // if the movie was played already, it's false, not valid Move
+        if (isMovieUsed(next)) {
             return false;
         }
 
         // if this EXACT CONNECTION has been used 3 times prior, this move is not valid
-        Map<String, Integer> usageMap = connectionUsage.get(move.getConnectionType());
-        int alreadyUsed = usageMap.getOrDefault(move.getConnectionValue(),0);
-        if (alreadyUsed >= 3) {
+        Move.ConnectionType cType = move.getConnectionType();
+        String value = move.getConnectionValue();
+        int valueId = nameId(value);
+        if (valueId >= 0 && connectionUsage.get(ConnectionCounts.key(cType, valueId))
+                >= MAX_CONNECTION_USES) {
             return false;
         }
 
 
         // check if both THIS move and the previous move actually has this connection
-        Move.ConnectionType cType = move.getConnectionType();
-        String value = move.getConnectionValue();
-
-        if (!prev.hasConnection(cType, value) ||
+        MovieGraph graph = graphFor(prev, next);
+        if (graph != null) {
+            if (valueId < 0 || !graph.hasEdge(prev.getOrdinal(), next.getOrdinal(),
+                    cType, valueId)) {
+                return false;
+            }
+        } else if (!prev.hasConnection(cType, value) ||
                 !next.hasConnection(cType, value)) {
             return false;
         }
@@ -169,28 +449,108 @@ public class GameState {
 
 
 
+    // what can still be played from the current movie (how many moves are left,
+    // through which connections, dead positions). null without a movie graph
+    public MoveAnalysis getMoveAnalysis() {
+        if (moveAnalysis == null && database.getGraph() != null) {
+            moveAnalysis = new MoveAnalysis(this);
+        }
+        return moveAnalysis;
+    }
+
+    // for MoveAnalysis: changes whenever anything in the game does
+    long version() {
+        return version;
+    }
+
+    // the catalog's id for the name, or this game's own for a name the catalog doesn't
+    // have, -1 if neither knows it
+    private int nameId(String value) {
+        int id = database.getNames().lookup(value);
+        if (id >= 0 || value == null) {
+            return id;
+        }
+        Integer own = outsideNames.get(value);
+        return own == null ? -1 : own;
+    }
+
+    // nameId, giving the name an id of this game's if it has none yet
+    private int internName(String value) {
+        int id = nameId(value);
+        if (id < 0) {
+            Map<String, Integer> more = new HashMap<>(outsideNames);
+            id = OUTSIDE_NAMES + more.size();
+            more.put(value, id);
+            outsideNames = more;
+        }
+        return id;
+    }
+
+    // for MoveAnalysis: the current movie's ordinal, -1 if it's not in the graph
+    int currentOrdinal() {
+        MovieGraph graph = database.getGraph();
+        return currentMovie != null && graph != null && inGraph(currentMovie, graph)
+                ? currentMovie.getOrdinal() : -1;
+    }
+
+    // for MoveAnalysis: has the movie with this ordinal been played
+    boolean isUsed(int ordinal) {
+        return usedMovies.get(ordinal);
+    }
+
+    // for MoveAnalysis: uses of a connection by ConnectionCounts.key
+    int connectionUses(long key) {
+        return connectionUsage.get(key);
+    }
+
+    // for MoveAnalysis: does the name have a connection (of some type) that is used up
+    boolean isNameUsedUp(int valueId) {
+        return exhaustedNames.get(valueId);
+    }
+
+    // the database's movie graph if both movies are in it, otherwise null
+    // (movies built by hand, or a database that wasn't loaded from csv)
+    private MovieGraph graphFor(Movie a, Movie b) {
+        MovieGraph graph = database.getGraph();
+        if (graph == null || !inGraph(a, graph) || !inGraph(b, graph)) {
+            return null;
+        }
+        return graph;
+    }
+
+    private boolean inGraph(Movie m, MovieGraph graph) {
+        int ordinal = m.getOrdinal();
+        return ordinal >= 0 && ordinal < graph.getMovieCount()
+                && database.getMovieByOrdinal(ordinal) == m;
+    }
+
+
     // if tryBuildMove was able to make a new valid Move, then this Move is "applied" to gameState
     // pass in the newly made Move that was output from tryBuildMove
     // also, if this Move counts for a player's winCondition, add progress to it
     public void applyMove(Move move) {
         // update currentMovie
-        // enter this movie into usedMovieIds
+        // mark this movie as used
         // enter this movie into playedMoviesHistory
         // enter this Move into moveHistory
         // update the connectionUsage map to include/increment usage
 
-        Map<String, Integer> usageType = connectionUsage
-                .get((move.getConnectionType()));
-        String value = move.getConnectionValue();
-        int alreadyUsed = usageType.getOrDefault(value, 0);
-        usageType.put(value, alreadyUsed + 1);
+        // a name from outside the catalog (movies built by hand) gets an id too
+        int valueId = internName(move.getConnectionValue());
+        long key = ConnectionCounts.key(move.getConnectionType(), valueId);
+        connectionUsage = connectionUsage.add(key, 1);
+        // MoveAnalysis only asks about the catalog's names
+        if (connectionUsage.get(key) >= MAX_CONNECTION_USES && valueId < OUTSIDE_NAMES) {
+            exhaustedNames = exhaustedNames.with(valueId);
+        }
 
         // the currentMovie is updated to this new valid Move's
         this.currentMovie = move.getMoviePlayed();
 
-        usedMovieIds.add(currentMovie.getId());
-        playedMoviesHistory.add(currentMovie);
-        moveHistory.add(move);
+        markUsed(currentMovie);
+        playedMoviesHistory = new Link<>(currentMovie, playedMoviesHistory);
+        moveHistory = new Link<>(move, moveHistory);
+        version++;
 
 
         // if this Move matches the player's win condition, add to this player's
@@ -286,7 +646,7 @@ public class GameState {
 
 
     public List<Move> getMoveHistory() {
-        return new ArrayList<>(moveHistory);  // returns a copy to keep it safe
+        return Link.toList(moveHistory);  // returns a copy to keep it safe
     }
 
 
@@ -303,7 +663,13 @@ public class GameState {
         if (available != null) {
             for (Command c : available) {
                 if (c.getClass().equals(cmd.getClass())) {
-                    available.remove(c);
+                    // a new list and map, snapshots and forks keep the old ones
+                    List<Command> left = new ArrayList<>(available);
+                    left.remove(c);
+                    Map<Player, List<Command>> powerUps = new HashMap<>(availablePowerUps);
+                    powerUps.put(player, Collections.unmodifiableList(left));
+                    availablePowerUps = powerUps;
+                    version++;
                     c.execute(this);
                     System.out.println("Command " + c.getClass().getSimpleName() + " applied.");
 
@@ -320,9 +686,7 @@ public class GameState {
     // return a list of still available Commands/powerups (that we can't touch,
     // unmodifiable) for this player
     public List<Command> getPowerUpsFor(Player player) {
-        return Collections.unmodifiableList(availablePowerUps.getOrDefault(player,
-                Collections.emptyList())
-        );
+        return availablePowerUps.getOrDefault(player, Collections.emptyList());
     }
 
     public void skipPlayer() {
@@ -331,14 +695,15 @@ public class GameState {
 
     // block player is used in Command (block) to block opposite player
     public void blockPlayer(Player player) {
-        //mark the player as blocked
-        blockedPlayers.add(player);
-
         //if the blocked player is about to play, skip them
         Player curr = players.get(currentPlayerIndex);
         if (curr.equals(player)) {
-            blockedPlayers.remove(player); //clear block
             nextTurn(); //skip to other player
+        } else {
+            //mark the player as blocked
+            Set<Player> blocked = new HashSet<>(blockedPlayers);
+            blocked.add(player);
+            blockedPlayers = blocked;
         }
     }
 
@@ -348,7 +713,8 @@ public class GameState {
         System.out.println("setCurrentMovie called with: " + currentMovie.getTitle());
 
         this.currentMovie = currentMovie;
-        playedMoviesHistory.add(currentMovie);
+        playedMoviesHistory = new Link<>(currentMovie, playedMoviesHistory);
+        version++;
 
     }
 
@@ -275,4 +275,120 @@ public class GameStateTest {
         assertEquals(move2, updatedMoveHist.get(1));
     }
 
+    @Test
+    public void testForkIsIndependent() {
+        GameState copy = state.fork();
+        Player copied1 = copy.getPlayers().get(0);
+        assertNotSame(player1, copied1);
+        assertEquals(player1.getName(), copied1.getName());
+
+        Move move = copy.tryBuildMove(copied1, movie2).orElseThrow(AssertionError::new);
+        copy.applyMove(move);
+        copy.nextTurn();
+
+        assertTrue(copy.isMovieUsed(movie2));
+        assertFalse(state.isMovieUsed(movie2), "the original didn't play movie2");
+        assertEquals(1, copy.getConnectionUses(Move.ConnectionType.ACTOR, "Shared Actor"));
+        assertEquals(0, state.getConnectionUses(Move.ConnectionType.ACTOR, "Shared Actor"));
+        assertTrue(copied1.getWinCondition().isMet());
+        assertFalse(player1.getWinCondition().isMet(), "progress stays in the copy");
+        assertTrue(copy.isGameOver());
+        assertFalse(state.isGameOver());
+        assertSame(movie1, state.getCurrentMovie());
+        assertEquals(copy.getPlayers().get(1), copy.getCurrentPlayer());
+        assertEquals(3, copy.getPowerUpsFor(copy.getPlayers().get(1)).size());
+    }
+
+    @Test
+    public void testForkKeepsPlayingAfterTheOriginalMoves() {
+        GameState fork = state.fork();
+        state.applyMove(state.tryBuildMove(player1, movie2).orElseThrow(AssertionError::new));
+
+        assertFalse(fork.isMovieUsed(movie2), "the fork was taken before the move");
+        assertEquals(1, fork.getPlayedMoviesHistory().size());
+        assertEquals(0, fork.getMoveHistory().size());
+        assertEquals(2, state.getPlayedMoviesHistory().size());
+    }
+
+    @Test
+    public void testRestoreGoesBack() {
+        GameState.Snapshot start = state.snapshot();
+        assertEquals(0, start.getMoveCount());
+
+        state.applyMove(state.tryBuildMove(player1, movie2).orElseThrow(AssertionError::new));
+        state.nextTurn();
+        state.applyCommand(player2, new SkipCommand());
+        GameState.Snapshot later = state.snapshot();
+        assertEquals(1, later.getMoveCount());
+        assertEquals(2, state.getPowerUpsFor(player2).size());
+
+        state.restore(start);
+        assertSame(movie1, state.getCurrentMovie());
+        assertFalse(state.isMovieUsed(movie2));
+        assertEquals(0, state.getConnectionUses(Move.ConnectionType.ACTOR, "Shared Actor"));
+        assertTrue(state.getMoveHistory().isEmpty());
+        assertEquals(1, state.getPlayedMoviesHistory().size());
+        assertEquals(3, state.getPowerUpsFor(player2).size(), "the skip is back");
+        assertSame(player1, state.getCurrentPlayer());
+        assertEquals(0, state.getRoundsPlayed());
+        assertEquals(0, player1.getWinCondition().getProgress());
+
+        // and forward again, snapshots don't change when the game does
+        state.restore(later);
+        assertTrue(state.isMovieUsed(movie2));
+        assertEquals(1, state.getMoveHistory().size());
+        assertEquals(2, state.getPowerUpsFor(player2).size());
+        assertEquals(2, state.getRoundsPlayed());
+        assertEquals(1, player1.getWinCondition().getProgress());
+    }
+
+    @Test
+    public void testRestorePutsEscapedMovieBack() {
+        MovieDatabase catalog = new MovieDatabase();
+        catalog.addMovie(movie1);
+        catalog.addMovie(movie2);
+        MovieDraw draw = new MovieDraw(catalog.getMovieCount(), new Random(5));
+        GameState game = new GameState(catalog, Arrays.asList(player1, player2), draw);
+        game.initialGameState();
+        GameState.Snapshot before = game.snapshot();
+
+        game.applyCommand(player1, new EscapeCommand(catalog));
+        assertEquals(0, draw.remaining(), "both movies are out of the draw");
+        game.restore(before);
+        assertEquals(1, draw.remaining());
+        assertFalse(draw.isUsed(game.getCurrentMovie() == movie1 ? 1 : 0),
+                "the escape's movie can be drawn again");
+    }
+
+    @Test
+    public void testOutsideNamesStayOutOfTheCatalog() {
+        int before = db.getNames().size();
+        state.applyMove(state.tryBuildMove(player1, movie2).orElseThrow(AssertionError::new));
+        assertEquals(before, db.getNames().size(), "the game only reads the catalog");
+        assertEquals(-1, db.getNames().lookup("Shared Actor"));
+        assertEquals(1, state.getConnectionUses(Move.ConnectionType.ACTOR, "Shared Actor"));
+        assertEquals(1, state.fork().getConnectionUses(Move.ConnectionType.ACTOR,
+                "Shared Actor"), "forks keep the game's own names");
+    }
+
+    @Test
+    public void testRestoreNeedsOwnSnapshot() {
+        GameState.Snapshot other = state.fork().snapshot();
+        assertThrows(IllegalArgumentException.class, () -> state.restore(other));
+    }
+
+    @Test
+    public void testConnectionUsesCountUp() {
+        Move move = new Move(player1, movie2, Move.ConnectionType.ACTOR, "Shared Actor");
+        for (int i = 0; i < GameState.MAX_CONNECTION_USES; i++) {
+            assertEquals(i, state.getConnectionUses(Move.ConnectionType.ACTOR, "Shared Actor"));
+            state.applyMove(move);
+            state.setCurrentMovie(movie1);
+        }
+        Movie movie3 = new Movie(3, "Movie Three", 2002, "Dir C", "Comp C",
+                new ArrayList<>(Collections.singletonList("Shared Actor")), new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>());
+        assertFalse(state.tryBuildMove(player2, movie3).isPresent(),
+                "Shared Actor is used up");
+    }
 }
@@ -7,13 +7,11 @@ import com.googlecode.lanterna.screen.*;
 import com.googlecode.lanterna.terminal.*;
 
 import java.io.IOException;
-import java.time.Clock;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
-public class GameUI {
+public class GameUI implements GameView {
 
     // fields - see Lanterna for details
     private Terminal terminal;
@@ -28,13 +26,20 @@ public class GameUI {
     private Label playerInfoLabel;
     private Label historyLabel;
 
-    private Timer gameTimer;
-    private Clock gameClock;
-    private AtomicInteger secondsRemaining = new AtomicInteger(30);
-    private volatile boolean timerRunning = false;
-    private Instant turnStartTime;
+    // turn countdown on the shared timer wheel (no timer thread per game)
+    private TurnTimer turnTimer;
 
     private Autocomplete ac;
+    // follows the input box so a keystroke is one step in the trie, only used by
+    // the suggestion pipeline's thread
+    private SuggestionCursor acCursor;
+    private TitleSearchIndex titleSearch;
+    // debounced background lookups for the suggestion box, see setUpListeners
+    private SuggestionPipeline suggestionPipeline;
+    // print the suggestion latencies when the window closes, see setPrintLatency
+    private boolean printLatency;
+    // what promptPlayer waits on, filled in by the input filter on Enter
+    private final PromptHandoff prompt = new PromptHandoff();
     private GameState gameState;
 
     private Label player1WinConditionLabel;
@@ -78,6 +83,18 @@ public class GameUI {
 
     public void setAutocomplete(Autocomplete ac) {
         this.ac = ac;
+        this.acCursor = ac == null ? null : ac.newCursor();
+    }
+
+    // dump the keystroke-to-render and lookup latencies to the console on close
+    // (MovieNameGame --latency), off by default
+    public void setPrintLatency(boolean printLatency) {
+        this.printLatency = printLatency;
+    }
+
+    // lets the suggestion box also find titles by a word in the middle ("knight")
+    public void setTitleSearch(TitleSearchIndex titleSearch) {
+        this.titleSearch = titleSearch;
     }
 
 
@@ -145,53 +162,90 @@ public class GameUI {
 
 
     // update player input live
+    // the lookup runs in the background (see SuggestionPipeline) so typing never waits
+    // for it, and only the suggestions for the latest text make it on screen
     private void setUpListeners() {
+        suggestionPipeline = new SuggestionPipeline(text -> suggestionsFor(text, 5),
+                this::renderSuggestions, gui.getGUIThread()::invokeLater);
         inputBox.setTextChangeListener((newText, changedByUser) -> {
-            if (changedByUser && ac != null) {
-                displayAutocompleteSuggestions(
-                        ac.getSuggestions(newText, 5)
-                );
+            if (changedByUser && (ac != null || titleSearch != null)) {
+                suggestionPipeline.onTextChanged(newText);
+            }
+        });
+
+        // Enter hands the text to whoever waits in promptPlayer
+        inputBox.setInputFilter((interactionInfo, keyStroke) -> {
+            if (keyStroke.getKeyType() == KeyType.Enter) {
+                // capture the current text when 'enter' key is pressed
+                String text = inputBox.getText();
+                if (prompt.submit(text)) {
+                    System.out.println("Enter pressed! Input text: " + text);
+                }
+                return false; // don't pass enter to the text box
+            }
+            // treat EOF signals as possible Enter keys
+            if (keyStroke.getKeyType() == KeyType.EOF) {
+                System.out.println("EOF detected, checking if it's Enter");
+
+                // treat EOF as 'enter' if there's text in the input box
+                String text = inputBox.getText();
+                if (text != null && !text.isEmpty() && prompt.submit(text)) {
+                    System.out.println("Treating EOF as Enter. Input text: " + text);
+                    return false;
+                }
             }
+            return true; // pass other keys to text box
         });
     }
 
+    public SuggestionPipeline getSuggestionPipeline() {
+        return suggestionPipeline;
+    }
+
+    // titles starting with the text first, then titles with a word (or piece)
+    // matching it further in, and only if none of that works guesses at a typo
+    List<String> suggestionsFor(String text, int max) {
+        List<String> result = new ArrayList<>();
+        if (ac != null) {
+            result.addAll(acCursor.getPrefixSuggestions(text, max));
+        }
+        if (titleSearch != null && result.size() < max && !text.trim().isEmpty()) {
+            addMissing(result, titleSearch.search(text, max), max);
+        }
+        if (ac != null && result.isEmpty()) {
+            result.addAll(ac.getTypoSuggestions(text, max));
+        }
+        return result;
+    }
+
+    private static void addMissing(List<String> result, List<String> more, int max) {
+        for (String title : more) {
+            if (result.size() == max) {
+                break;
+            }
+            if (!result.contains(title)) {
+                result.add(title);
+            }
+        }
+    }
+
     public void showMainWindow() {
         gui.addWindowAndWait(mainWindow);
     }
 
     private void setUpTimer() {
-        // Timer and clock
-        gameTimer = new Timer(true);
-        gameClock = Clock.systemDefaultZone();
+        // 30 seconds per turn, the label counts down every second
+        turnTimer = new TurnTimer(TimerWheel.shared(), 30,
+                remaining -> gui.getGUIThread().invokeLater(
+                        () -> timerLabel.setText("Time remaining: " + remaining)),
+                this::handleTimeUp);
     }
 
     // methods
 
     // control timer
     public void startTurnTimer() {
-        timerRunning = true;
-        secondsRemaining.set(30);
-        turnStartTime = Instant.now(gameClock);
-
-        gameTimer.scheduleAtFixedRate(new TimerTask() {
-            public void run() {
-                if (!timerRunning) {
-                    this.cancel();
-                    return;
-                }
-                Duration timeElapsed = Duration.between(turnStartTime, Instant.now(gameClock));
-                int remaining = (int) (30 - timeElapsed.getSeconds());
-                secondsRemaining.set(Math.max(remaining, 0));
-
-                gui.getGUIThread().invokeLater(() -> {
-                    timerLabel.setText("Time remaining: " + secondsRemaining.get());
-                    if (secondsRemaining.get() <= 0) {
-                        timerRunning = false;
-                        handleTimeUp();
-                    }
-                });
-            }
-        }, 0, 1000); // update every second
+        turnTimer.start();
     }
 
     private void handleTimeUp() {
@@ -200,27 +254,30 @@ public class GameUI {
             timerLabel.setText("Time's up!");
             gameState.setTimeExpired(true);
 
-            // immediately show winner (the opponent)
-            Player winner = gameState.getOpponentPlayer();
-            showGameEnd(winner);
+            // wake up the controller, it sees the game is over and shows the winner
+            // (the opponent)
+            prompt.cancel();
         });
     }
 
     public void stopTimer() {
-        timerRunning = false;
+        turnTimer.stop();
     }
 
     // display autocomplete suggestions
     public void displayAutocompleteSuggestions(final List<String> allSuggestions) {
-        gui.getGUIThread().invokeLater(() -> {
-            suggestions.clearItems();
-            if (!allSuggestions.isEmpty()) {
-                String first = allSuggestions.get(0);
-                suggestions.addItem(first, () -> useSuggestion(first));
-                allSuggestions.stream().skip(1).forEach(s -> suggestions.addItem(s,
-                        () -> useSuggestion(s)));
-            }
-        });
+        gui.getGUIThread().invokeLater(() -> renderSuggestions(allSuggestions));
+    }
+
+    // on the gui thread
+    private void renderSuggestions(List<String> allSuggestions) {
+        suggestions.clearItems();
+        if (!allSuggestions.isEmpty()) {
+            String first = allSuggestions.get(0);
+            suggestions.addItem(first, () -> useSuggestion(first));
+            allSuggestions.stream().skip(1).forEach(s -> suggestions.addItem(s,
+                    () -> useSuggestion(s)));
+        }
     }
 
     private void useSuggestion(String sugg) {
@@ -276,6 +333,21 @@ public class GameUI {
         });
     }
 
+    // how many movies can follow the current one, and the connection leading to most of
+    // them. null without a movie graph to ask
+    private static String movesHint(MoveAnalysis analysis) {
+        if (analysis == null) {
+            return null;
+        }
+        if (analysis.isDeadPosition()) {
+            return "No movie can follow this one, time for a power up!";
+        }
+        int moves = analysis.legalMoveCount();
+        MoveAnalysis.Option best = analysis.getOptions().get(0);
+        return "Movies that can follow: " + moves + " (most through "
+                + best.getType().toString().toLowerCase() + " – " + best.getValue() + ")";
+    }
+
     public void showGameState(GameState state) {
         Player currentPlayer = state.getCurrentPlayer();
         Player opponentPlayer = state.getOpponentPlayer(); // assuming this method exists
@@ -286,13 +358,20 @@ public class GameUI {
             roundLabel.setText("Round " + round);
         }
 
+        // worked out here on the game thread, the analysis changes with every move
+        String movesHint = movesHint(state.getMoveAnalysis());
+        String distance1 = distanceHint(state, state.getPlayers().get(0));
+        String distance2 = distanceHint(state, state.getPlayers().get(1));
+
         gui.getGUIThread().invokeLater(() -> {
             // update player turn
             playerInfoLabel.setText(currentPlayer.getName() + "'s turn");
 
             // update both win conditions
-            updateWinConditionDisplay(player1WinConditionLabel, state.getPlayers().get(0));
-            updateWinConditionDisplay(player2WinConditionLabel, state.getPlayers().get(1));
+            updateWinConditionDisplay(player1WinConditionLabel, state.getPlayers().get(0),
+                    distance1);
+            updateWinConditionDisplay(player2WinConditionLabel, state.getPlayers().get(1),
+                    distance2);
 
             // update game history
             StringBuilder history = new StringBuilder("Recent movies: \n");
@@ -315,6 +394,9 @@ public class GameUI {
                 history.append("Last connection: ").append(connectionType)
                         .append(" – ").append(connectionValue).append("\n");
             }
+            if (movesHint != null) {
+                history.append(movesHint).append("\n");
+            }
 
             historyLabel.setText(history.toString());
 
@@ -361,7 +443,29 @@ public class GameUI {
 
 
     // to update win condition
-    private void updateWinConditionDisplay(Label label, Player player) {
+    // how far the nearest movie that counts for the player is from the current movie,
+    // from the landmark table (a couple of array reads per candidate, no search). empty
+    // without one or when no such movie connects
+    private static String distanceHint(GameState state, Player player) {
+        MovieDatabase db = state.getDatabase();
+        DistanceOracle oracle = db.getDistanceOracle();
+        Movie current = state.getCurrentMovie();
+        if (oracle == null || current == null || current.getOrdinal() < 0
+                || current.getOrdinal() >= oracle.getMovieCount()) {
+            return "";
+        }
+        WinCondition wc = player.getWinCondition();
+        int[] targets = db.getPostings(wc.getType(), wc.getValue());
+        int moves = targets == null ? DistanceOracle.UNREACHABLE
+                : oracle.lowerBound(current.getOrdinal(), targets);
+        if (moves == DistanceOracle.UNREACHABLE) {
+            return "";
+        }
+        // a lower bound, and the current movie can't count a second time
+        return " | Next match in " + Math.max(1, moves) + "+ moves";
+    }
+
+    private void updateWinConditionDisplay(Label label, Player player, String distance) {
         WinCondition wc = player.getWinCondition();
         String type = wc.getType().toString();
         String value = wc.getValue();
@@ -369,13 +473,23 @@ public class GameUI {
         int required = wc.getTarget();
 
         label.setText(player.getName() + "'s Win Condition: " + type + " – " + value
-                + " | Progress: " + progress + "/" + required);
+                + " | Progress: " + progress + "/" + required + distance);
     }
 
 
-    public String promptPlayer(Player currentPlayer) {
+    // blocks until the player hits Enter, null if the turn timer ran out first
+    public String promptPlayer(Player currentPlayer) throws IOException {
+        CompletableFuture<String> answer = prompt.open();
+        // the timer may have run out just before we opened the prompt, then its
+        // cancel came too early to wake us up
+        if (gameState.isGameOver()) {
+            prompt.cancel();
+        }
+
         // clear input box
         gui.getGUIThread().invokeLater(() -> {
+            // suggestions still on their way are for the last player's text
+            suggestionPipeline.cancel();
             inputBox.setText("");
             inputBox.takeFocus();
             System.out.println("Input box cleared and focused for " + currentPlayer.getName());
@@ -388,48 +502,17 @@ public class GameUI {
             e.printStackTrace();
         }
 
-        // create container for the result
-        final String[] result = new String[1];
-        final boolean[] done = new boolean[1];
-
-        // special listener for 'enter'
-        inputBox.setInputFilter((interactionInfo, keyStroke) -> {
-            if (keyStroke.getKeyType() == KeyType.Enter) {
-                // capture the current text when 'enter' key is pressed
-                result[0] = inputBox.getText();
-                done[0] = true;
-                System.out.println("Enter pressed! Input text: " + result[0]);
-                return false; // don't pass enter to the text box
-            }
-            // treat EOF signals as possible Enter keys
-            if (keyStroke.getKeyType() == KeyType.EOF) {
-                System.out.println("EOF detected, checking if it's Enter");
-
-                // treat EOF as 'enter' if there's text in the input box
-                if (inputBox.getText() != null && !inputBox.getText().isEmpty()) {
-                    result[0] = inputBox.getText();
-                    done[0] = true;
-                    System.out.println("Treating EOF as Enter. Input text: " + result[0]);
-                    return false;
-                }
-            }
-            return true; // pass other keys to text box
-        });
-
-        // wait for result
-        while (!done[0]) {
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+        // park until the input filter (see setUpListeners) hands over the text, or
+        // the prompt is cancelled because the turn timer ran out
+        try {
+            return answer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            prompt.cancel();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
         }
-
-        // remove special input filter when done
-        inputBox.setInputFilter(null);
-
-        return result[0];
     }
 
     public void showGameEnd(Player winner) {
@@ -512,9 +595,12 @@ public class GameUI {
     // clean up ui when the game is over
     public void closeUI() throws IOException {
         stopTimer();
-        gameTimer.cancel();
-        // set timerRunning to false
-        timerRunning = false;
+        suggestionPipeline.cancel();
+        prompt.cancel();
+        if (printLatency) {
+            System.out.println(suggestionPipeline.getKeystrokeToRender());
+            System.out.println(suggestionPipeline.getLookupTime());
+        }
 
         // shutdown all the scheduler, screen, etc
         screen.stopScreen();
@@ -0,0 +1,16 @@
+import java.io.IOException;
+
+//what GameController needs from whatever the game is shown on: the lanterna window
+//(GameUI) or a plain text connection (TextGameView, used by the game server)
+public interface GameView {
+
+    //wait for the current player to type something, null or blank counts as no input.
+    //a view with a turn timer returns (null) once the timer runs out
+    String promptPlayer(Player currentPlayer) throws IOException;
+
+    void showGameState(GameState state);
+
+    void showError(String message) throws IOException;
+
+    void showGameEnd(Player winner);
+}
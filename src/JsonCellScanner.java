@@ -0,0 +1,327 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+//streaming reader for the JSON arrays stored inside the tmdb csv cells
+//(genres, cast, crew). those are arrays of flat objects and we only ever want one
+//or two string fields out of each object, so instead of building a Gson JsonArray
+//tree per cell we walk the text once, remember where the fields we want start and
+//end, skip everything else, and only create Strings for the values we keep.
+//
+//broken cells come out the same as with the Gson tree parser (MovieDatabase can
+//still use either): a cell that isn't valid json adds nothing at all, and in a valid
+//cell the objects before the first one without the field we need (or with null, an
+//object or an array in it) are kept. either way an IllegalStateException tells
+//the loader the cell was broken
+public class JsonCellScanner {
+
+    private final String s;
+    private int pos;
+
+    // spans of the fields we want in the current object, see readObject
+    private final int[] spans = new int[6];
+
+    // span of the last string we scanned (without the quotes)
+    private int strStart;
+    private int strEnd;
+    private boolean strEscaped;
+
+    private JsonCellScanner(String s) {
+        this.s = s;
+    }
+
+    //add the "name" of every object in the array to out (genres and cast cells)
+    public static void names(String json, List<String> out) {
+        JsonCellScanner sc = new JsonCellScanner(json);
+        int before = out.size();
+        boolean complete = true;
+        try {
+            sc.startArray();
+            while (sc.nextElement()) {
+                int[] spans = sc.readObjectOrSkip("name", null);
+                if (spans == null || spans[0] < 0) {
+                    // keep going, the rest of the cell still has to be valid json
+                    complete = false;
+                } else if (complete) {
+                    out.add(sc.decode(spans[0], spans[1], spans[2] != 0));
+                }
+            }
+            sc.endOfCell();
+        } catch (IllegalStateException e) {
+            out.subList(before, out.size()).clear();
+            throw e;
+        }
+        if (!complete) {
+            throw new IllegalStateException("object without a name");
+        }
+    }
+
+    //for every object whose "job" is one of jobs, call sink with its "name" and the
+    //index of the job in jobs. names of all the other crew members are never created
+    public static void crew(String json, String[] jobs, ObjIntConsumer<String> sink) {
+        JsonCellScanner sc = new JsonCellScanner(json);
+        // the sink can't take names back, so they wait here until the cell checks out
+        List<String> names = new ArrayList<>();
+        List<Integer> jobIndexes = new ArrayList<>();
+        boolean complete = true;
+        sc.startArray();
+        while (sc.nextElement()) {
+            int[] spans = sc.readObjectOrSkip("job", "name");
+            if (spans == null || spans[0] < 0 || spans[3] < 0) {
+                complete = false;
+                continue;
+            }
+            int job = complete ? sc.matchJob(spans, jobs) : -1;
+            if (job >= 0) {
+                names.add(sc.decode(spans[3], spans[4], spans[5] != 0));
+                jobIndexes.add(job);
+            }
+        }
+        sc.endOfCell();
+        for (int i = 0; i < names.size(); i++) {
+            sink.accept(names.get(i), jobIndexes.get(i));
+        }
+        if (!complete) {
+            throw new IllegalStateException("crew entry without job or name");
+        }
+    }
+
+    /////////////// scanning ///////////////////
+
+    private void startArray() {
+        skipWhitespace();
+        expect('[');
+    }
+
+    //move to the next element of the array, false once we hit the closing ]
+    private boolean nextElement() {
+        skipWhitespace();
+        char c = peek();
+        if (c == ']') {
+            pos++;
+            return false;
+        }
+        if (c == ',') {
+            pos++;
+            skipWhitespace();
+        }
+        return true;
+    }
+
+    //nothing but whitespace may follow the array
+    private void endOfCell() {
+        skipWhitespace();
+        if (pos < s.length()) {
+            throw new IllegalStateException("text after the array at " + pos);
+        }
+    }
+
+    //readObject, or null after skipping an element that isn't an object
+    private int[] readObjectOrSkip(String key1, String key2) {
+        if (peek() != '{') {
+            skipValue();
+            return null;
+        }
+        return readObject(key1, key2);
+    }
+
+    //read one {...} object and return the spans of the two keys we care about:
+    //{start, end, escaped} for key1 followed by the same for key2 (start -1 = missing)
+    //the array is reused for every object
+    private int[] readObject(String key1, String key2) {
+        spans[0] = -1;
+        spans[2] = 0;
+        spans[3] = -1;
+        spans[5] = 0;
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return spans;
+        }
+        while (true) {
+            skipWhitespace();
+            scanString();
+            int keyStart = strStart;
+            int keyEnd = strEnd;
+            boolean keyEscaped = strEscaped;
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            int slot = -1;
+            if (!keyEscaped && keyIs(keyStart, keyEnd, key1)) {
+                slot = 0;
+            } else if (key2 != null && !keyEscaped && keyIs(keyStart, keyEnd, key2)) {
+                slot = 3;
+            }
+            char v = peek();
+            if (slot >= 0 && (v == 'n' || v == '{' || v == '[')) {
+                // null, an object or an array: counts as missing
+                skipValue();
+            } else if (slot >= 0 && v != '"') {
+                // a number or true/false is taken as written, like Gson's getAsString
+                int start = pos;
+                skipValue();
+                spans[slot] = start;
+                spans[slot + 1] = pos;
+                spans[slot + 2] = 0;
+            } else if (slot >= 0) {
+                scanString();
+                spans[slot] = strStart;
+                spans[slot + 1] = strEnd;
+                spans[slot + 2] = strEscaped ? 1 : 0;
+            } else {
+                skipValue();
+            }
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return spans;
+            }
+            if (c != ',') {
+                throw new IllegalStateException("expected , or } at " + (pos - 1));
+            }
+        }
+    }
+
+    //index of the job (if any) the first span spells, compared in place
+    private int matchJob(int[] spans, String[] jobs) {
+        int start = spans[0];
+        int end = spans[1];
+        if (spans[2] != 0) {
+            // escaped job names are rare, just decode those
+            String job = decode(start, end, true);
+            for (int i = 0; i < jobs.length; i++) {
+                if (jobs[i].equals(job)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < jobs.length; i++) {
+            if (keyIs(start, end, jobs[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyIs(int start, int end, String key) {
+        return end - start == key.length() && s.regionMatches(start, key, 0, key.length());
+    }
+
+    //skip a string, number, literal, object or array without creating anything
+    private void skipValue() {
+        char c = peek();
+        if (c == '"') {
+            scanString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peek();
+                if (c == '"') {
+                    scanString();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0);
+        } else {
+            // number, true, false, null
+            while (pos < s.length()) {
+                c = s.charAt(pos);
+                if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                    break;
+                }
+                pos++;
+            }
+        }
+    }
+
+    //scan a "..." string starting at pos, leaving its span in strStart/strEnd
+    private void scanString() {
+        expect('"');
+        strStart = pos;
+        strEscaped = false;
+        while (true) {
+            char c = next();
+            if (c == '\\') {
+                strEscaped = true;
+                pos++; // whatever is escaped can't end the string
+            } else if (c == '"') {
+                strEnd = pos - 1;
+                return;
+            }
+        }
+    }
+
+    private String decode(int start, int end, boolean escaped) {
+        if (!escaped) {
+            return s.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = s.charAt(++i);
+            switch (e) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(s.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    // \" \\ \/
+                    sb.append(e);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private void skipWhitespace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= s.length()) {
+            throw new IllegalStateException("unexpected end of json");
+        }
+        return s.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw new IllegalStateException("expected " + c + " at " + (pos - 1));
+        }
+    }
+}
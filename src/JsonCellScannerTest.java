@@ -0,0 +1,166 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class JsonCellScannerTest {
+
+    private static final String[] JOBS = {"Director", "Original Music Composer",
+        "Writer", "Director of Photography"};
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testNames() {
+        List<String> out = new ArrayList<>();
+        JsonCellScanner.names("[{\"id\": 28, \"name\": \"Action\"}, "
+                + "{\"id\": 12, \"name\": \"Science Fiction\"}]", out);
+        assertEquals(Arrays.asList("Action", "Science Fiction"), out);
+    }
+
+    @Test
+    public void testEmptyArray() {
+        List<String> out = new ArrayList<>();
+        JsonCellScanner.names("[]", out);
+        assertTrue(out.isEmpty());
+        JsonCellScanner.names("  [ ]  ", out);
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    public void testSkipsNestedAndEscapedValues() {
+        List<String> out = new ArrayList<>();
+        JsonCellScanner.names("[{\"character\": \"Jake \\\"Sully\\\" {]\", "
+                + "\"extra\": {\"a\": [1, 2, {\"name\": \"nope\"}]}, \"gender\": null, "
+                + "\"name\": \"Zo\\u00eb \\\"Z\\\" Saldana\", \"order\": -1.5e3}]", out);
+        assertEquals(Collections.singletonList("Zoë \"Z\" Saldana"), out);
+    }
+
+    @Test
+    public void testCrewOnlyWantedJobs() {
+        List<String> seen = new ArrayList<>();
+        JsonCellScanner.crew("[{\"department\": \"Editing\", \"job\": \"Editor\", "
+                + "\"name\": \"Stephen Rivkin\"}, {\"job\": \"Director\", \"name\": "
+                + "\"James Cameron\"}, {\"name\": \"Mauro Fiore\", \"job\": "
+                + "\"Director of Photography\"}]", JOBS, (name, job) -> seen.add(job + ":" + name));
+        assertEquals(Arrays.asList("0:James Cameron", "3:Mauro Fiore"), seen);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMalformed() {
+        JsonCellScanner.names("[{\"name\": \"Avatar\"", new ArrayList<>());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingName() {
+        JsonCellScanner.names("[{\"id\": 1}]", new ArrayList<>());
+    }
+
+    @Test
+    public void testMalformedAddsNothing() {
+        List<String> out = new ArrayList<>(Collections.singletonList("before"));
+        try {
+            JsonCellScanner.names("[{\"name\": \"Action\"}, {\"name\": \"Dra", out);
+            fail("truncated cell should throw");
+        } catch (IllegalStateException expected) {
+            // what was in the list already stays
+        }
+        assertEquals(Collections.singletonList("before"), out);
+    }
+
+    @Test
+    public void testKeepsNamesBeforeMissingOne() {
+        List<String> out = new ArrayList<>();
+        try {
+            JsonCellScanner.names("[{\"name\": \"A\"}, {\"id\": 1}, {\"name\": \"C\"}]", out);
+            fail("missing name should throw");
+        } catch (IllegalStateException expected) {
+            // the cell was valid json up to the end
+        }
+        assertEquals(Collections.singletonList("A"), out);
+    }
+
+    //cells Gson and the scanner could disagree on, one movie each
+    @Test
+    public void testMalformedCellParity() throws Exception {
+        String[] genres = {
+            "[{\"id\": 1, \"name\": \"Action\"}, {\"id\": 2, \"na",
+            "[{\"name\": \"Action\"}, {\"id\": 3}, {\"name\": \"Drama\"}]",
+            "[{\"name\": \"Action\"}, {\"name\": null}, {\"name\": \"Drama\"}]",
+            "[{\"name\": \"Action\"}, 5, {\"name\": \"Drama\"}]",
+            "[{\"name\": \"Action\"}] trailing",
+            "not json",
+        };
+        String[] crews = {
+            "[{\"job\": \"Director\", \"name\": \"D\"}, {\"job\": \"Writer\"}, "
+                    + "{\"job\": \"Writer\", \"name\": \"W\"}]",
+            "[{\"job\": \"Director\", \"name\": \"D\"}, {\"job\": \"Writer\", \"na",
+            "[{\"job\": \"Writer\", \"name\": \"W\"}, {\"job\": \"Editor\", \"name\": 7}, "
+                    + "{\"job\": \"Director\", \"name\": \"D\"}]",
+            "[{\"job\": \"Director\", \"name\": \"D\"}]]",
+            "[{\"job\": \"Director\", \"name\": \"D\"}, {\"job\": \"Writer\", "
+                    + "\"name\": \"W\"}]",
+            "",
+        };
+        StringBuilder movies = new StringBuilder("id,title,release_date,genres\n");
+        StringBuilder credits = new StringBuilder("movie_id,title,cast,crew\n");
+        for (int i = 0; i < genres.length; i++) {
+            movies.append(i + 1).append(",Movie ").append(i + 1).append(",2000-01-01,")
+                    .append(cell(genres[i])).append('\n');
+            credits.append(i + 1).append(",Movie ").append(i + 1).append(',')
+                    .append(cell(genres[(i + 1) % genres.length])).append(',')
+                    .append(cell(crews[i])).append('\n');
+        }
+        Path moviesCsv = temp.newFile("movies.csv").toPath();
+        Path creditsCsv = temp.newFile("credits.csv").toPath();
+        Files.write(moviesCsv, movies.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(creditsCsv, credits.toString().getBytes(StandardCharsets.UTF_8));
+
+        MovieDatabase streaming = new MovieDatabase();
+        streaming.setStreamingJson(true);
+        streaming.loadAll(moviesCsv.toString(), creditsCsv.toString());
+        MovieDatabase tree = new MovieDatabase();
+        tree.setStreamingJson(false);
+        tree.loadAll(moviesCsv.toString(), creditsCsv.toString());
+        assertSameCredits(tree, streaming);
+        assertEquals(Arrays.asList("Action"), tree.getMovieById(2).getGenres());
+        assertEquals("D", tree.getMovieById(1).getDirector());
+        assertTrue(tree.getMovieById(1).getWriters().isEmpty());
+    }
+
+    private static String cell(String text) {
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void assertSameCredits(MovieDatabase tree, MovieDatabase streaming) {
+        assertEquals(tree.getAllMovieIds(), streaming.getAllMovieIds());
+        for (int id : tree.getAllMovieIds()) {
+            Movie t = tree.getMovieById(id);
+            Movie s = streaming.getMovieById(id);
+            String what = "movie " + id;
+            assertEquals(what, t.getGenres(), s.getGenres());
+            assertEquals(what, t.getActors(), s.getActors());
+            assertEquals(what, t.getDirector(), s.getDirector());
+            assertEquals(what, t.getComposer(), s.getComposer());
+            assertEquals(what, t.getWriters(), s.getWriters());
+            assertEquals(what, t.getCines(), s.getCines());
+        }
+    }
+
+    //streaming and the old Gson tree parsing have to load exactly the same thing
+    @Test
+    public void testParityWithTreeParser() throws Exception {
+        MovieDatabase streaming = new MovieDatabase();
+        streaming.setStreamingJson(true);
+        streaming.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        MovieDatabase tree = new MovieDatabase();
+        tree.setStreamingJson(false);
+        tree.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+
+        assertSameCredits(tree, streaming);
+    }
+}
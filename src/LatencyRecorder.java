@@ -0,0 +1,57 @@
+import java.util.Arrays;
+
+//collects how long something took (in nanoseconds) and sums it up as count, mean,
+//percentiles and max. keeps the last SAMPLES values for the percentiles, count, mean
+//and max cover everything recorded. safe to record from any thread
+public class LatencyRecorder {
+
+    private static final int SAMPLES = 4096;
+
+    private final String name;
+    private final long[] samples = new long[SAMPLES];
+    private long count;
+    private long total;
+    private long max;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        samples[(int) (count % SAMPLES)] = nanos;
+        count++;
+        total += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double meanMillis() {
+        return count == 0 ? 0 : total / 1e6 / count;
+    }
+
+    public synchronized double maxMillis() {
+        return max / 1e6;
+    }
+
+    //p between 0 and 100, over the most recent samples
+    public synchronized double percentileMillis(double p) {
+        int n = (int) Math.min(count, SAMPLES);
+        if (n == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        int i = (int) Math.ceil(p / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, i))] / 1e6;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d samples, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, "
+                        + "max %.2f ms", name, count, meanMillis(), percentileMillis(50),
+                percentileMillis(99), maxMillis());
+    }
+}
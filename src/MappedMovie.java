@@ -0,0 +1,159 @@
+import java.util.Arrays;
+import java.util.List;
+
+//a Movie that is just a (store, row) pair, every getter reads straight out of the
+//memory-mapped MappedMovieStore. these are cheap to create and hold no catalog data,
+//so MappedMovieDatabase hands out new ones on every lookup
+public class MappedMovie extends Movie {
+
+    private final MappedMovieStore store;
+    private final int row;
+
+    // names is the database's view of the store's strings, so the ids handed out
+    // below are plain string ids from the file
+    MappedMovie(MappedMovieStore store, NameDictionary names, int row) {
+        super(store.movieId(row), names);
+        this.store = store;
+        this.row = row;
+        // rows are ordinals too (see MappedMovieDatabase.getMovieByOrdinal)
+        setOrdinal(row);
+    }
+
+    @Override
+    public boolean hasConnection(Move.ConnectionType type, String value) {
+        if (value == null) {
+            return false;
+        }
+        int sid = store.findString(value);
+        if (sid < 0) {
+            return false;
+        }
+        switch (type) {
+            case DIRECTOR:
+                return store.directorId(row) == sid;
+            case COMPOSER:
+                return store.composerId(row) == sid;
+            case ACTOR:
+            case WRITER:
+            case CINES:
+            case GENRE:
+                return store.listContains(row, type, sid);
+            default:
+                return false;
+        }
+    }
+
+    // name ids are the store's string ids (see getNames), so this is int compares
+    // on the row
+    @Override
+    public boolean hasConnection(Move.ConnectionType type, int valueId) {
+        if (valueId < 0) {
+            return false;
+        }
+        switch (type) {
+            case DIRECTOR:
+                return store.directorId(row) == valueId;
+            case COMPOSER:
+                return store.composerId(row) == valueId;
+            default:
+                return store.listContains(row, type, valueId);
+        }
+    }
+
+    @Override
+    public int[] getConnectionIds(Move.ConnectionType type) {
+        switch (type) {
+            case DIRECTOR:
+                return single(store.directorId(row));
+            case COMPOSER:
+                return single(store.composerId(row));
+            default:
+                return store.listIds(row, type);
+        }
+    }
+
+    private static int[] single(int sid) {
+        return sid < 0 ? new int[0] : new int[] {sid};
+    }
+
+    @Override
+    public List<String> getConnections(Move.ConnectionType type) {
+        switch (type) {
+            case DIRECTOR:
+                return Arrays.asList(getDirector());
+            case COMPOSER:
+                return Arrays.asList(getComposer());
+            case ACTOR:
+            case WRITER:
+            case CINES:
+            case GENRE:
+                return store.names(row, type);
+            default:
+                return Arrays.asList();
+        }
+    }
+
+    @Override
+    public String getTitle() {
+        return store.title(row);
+    }
+
+    @Override
+    public int getReleaseYear() {
+        return store.releaseYear(row);
+    }
+
+    @Override
+    public int getVoteCount() {
+        return store.voteCount(row);
+    }
+
+    @Override
+    public List<String> getActors() {
+        return store.names(row, Move.ConnectionType.ACTOR);
+    }
+
+    @Override
+    public List<String> getCines() {
+        return store.names(row, Move.ConnectionType.CINES);
+    }
+
+    @Override
+    public String getComposer() {
+        return store.string(store.composerId(row));
+    }
+
+    @Override
+    public String getDirector() {
+        return store.string(store.directorId(row));
+    }
+
+    @Override
+    public List<String> getGenres() {
+        return store.names(row, Move.ConnectionType.GENRE);
+    }
+
+    @Override
+    public List<String> getWriters() {
+        return store.names(row, Move.ConnectionType.WRITER);
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    // two views of the same row are the same movie
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof MappedMovie)) {
+            return false;
+        }
+        MappedMovie other = (MappedMovie) o;
+        return other.store == store && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return row;
+    }
+}
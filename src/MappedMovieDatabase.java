@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+//MovieDatabase backed by a memory-mapped MappedMovieStore instead of heap maps.
+//the catalog (movies, strings, indexes) stays in the mapped file and movies are
+//handed out as MappedMovie flyweights, so the heap only holds what callers keep.
+//the getters behave like the heap version, so GameState, WinCondition etc. don't
+//care which one they get.
+//
+//this is read only: don't call loadAll/loadMovies/loadCredits on it, build the
+//store with MappedMovieStore.write (or openOrBuild below) instead
+public class MappedMovieDatabase extends MovieDatabase {
+
+    private final MappedMovieStore store;
+
+    public MappedMovieDatabase(MappedMovieStore store) {
+        super(new StoreNames(store));
+        this.store = store;
+    }
+
+    //map the store next to the csv files, (re)building it from the csv first if it
+    //is missing or older than them
+    public static MappedMovieDatabase openOrBuild(String moviesCsvFile, String creditsCsvFile,
+                                                  String storeFile) throws IOException {
+        Path movies = resolve(moviesCsvFile);
+        Path credits = resolve(creditsCsvFile);
+        Path file = movies.resolveSibling(storeFile);
+        if (!MappedMovieStore.isFresh(file, movies, credits)) {
+            MovieDatabase heap = new MovieDatabase();
+            heap.loadAll(moviesCsvFile, creditsCsvFile);
+            MappedMovieStore.write(heap, file, movies, credits);
+        }
+        return new MappedMovieDatabase(MappedMovieStore.open(file));
+    }
+
+    @Override
+    public Movie getMovieById(int id) {
+        int row = store.rowOfId(id);
+        return row < 0 ? null : new MappedMovie(store, getNames(), row);
+    }
+
+    @Override
+    public Movie getMovieByTitle(String title) {
+        if (title == null || title.isEmpty()) {
+            return null;
+        }
+        byte[] key = MappedMovieStore.utf8(title.toLowerCase());
+        int i = store.titleLowerBound(key);
+        // a few titles appear more than once. they are indexed in csv order, so the
+        // last match is the movie the heap map ends up with (the one added last)
+        Movie found = null;
+        while (i < store.getMovieCount() && store.titleKeyIs(i, key)) {
+            found = new MappedMovie(store, getNames(), store.titleRow(i));
+            i++;
+        }
+        return found;
+    }
+
+    @Override
+    public List<String> searchByTitlePrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[] key = MappedMovieStore.utf8(prefix.toLowerCase());
+        List<String> suggestions = new ArrayList<>(5);
+        int last = -1;
+        for (int i = store.titleLowerBound(key); i < store.getMovieCount()
+                && suggestions.size() < 5; i++) {
+            if (!store.titleKeyStartsWith(i, key)) {
+                break;
+            }
+            // the heap version keeps titles in a case-insensitive set, here titles
+            // that only differ in case share their lowercase string
+            int keyId = store.titleKeyId(i);
+            if (keyId != last) {
+                suggestions.add(store.titleAt(i));
+                last = keyId;
+            }
+        }
+        return suggestions;
+    }
+
+    @Override
+    public Set<Integer> getAllMovieIds() {
+        Set<Integer> ids = new HashSet<>(store.getMovieCount() * 2);
+        for (int row = 0; row < store.getMovieCount(); row++) {
+            ids.add(store.movieId(row));
+        }
+        return ids;
+    }
+
+    @Override
+    public Movie getMovieByOrdinal(int ordinal) {
+        return new MappedMovie(store, getNames(), ordinal);
+    }
+
+    @Override
+    public int getMovieCount() {
+        return store.getMovieCount();
+    }
+
+    // the store keeps its postings as sorted rows already, so the getMovieByX sets
+    // and id lookups of MovieDatabase work on top of this as they are
+    @Override
+    public int[] getPostings(Move.ConnectionType type, String value) {
+        return store.postings(type, value);
+    }
+
+    //the database's names are the store's string pool, so a name id is the string's
+    //id in the file and nothing gets copied onto the heap. the pool is fixed, names
+    //that aren't in it (a game's movie built by hand) get ids from GameState instead
+    private static final class StoreNames extends NameDictionary {
+        private final MappedMovieStore store;
+
+        StoreNames(MappedMovieStore store) {
+            super(1);
+            this.store = store;
+        }
+
+        @Override
+        public int intern(String name) {
+            int sid = store.findString(name);
+            if (sid < 0) {
+                throw new IllegalArgumentException("not in the movie store: " + name);
+            }
+            return sid;
+        }
+
+        @Override
+        public int lookup(String name) {
+            return store.findString(name);
+        }
+
+        @Override
+        public String nameOf(int id) {
+            return store.string(id);
+        }
+
+        @Override
+        public int size() {
+            return store.getStringCount();
+        }
+    }
+}
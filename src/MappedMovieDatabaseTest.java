@@ -0,0 +1,167 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class MappedMovieDatabaseTest {
+    private MovieDatabase heap;
+    private MappedMovieDatabase mapped;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        heap = new MovieDatabase();
+        heap.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        Path file = temp.newFile("movies.store").toPath();
+        MappedMovieStore.write(heap, file, null, null);
+        mapped = new MappedMovieDatabase(MappedMovieStore.open(file));
+    }
+
+    @Test
+    public void testSameMoviesAsHeap() {
+        assertEquals(heap.getAllMovieIds(), mapped.getAllMovieIds());
+        for (int id : heap.getAllMovieIds()) {
+            Movie h = heap.getMovieById(id);
+            Movie m = mapped.getMovieById(id);
+            assertEquals(h.getTitle(), m.getTitle());
+            assertEquals(h.getReleaseYear(), m.getReleaseYear());
+            assertEquals(h.getVoteCount(), m.getVoteCount());
+            assertEquals(h.getDirector(), m.getDirector());
+            assertEquals(h.getComposer(), m.getComposer());
+            assertEquals(h.getActors(), m.getActors());
+            assertEquals(h.getWriters(), m.getWriters());
+            assertEquals(h.getCines(), m.getCines());
+            assertEquals(h.getGenres(), m.getGenres());
+        }
+        assertNull(mapped.getMovieById(9999999));
+    }
+
+    @Test
+    public void testHasConnection() {
+        Movie avatar = mapped.getMovieById(19995);
+        assertTrue(avatar.hasConnection(Move.ConnectionType.ACTOR, "Sam Worthington"));
+        assertTrue(avatar.hasConnection(Move.ConnectionType.DIRECTOR, "James Cameron"));
+        assertTrue(avatar.hasConnection(Move.ConnectionType.COMPOSER, "James Horner"));
+        assertTrue(avatar.hasConnection(Move.ConnectionType.CINES, "Mauro Fiore"));
+        assertTrue(avatar.hasConnection(Move.ConnectionType.GENRE, "Action"));
+        assertFalse(avatar.hasConnection(Move.ConnectionType.DIRECTOR, "Sam Worthington"));
+        assertFalse(avatar.hasConnection(Move.ConnectionType.ACTOR, "NonExistentActor12345"));
+        assertFalse(avatar.hasConnection(Move.ConnectionType.ACTOR, null));
+        assertEquals(Arrays.asList("James Cameron"),
+                avatar.getConnections(Move.ConnectionType.DIRECTOR));
+    }
+
+    @Test
+    public void testIdsAreTheStoresOwn() {
+        int names = mapped.getNames().size();
+        Movie avatar = mapped.getMovieById(19995);
+        for (int i = 0; i < 3; i++) {
+            int[] ids = avatar.getConnectionIds(Move.ConnectionType.ACTOR);
+            assertEquals(avatar.getActors().size(), ids.length);
+            for (int k = 0; k < ids.length; k++) {
+                assertEquals(avatar.getActors().get(k), mapped.getNames().nameOf(ids[k]));
+                assertTrue(avatar.hasConnection(Move.ConnectionType.ACTOR, ids[k]));
+            }
+        }
+        assertSame(mapped.getNames(), avatar.getNames());
+        assertEquals("reading ids doesn't add names", names, mapped.getNames().size());
+        int cameron = mapped.getNames().lookup("James Cameron");
+        assertArrayEquals(new int[] {cameron},
+                avatar.getConnectionIds(Move.ConnectionType.DIRECTOR));
+        assertArrayEquals(new int[] {mapped.getNames().lookup("James Horner")},
+                avatar.getConnectionIds(Move.ConnectionType.COMPOSER));
+        assertEquals(-1, mapped.getNames().lookup("NonExistentActor12345"));
+    }
+
+    @Test
+    public void testIndexes() {
+        Set<Movie> sam = mapped.getMovieByActor("Sam Worthington");
+        assertEquals(heap.getMovieByActor("Sam Worthington").size(), sam.size());
+        assertTrue(sam.contains(mapped.getMovieById(19995)));
+        assertEquals(heap.getMovieByGenre("Drama").size(),
+                mapped.getMovieByGenre("Drama").size());
+        assertEquals(heap.getMovieByWriter("James Cameron").size(),
+                mapped.getMovieByWriter("James Cameron").size());
+        assertNotNull(mapped.getMovieByComposer("James Horner"));
+        assertNotNull(mapped.getMovieByCines("Mauro Fiore"));
+        assertNull(mapped.getMovieByDirector("NonExistentDirector1357"));
+    }
+
+    @Test
+    public void testTitleLookups() {
+        Movie avatar = mapped.getMovieByTitle("avATar");
+        assertNotNull(avatar);
+        assertEquals(19995, avatar.getId());
+        assertNull(mapped.getMovieByTitle("no such movie 12345"));
+        assertEquals(heap.searchByTitlePrefix("Pirate"), mapped.searchByTitlePrefix("Pirate"));
+        assertEquals(mapped.searchByTitlePrefix("ava"), mapped.searchByTitlePrefix("AVA"));
+        assertTrue(mapped.searchByTitlePrefix("").isEmpty());
+        assertTrue(mapped.searchByTitlePrefix(null).isEmpty());
+    }
+
+    @Test
+    public void testDuplicateTitlesPickTheSameMovie() throws Exception {
+        // the csv has the higher id first, the heap map keeps the one added last
+        MovieDatabase db = new MovieDatabase();
+        db.addMovie(twin(9, "Twins"));
+        db.addMovie(twin(4, "twins"));
+        db.addMovie(twin(6, "Twins"));
+        db.addMovie(twin(2, "Other"));
+        db.buildIndexes();
+        Path file = temp.newFile("twins.store").toPath();
+        MappedMovieStore.write(db, file, null, null);
+        MappedMovieDatabase store = new MappedMovieDatabase(MappedMovieStore.open(file));
+
+        assertEquals(6, db.getMovieByTitle("TWINS").getId());
+        assertEquals(6, store.getMovieByTitle("TWINS").getId());
+        assertEquals(db.getMovieByTitle("other").getId(),
+                store.getMovieByTitle("other").getId());
+    }
+
+    // lookups compare utf-8 bytes, which sort differently from Java strings once
+    // there are characters past the surrogates
+    @Test
+    public void testNonAsciiLookups() throws Exception {
+        List<String> names = Arrays.asList("\uFF21 Wide", "\uD83D\uDE00 Smile", "Zo\u00eb",
+                "Zoe", "\u00c6r\u00f8");
+        MovieDatabase db = new MovieDatabase();
+        for (int i = 0; i < names.size(); i++) {
+            db.addMovie(new Movie(i + 1, i == 0 ? "Am\u00e9lie" : "Movie " + i, 2000, "", "",
+                    new ArrayList<>(names.subList(i, names.size())), new ArrayList<>(),
+                    new ArrayList<>(), new ArrayList<>()));
+        }
+        db.buildIndexes();
+        Path file = temp.newFile("unicode.store").toPath();
+        MappedMovieStore.write(db, file, null, null);
+        MappedMovieDatabase store = new MappedMovieDatabase(MappedMovieStore.open(file));
+
+        for (String name : names) {
+            assertArrayEquals(name, db.getPostings(Move.ConnectionType.ACTOR, name),
+                    store.getPostings(Move.ConnectionType.ACTOR, name));
+            assertEquals(name, store.getNames().nameOf(store.getNames().lookup(name)));
+        }
+        assertEquals(1, store.getMovieByTitle("AM\u00c9LIE").getId());
+        assertEquals(Collections.singletonList("Am\u00e9lie"), store.searchByTitlePrefix("am\u00e9"));
+        assertTrue(store.searchByTitlePrefix("ame").isEmpty());
+    }
+
+    private static Movie twin(int id, String title) {
+        return new Movie(id, title, 2000, "Dir " + id, "", new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+    }
+
+    @Test
+    public void testRandomMovieNotRepeated() {
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            Movie m = mapped.getRandomMovie();
+            assertNotNull(m);
+            assertTrue("Random movie should not be repeated", seen.add(m.getId()));
+        }
+    }
+}
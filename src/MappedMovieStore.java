@@ -0,0 +1,585 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+//read-only movie catalog that lives in a memory-mapped file instead of on the heap
+//(see MappedMovieDatabase and MappedMovie for the MovieDatabase/Movie views on top)
+//
+//everything is stored as ints pointing into other parts of the file:
+//  header     magic, version, movies csv mtime, credits csv mtime (longs),
+//             movie count, string count, then the start of each section below
+//  strings    every distinct string (titles, lowercase titles, names, genres) once,
+//             sorted by their utf-8 bytes, as int offsets[count + 1] followed by
+//             the bytes. lookups compare the mapped bytes, no String is decoded
+//             until a getter asks for one
+//  movies     one fixed size row per movie, sorted by movie id:
+//             id, title, year, director, composer, then (offset, length) into the
+//             list area for actors, writers, cines and genres, then the vote count,
+//             the movie's ordinal in the heap database (csv order) and the string
+//             id of the lowercase title
+//  lists      string ids of all the actor/writer/cines/genre lists
+//  titles     row numbers sorted by lowercase title, then csv order (for title
+//             lookup + prefix search)
+//  postings   where each type's section starts, then per Move.ConnectionType:
+//             entry count, entries of (string id, offset, length) sorted by
+//             string id, then the row numbers of each entry
+public class MappedMovieStore {
+
+    private static final int MAGIC = 0x4D564D4D; // "MVMM"
+    static final int VERSION = 4;
+
+    // ints per movie row
+    private static final int ROW_INTS = 16;
+    private static final int ROW_ID = 0;
+    private static final int ROW_TITLE = 1;
+    private static final int ROW_YEAR = 2;
+    private static final int ROW_DIRECTOR = 3;
+    private static final int ROW_COMPOSER = 4;
+    private static final int ROW_ACTORS = 5;
+    private static final int ROW_WRITERS = 7;
+    private static final int ROW_CINES = 9;
+    private static final int ROW_GENRES = 11;
+    private static final int ROW_VOTES = 13;
+    private static final int ROW_ORDER = 14;
+    private static final int ROW_TITLE_KEY = 15;
+
+    // header: magic, version, 2 longs, then these ints
+    private static final int HEADER_BYTES = 8 + 16 + 4 * 8;
+
+    private final ByteBuffer buf;
+    private final int movieCount;
+    private final int stringCount;
+    private final int stringOffsets;
+    private final int stringData;
+    private final int movieTable;
+    private final int listArea;
+    private final int titleIndex;
+    private final int postings;
+
+    private MappedMovieStore(ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+            throw new IOException("not a movie store (or an old version)");
+        }
+        int p = 24;
+        movieCount = buf.getInt(p);
+        stringCount = buf.getInt(p + 4);
+        stringOffsets = buf.getInt(p + 8);
+        stringData = buf.getInt(p + 12);
+        movieTable = buf.getInt(p + 16);
+        listArea = buf.getInt(p + 20);
+        titleIndex = buf.getInt(p + 24);
+        postings = buf.getInt(p + 28);
+    }
+
+    //map an existing store file (read only, nothing is copied onto the heap)
+    public static MappedMovieStore open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new MappedMovieStore(mapped);
+        }
+    }
+
+    //true if the store exists, is our version and was built from these csv files
+    public static boolean isFresh(Path file, Path moviesCsv, Path creditsCsv) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION
+                    && in.readLong() == mtime(moviesCsv)
+                    && in.readLong() == mtime(creditsCsv);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    //build a store file from an already loaded (heap) database
+    public static void write(MovieDatabase db, Path file, Path moviesCsv,
+                             Path creditsCsv) throws IOException {
+        List<Movie> movies = new ArrayList<>(db.getAllMovies());
+        movies.sort(Comparator.comparingInt(Movie::getId));
+        Map<Movie, Integer> rowOf = new IdentityHashMap<>();
+        for (int i = 0; i < movies.size(); i++) {
+            rowOf.put(movies.get(i), i);
+        }
+
+        // collect + sort the string pool
+        Set<String> pool = new HashSet<>();
+        for (Movie m : movies) {
+            pool.add(m.getTitle());
+            pool.add(m.getTitle().toLowerCase());
+            addIfPresent(pool, m.getDirector());
+            addIfPresent(pool, m.getComposer());
+            pool.addAll(m.getActors());
+            pool.addAll(m.getWriters());
+            pool.addAll(m.getCines());
+            pool.addAll(m.getGenres());
+        }
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            db.forEachPosting(type, (value, ordinals) -> pool.add(value));
+        }
+        String[] strings = pool.toArray(new String[0]);
+        byte[][] encoded = new byte[strings.length][];
+        Integer[] order = new Integer[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareBytes(encoded[a], encoded[b]));
+        Map<String, Integer> stringId = new HashMap<>(strings.length * 2);
+        for (int i = 0; i < order.length; i++) {
+            stringId.put(strings[order[i]], i);
+        }
+
+        // string section
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        int[] offsets = new int[strings.length + 1];
+        for (int i = 0; i < order.length; i++) {
+            offsets[i] = stringBytes.size();
+            byte[] b = encoded[order[i]];
+            stringBytes.write(b, 0, b.length);
+        }
+        offsets[strings.length] = stringBytes.size();
+        // keep the following int sections aligned
+        while (stringBytes.size() % 4 != 0) {
+            stringBytes.write(0);
+        }
+
+        // movie rows + list area
+        int[] rows = new int[movies.size() * ROW_INTS];
+        IntArrayBuilder lists = new IntArrayBuilder();
+        for (int r = 0; r < movies.size(); r++) {
+            Movie m = movies.get(r);
+            int base = r * ROW_INTS;
+            rows[base + ROW_ID] = m.getId();
+            rows[base + ROW_TITLE] = stringId.get(m.getTitle());
+            rows[base + ROW_YEAR] = m.getReleaseYear();
+            rows[base + ROW_DIRECTOR] = idOrNone(stringId, m.getDirector());
+            rows[base + ROW_COMPOSER] = idOrNone(stringId, m.getComposer());
+            writeList(rows, base + ROW_ACTORS, m.getActors(), stringId, lists);
+            writeList(rows, base + ROW_WRITERS, m.getWriters(), stringId, lists);
+            writeList(rows, base + ROW_CINES, m.getCines(), stringId, lists);
+            writeList(rows, base + ROW_GENRES, m.getGenres(), stringId, lists);
+            rows[base + ROW_VOTES] = m.getVoteCount();
+            rows[base + ROW_ORDER] = m.getOrdinal();
+            rows[base + ROW_TITLE_KEY] = stringId.get(m.getTitle().toLowerCase());
+        }
+
+        // title index, movies with the same title in the order the csv had them
+        Integer[] byTitle = new Integer[movies.size()];
+        for (int i = 0; i < byTitle.length; i++) {
+            byTitle[i] = i;
+        }
+        // (string ids are in byte order already)
+        Arrays.sort(byTitle, Comparator.comparingInt(
+                (Integer r) -> rows[r * ROW_INTS + ROW_TITLE_KEY])
+                .thenComparingInt(r -> movies.get(r).getOrdinal()));
+
+        // postings
+        IntArrayBuilder post = new IntArrayBuilder();
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            post.add(0);
+        }
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            post.set(type.ordinal(), post.size());
+            TreeMap<Integer, int[]> sorted = new TreeMap<>();
+            db.forEachPosting(type, (value, ordinals) ->
+                    sorted.put(stringId.get(value), ordinals));
+            post.add(sorted.size());
+            int entryStart = post.size();
+            for (int i = 0; i < sorted.size(); i++) {
+                post.add(0).add(0).add(0);
+            }
+            int i = 0;
+            for (Map.Entry<Integer, int[]> e : sorted.entrySet()) {
+                int[] movieRows = new int[e.getValue().length];
+                int k = 0;
+                for (int ordinal : e.getValue()) {
+                    movieRows[k++] = rowOf.get(db.getMovieByOrdinal(ordinal));
+                }
+                Arrays.sort(movieRows);
+                int entry = entryStart + i * 3;
+                post.set(entry, e.getKey());
+                post.set(entry + 1, post.size());
+                post.set(entry + 2, movieRows.length);
+                for (int row : movieRows) {
+                    post.add(row);
+                }
+                i++;
+            }
+        }
+
+        // lay the sections out one after another
+        int stringOffsetsPos = HEADER_BYTES;
+        int stringDataPos = stringOffsetsPos + offsets.length * 4;
+        int movieTablePos = stringDataPos + stringBytes.size();
+        int listAreaPos = movieTablePos + rows.length * 4;
+        int titleIndexPos = listAreaPos + lists.size() * 4;
+        int postingsPos = titleIndexPos + byTitle.length * 4;
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(mtime(moviesCsv));
+            out.writeLong(mtime(creditsCsv));
+            out.writeInt(movies.size());
+            out.writeInt(strings.length);
+            out.writeInt(stringOffsetsPos);
+            out.writeInt(stringDataPos);
+            out.writeInt(movieTablePos);
+            out.writeInt(listAreaPos);
+            out.writeInt(titleIndexPos);
+            out.writeInt(postingsPos);
+            for (int o : offsets) {
+                out.writeInt(o);
+            }
+            stringBytes.writeTo(out);
+            for (int v : rows) {
+                out.writeInt(v);
+            }
+            lists.writeTo(out);
+            for (int r : byTitle) {
+                out.writeInt(r);
+            }
+            post.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /////////////// reading ///////////////////
+
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    //strings in the pool (their ids are 0 .. getStringCount() - 1)
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    int movieId(int row) {
+        return rowInt(row, ROW_ID);
+    }
+
+    String title(int row) {
+        return string(rowInt(row, ROW_TITLE));
+    }
+
+    int releaseYear(int row) {
+        return rowInt(row, ROW_YEAR);
+    }
+
+    int voteCount(int row) {
+        return rowInt(row, ROW_VOTES);
+    }
+
+    int directorId(int row) {
+        return rowInt(row, ROW_DIRECTOR);
+    }
+
+    int composerId(int row) {
+        return rowInt(row, ROW_COMPOSER);
+    }
+
+    //string ids of one of the list columns (actors, writers, ...) as a list of names
+    List<String> names(int row, Move.ConnectionType type) {
+        int field = listField(type);
+        final int off = rowInt(row, field);
+        final int len = rowInt(row, field + 1);
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                if (i < 0 || i >= len) {
+                    throw new IndexOutOfBoundsException("index " + i);
+                }
+                return string(buf.getInt(listArea + (off + i) * 4));
+            }
+
+            @Override
+            public int size() {
+                return len;
+            }
+        };
+    }
+
+    //string ids of one of the list columns (a copy, the file stays as it is)
+    int[] listIds(int row, Move.ConnectionType type) {
+        int field = listField(type);
+        int off = rowInt(row, field);
+        int[] ids = new int[rowInt(row, field + 1)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = buf.getInt(listArea + (off + i) * 4);
+        }
+        return ids;
+    }
+
+    //true if the list column of this row contains the string id
+    boolean listContains(int row, Move.ConnectionType type, int sid) {
+        int field = listField(type);
+        int off = rowInt(row, field);
+        int len = rowInt(row, field + 1);
+        for (int i = 0; i < len; i++) {
+            if (buf.getInt(listArea + (off + i) * 4) == sid) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //row of the movie with this id, or -1 (rows are sorted by id)
+    int rowOfId(int id) {
+        int lo = 0;
+        int hi = movieCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = movieId(mid);
+            if (v < id) {
+                lo = mid + 1;
+            } else if (v > id) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    //first position in the title index whose lowercase title is >= key (the utf-8
+    //bytes of a lowercase title or prefix, see utf8)
+    int titleLowerBound(byte[] key) {
+        int lo = 0;
+        int hi = movieCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compareString(titleKeyId(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    //title of the i-th entry of the title index
+    String titleAt(int i) {
+        return title(titleRow(i));
+    }
+
+    int titleRow(int i) {
+        return buf.getInt(titleIndex + i * 4);
+    }
+
+    //string id of the i-th entry's lowercase title, the same for titles that only
+    //differ in case
+    int titleKeyId(int i) {
+        return rowInt(titleRow(i), ROW_TITLE_KEY);
+    }
+
+    //does the i-th entry's lowercase title start with these bytes
+    boolean titleKeyStartsWith(int i, byte[] prefix) {
+        int sid = titleKeyId(i);
+        int start = buf.getInt(stringOffsets + sid * 4);
+        int end = buf.getInt(stringOffsets + (sid + 1) * 4);
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length; k++) {
+            if (buf.get(stringData + start + k) != prefix[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //does the i-th entry's lowercase title have exactly these bytes
+    boolean titleKeyIs(int i, byte[] key) {
+        return compareString(titleKeyId(i), key) == 0;
+    }
+
+    static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    //id of the string in the pool, or -1 if we never saw it
+    int findString(String s) {
+        if (s == null) {
+            return -1;
+        }
+        byte[] key = utf8(s);
+        int lo = 0;
+        int hi = stringCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareString(mid, key);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    String string(int sid) {
+        if (sid < 0) {
+            return "";
+        }
+        int start = buf.getInt(stringOffsets + sid * 4);
+        int end = buf.getInt(stringOffsets + (sid + 1) * 4);
+        byte[] b = new byte[end - start];
+        ByteBuffer view = buf.duplicate();
+        view.position(stringData + start);
+        view.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    //the pool string's bytes against key, compared in place like compareBytes
+    private int compareString(int sid, byte[] key) {
+        int start = stringData + buf.getInt(stringOffsets + sid * 4);
+        int len = stringData + buf.getInt(stringOffsets + (sid + 1) * 4) - start;
+        int n = Math.min(len, key.length);
+        for (int i = 0; i < n; i++) {
+            int c = (buf.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return len - key.length;
+    }
+
+    //rows of all movies indexed under this value, or null if the value isn't indexed
+    int[] postings(Move.ConnectionType type, String value) {
+        int sid = findString(value);
+        if (sid < 0) {
+            return null;
+        }
+        int section = postings + sectionStart(type) * 4;
+        int entries = buf.getInt(section);
+        int lo = 0;
+        int hi = entries - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int entry = section + 4 + mid * 12;
+            int v = buf.getInt(entry);
+            if (v < sid) {
+                lo = mid + 1;
+            } else if (v > sid) {
+                hi = mid - 1;
+            } else {
+                int off = buf.getInt(entry + 4);
+                int len = buf.getInt(entry + 8);
+                int[] rows = new int[len];
+                for (int i = 0; i < len; i++) {
+                    rows[i] = buf.getInt(postings + (off + i) * 4);
+                }
+                return rows;
+            }
+        }
+        return null;
+    }
+
+    //index (in ints) of the section for this type, from the little table at the start
+    private int sectionStart(Move.ConnectionType type) {
+        return buf.getInt(postings + type.ordinal() * 4);
+    }
+
+    private int rowInt(int row, int field) {
+        return buf.getInt(movieTable + (row * ROW_INTS + field) * 4);
+    }
+
+    private static int listField(Move.ConnectionType type) {
+        switch (type) {
+            case ACTOR:
+                return ROW_ACTORS;
+            case WRITER:
+                return ROW_WRITERS;
+            case CINES:
+                return ROW_CINES;
+            case GENRE:
+                return ROW_GENRES;
+            default:
+                throw new IllegalArgumentException(type + " is not a list column");
+        }
+    }
+
+    /////////////// writing helpers ///////////////////
+
+    //unsigned byte order, which for utf-8 is code point order
+    private static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int c = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static void addIfPresent(Set<String> pool, String s) {
+        if (s != null && !s.isEmpty()) {
+            pool.add(s);
+        }
+    }
+
+    private static int idOrNone(Map<String, Integer> ids, String s) {
+        if (s == null || s.isEmpty()) {
+            return -1;
+        }
+        return ids.get(s);
+    }
+
+    private static void writeList(int[] rows, int field, List<String> values,
+                                  Map<String, Integer> ids, IntArrayBuilder lists) {
+        rows[field] = lists.size();
+        rows[field + 1] = values.size();
+        for (String v : values) {
+            lists.add(ids.get(v));
+        }
+    }
+
+    private static long mtime(Path p) throws IOException {
+        if (p == null || !Files.exists(p)) {
+            return 0L;
+        }
+        return Files.getLastModifiedTime(p).toMillis();
+    }
+
+    //growable int array for the sections we don't know the size of up front
+    private static class IntArrayBuilder {
+        private int[] data = new int[1024];
+        private int size = 0;
+
+        IntArrayBuilder add(int v) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = v;
+            return this;
+        }
+
+        void set(int i, int v) {
+            data[i] = v;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            for (int i = 0; i < size; i++) {
+                out.writeInt(data[i]);
+            }
+        }
+    }
+}
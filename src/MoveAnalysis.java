@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+//what can still be played from the movie on top of the pile: how many legal moves are
+//left, which movies they are, through which connections, and whether a move would
+//leave the next player with nothing at all (a dead position). for ui hints and bots.
+//
+//it reads the game straight from its GameState (see getMoveAnalysis), which keeps
+//everything it needs as it goes, so nothing is ever rebuilt from the move history:
+//
+//  used       a bit per movie ordinal
+//  usage      use count per connection (see ConnectionCounts.key), only the ones used
+//  exhausted  a bit per name id that has a connection at MAX_CONNECTION_USES (under
+//             some type, usage says which)
+//
+//the moves from the current movie are then one pass over its MovieGraph edges with a
+//bit test or two per edge, done on the first question after the game changed and
+//cached until the next change. a movie is a legal move if it's unused and at least one
+//of the names it shares with the current movie isn't used up (genres never count)
+public class MoveAnalysis {
+
+    private final GameState state;
+    private final MovieDatabase database;
+    private final MovieGraph graph;
+    private int current = -1;
+
+    // the legal moves from current: moves[i] is the movie, via[i] the first edge to
+    // it that isn't used up. valid while cachedVersion is the state's version
+    private int[] moves = new int[16];
+    private int[] via = new int[16];
+    private int moveCount;
+    private long cachedVersion = -1;
+    private final IntPredicate usable = edge -> !isExhausted(edge);
+
+    public MoveAnalysis(GameState state) {
+        this.state = state;
+        this.database = state.getDatabase();
+        this.graph = database.getGraph();
+        if (graph == null) {
+            throw new IllegalStateException("needs the movie graph (see MovieDatabase.loadAll)");
+        }
+    }
+
+    public boolean isUsed(int ordinal) {
+        return state.isUsed(ordinal);
+    }
+
+    //how often the connection was used so far
+    public int getUsage(Move.ConnectionType type, int valueId) {
+        return valueId < 0 ? 0 : state.connectionUses(ConnectionCounts.key(type, valueId));
+    }
+
+    //ordinal of the movie on top, -1 before the game starts
+    public int getCurrent() {
+        return state.currentOrdinal();
+    }
+
+    //number of movies that can be played on the current movie
+    public int legalMoveCount() {
+        refresh();
+        return moveCount;
+    }
+
+    //nothing can be played on the current movie. only a power up (or running out of
+    //time) gets the player to move out of here
+    public boolean isDeadPosition() {
+        return legalMoveCount() == 0;
+    }
+
+    //the i-th legal move (a movie ordinal), 0 <= i < legalMoveCount(), in graph order
+    public int legalMove(int i) {
+        refresh();
+        return moves[i];
+    }
+
+    //the movies that can be played on the current movie
+    public List<Movie> getLegalMoves() {
+        refresh();
+        List<Movie> list = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            list.add(database.getMovieByOrdinal(moves[i]));
+        }
+        return list;
+    }
+
+    //would playing this movie leave the next player in a dead position. counts the
+    //connection it would be played through (the first one not used up) as used once more
+    public boolean isDeadEndAfter(int ordinal) {
+        refresh();
+        int i = indexOf(ordinal);
+        if (i < 0) {
+            throw new IllegalArgumentException("not a legal move: " + ordinal);
+        }
+        long spent = keyOf(via[i]);
+        boolean spentRunsOut = state.connectionUses(spent) + 1 >= GameState.MAX_CONNECTION_USES;
+        int end = graph.edgeEnd(ordinal);
+        for (int e = graph.edgeStart(ordinal); e < end; e++) {
+            int to = graph.neighbor(e);
+            if (state.isUsed(to)) {
+                continue;
+            }
+            if (!isExhausted(e) && !(spentRunsOut && keyOf(e) == spent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //every connection the current movie can still be left through, with how many
+    //unused movies it reaches, most first. a movie sharing two names with the current
+    //one is counted under both
+    public List<Option> getOptions() {
+        refresh();
+        Map<Long, Option> byKey = new HashMap<>();
+        for (int i = 0; i < moveCount; i++) {
+            int to = moves[i];
+            for (int e = graph.firstEdge(current, to), end = graph.runEnd(current, e);
+                    e < end; e++) {
+                if (isExhausted(e)) {
+                    continue;
+                }
+                long key = keyOf(e);
+                Option o = byKey.get(key);
+                if (o == null) {
+                    o = new Option(graph.edgeType(e),
+                            database.getNames().nameOf(graph.edgeValue(e)),
+                            GameState.MAX_CONNECTION_USES - state.connectionUses(key));
+                    byKey.put(key, o);
+                }
+                o.moves++;
+            }
+        }
+        List<Option> options = new ArrayList<>(byKey.values());
+        options.sort((a, b) -> a.moves != b.moves ? Integer.compare(b.moves, a.moves)
+                : a.toString().compareTo(b.toString()));
+        return options;
+    }
+
+    //one connection out of the current movie
+    public static final class Option {
+        private final Move.ConnectionType type;
+        private final String value;
+        private final int usesLeft;
+        private int moves;
+
+        Option(Move.ConnectionType type, String value, int usesLeft) {
+            this.type = type;
+            this.value = value;
+            this.usesLeft = usesLeft;
+        }
+
+        public Move.ConnectionType getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        //unused movies it leads to
+        public int getMoves() {
+            return moves;
+        }
+
+        //how many more times it may be used in this game
+        public int getUsesLeft() {
+            return usesLeft;
+        }
+
+        @Override
+        public String toString() {
+            return type + ": " + value;
+        }
+    }
+
+    //recompute the legal moves if anything changed since last time
+    private void refresh() {
+        if (cachedVersion == state.version()) {
+            return;
+        }
+        cachedVersion = state.version();
+        current = state.currentOrdinal();
+        moveCount = 0;
+        if (current < 0) {
+            return;
+        }
+        for (int e = graph.edgeStart(current), end = graph.edgeEnd(current), runEnd;
+                e < end; e = runEnd) {
+            runEnd = graph.runEnd(current, e);
+            int to = graph.neighbor(e);
+            // any usable edge makes the move legal, whatever the mover's win condition
+            int first = state.isUsed(to) ? -1
+                    : GameState.chooseEdge(graph, e, runEnd, null, -1, usable);
+            if (first >= 0) {
+                if (moveCount == moves.length) {
+                    moves = Arrays.copyOf(moves, moveCount * 2);
+                    via = Arrays.copyOf(via, moveCount * 2);
+                }
+                moves[moveCount] = to;
+                via[moveCount++] = first;
+            }
+        }
+    }
+
+    private boolean isExhausted(int edge) {
+        // the bit test answers almost every edge, the table only the rare name that is
+        // used up under one type
+        return state.isNameUsedUp(graph.edgeValue(edge))
+                && state.connectionUses(keyOf(edge)) >= GameState.MAX_CONNECTION_USES;
+    }
+
+    //position of a movie in moves (they are sorted, like the graph's neighbors)
+    private int indexOf(int ordinal) {
+        int i = Arrays.binarySearch(moves, 0, moveCount, ordinal);
+        return i >= 0 ? i : -1;
+    }
+
+    private long keyOf(int edge) {
+        return ConnectionCounts.key(graph.edgeType(edge), graph.edgeValue(edge));
+    }
+}
@@ -0,0 +1,128 @@
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class MoveAnalysisTest {
+
+    private final TestCatalog fixture = new TestCatalog();
+
+    //a game starting from `start`, nobody close to winning
+    private GameState game(Movie start) {
+        return fixture.game(start, TestCatalog.player("a", "Drama", 5),
+                TestCatalog.player("b", "Comedy", 5));
+    }
+
+    private void play(GameState state, Movie next) {
+        Optional<Move> move = state.tryBuildMove(state.getCurrentPlayer(), next);
+        assertTrue("should be able to play " + next.getTitle(), move.isPresent());
+        state.applyMove(move.get());
+        state.nextTurn();
+    }
+
+    @Test
+    public void testFollowsMoves() {
+        Movie start = fixture.movie(1, "Start", "Drama", "a1", "a2");
+        Movie x = fixture.movie(2, "X", "Drama", "a1", "a3");
+        Movie y = fixture.movie(3, "Y", "Drama", "a2", "a3");
+        Movie z = fixture.movie(4, "Z", "Drama", "a3");
+        fixture.movie(5, "Lonely", "Drama", "nobody");
+        GameState state = game(start);
+        MoveAnalysis analysis = state.getMoveAnalysis();
+
+        assertEquals(Arrays.asList(x, y), analysis.getLegalMoves());
+        play(state, x);
+        // start is used, so from X only Y and Z over a3 are left
+        assertEquals(Arrays.asList(y, z), analysis.getLegalMoves());
+        assertEquals(1, analysis.getUsage(Move.ConnectionType.ACTOR,
+                fixture.db.getNames().lookup("a1")));
+        play(state, y);
+        assertEquals(Collections.singletonList(z), analysis.getLegalMoves());
+        play(state, z);
+        assertTrue("everything around Z is used", analysis.isDeadPosition());
+    }
+
+    @Test
+    public void testUsedUpConnections() {
+        // a chain over the same actor: after three uses it's gone
+        Movie start = fixture.movie(1, "Start", "Drama", "a1");
+        Movie b = fixture.movie(2, "B", "Drama", "a1");
+        Movie c = fixture.movie(3, "C", "Drama", "a1");
+        Movie d = fixture.movie(4, "D", "Drama", "a1", "a2");
+        Movie e = fixture.movie(5, "E", "Drama", "a1");
+        Movie f = fixture.movie(6, "F", "Drama", "a2");
+        GameState state = game(start);
+        MoveAnalysis analysis = state.getMoveAnalysis();
+
+        assertEquals(4, analysis.legalMoveCount());
+        play(state, b);
+        play(state, c);
+        assertFalse("D can still be left over a2", analysis.isDeadEndAfter(d.getOrdinal()));
+        assertTrue("the third use of a1 leaves nothing after E",
+                analysis.isDeadEndAfter(e.getOrdinal()));
+        play(state, d);
+        // a1 is used up, E is only reachable through it
+        assertEquals(Collections.singletonList(f), analysis.getLegalMoves());
+        assertFalse(state.tryBuildMove(state.getCurrentPlayer(), e).isPresent());
+    }
+
+    @Test
+    public void testOptions() {
+        Movie start = fixture.movie(1, "Start", "Drama", "a1", "a2");
+        fixture.movie(2, "B", "Drama", "a1");
+        fixture.movie(3, "C", "Drama", "a1", "a2");
+        fixture.movie(4, "D", "Drama", "a1");
+        GameState state = game(start);
+
+        List<MoveAnalysis.Option> options = state.getMoveAnalysis().getOptions();
+        assertEquals(2, options.size());
+        assertEquals("ACTOR: a1", options.get(0).toString());
+        assertEquals(3, options.get(0).getMoves());
+        assertEquals(GameState.MAX_CONNECTION_USES, options.get(0).getUsesLeft());
+        assertEquals("a2", options.get(1).getValue());
+        assertEquals(1, options.get(1).getMoves());
+    }
+
+    @Test
+    public void testEscapeMovesTheAnalysis() {
+        Movie start = fixture.movie(1, "Start", "Drama", "a1");
+        fixture.movie(2, "B", "Drama", "a1");
+        Movie other = fixture.movie(3, "Other", "Drama", "a2");
+        Movie c = fixture.movie(4, "C", "Drama", "a2");
+        GameState state = game(start);
+        state.setCurrentMovie(other);
+        assertEquals(Collections.singletonList(c), state.getMoveAnalysis().getLegalMoves());
+    }
+
+    @Test
+    public void testAgreesWithTryBuildMove() throws Exception {
+        MovieDatabase catalog = new MovieDatabase();
+        catalog.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        Random random = new Random(5);
+        List<Player> players = new ArrayList<>(Arrays.asList(
+                new Player("a", new WinCondition(Move.ConnectionType.GENRE, "Western", 99)),
+                new Player("b", new WinCondition(Move.ConnectionType.GENRE, "Western", 99))));
+        GameState state = new GameState(catalog, players);
+        state.initialGameState();
+        MovieGraph graph = catalog.getGraph();
+        MoveAnalysis analysis = state.getMoveAnalysis();
+        for (int turn = 0; turn < 200 && !analysis.isDeadPosition(); turn++) {
+            // every neighbor tryBuildMove accepts is a legal move and the other way round
+            int from = state.getCurrentMovie().getOrdinal();
+            List<Movie> expected = new ArrayList<>();
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                Movie next = catalog.getMovieByOrdinal(graph.neighbor(e));
+                if (!expected.contains(next)
+                        && state.tryBuildMove(state.getCurrentPlayer(), next).isPresent()) {
+                    expected.add(next);
+                }
+            }
+            assertEquals("turn " + turn, expected, analysis.getLegalMoves());
+            play(state, BotStrategy.anyLegalMovie(state, state.getCurrentPlayer(), random));
+        }
+    }
+}
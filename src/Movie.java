@@ -1,6 +1,9 @@
 import java.util.Arrays;
 import java.util.List;
 
+//a movie is read only for everyone outside the loaders: they fill it in (addCredits,
+//useNames, ...) before MovieDatabase.addMovie, after that games share it across
+//threads and MappedMovie reads it straight out of a file, so there are no setters
 public class Movie {
 
     // private fields for each Movie object
@@ -13,12 +16,21 @@ public class Movie {
     private int id;
     private String title;
     private int releaseYear;
-    private String director;
-    private String composer;
-    private List<String> actors;
-    private List<String> writers;
-    private List<String> cines;
-    private List<String> genres;
+    // position in the MovieDatabase it was added to (see MovieDatabase.addMovie),
+    // -1 for movies that were never added to one
+    private int ordinal = -1;
+    // how many tmdb users voted on it (vote_count), our stand-in for popularity
+    private int voteCount;
+
+    // names are dictionary encoded (see NameDictionary): for every connection type
+    // (indexed by Move.ConnectionType ordinal) the ids of the names this movie has.
+    // director and composer are arrays of length 0 (none) or 1
+    private int[][] connections;
+    // where the ids come from: the database's dictionary, or for a movie built by
+    // hand a small one of its own until it is added to a database
+    private NameDictionary names;
+
+    private static final int[] NONE = new int[0];
 
 
     // Constructor for Movie object (we create one Movie object for each movie in the database)
@@ -26,15 +38,42 @@ public class Movie {
     public Movie(int id, String title, int releaseYear, String director,
                  String composer, List<String> actors, List<String> writers,
                  List<String> cines, List<String> genres) {
+        this(new NameDictionary(8), id, title, releaseYear, director, composer, actors,
+                writers, cines, genres);
+    }
+
+    // same, with the names going straight into a database's dictionary (the loaders)
+    Movie(NameDictionary names, int id, String title, int releaseYear, String director,
+          String composer, List<String> actors, List<String> writers,
+          List<String> cines, List<String> genres) {
         this.id = id;
         this.title = title;
         this.releaseYear = releaseYear;
-        this.director = director;
-        this.composer = composer;
-        this.actors = actors;
-        this.writers = writers;
-        this.cines = cines;
-        this.genres = genres;
+        this.names = names;
+        this.connections = new int[Move.ConnectionType.values().length][];
+        connections[Move.ConnectionType.DIRECTOR.ordinal()] = single(director);
+        connections[Move.ConnectionType.COMPOSER.ordinal()] = single(composer);
+        connections[Move.ConnectionType.ACTOR.ordinal()] = names.encode(actors);
+        connections[Move.ConnectionType.WRITER.ordinal()] = names.encode(writers);
+        connections[Move.ConnectionType.CINES.ordinal()] = names.encode(cines);
+        connections[Move.ConnectionType.GENRE.ordinal()] = names.encode(genres);
+    }
+
+    // a movie whose names are already encoded in names (see MovieSnapshot)
+    Movie(NameDictionary names, int id, String title, int releaseYear,
+          int[][] connections) {
+        this.id = id;
+        this.title = title;
+        this.releaseYear = releaseYear;
+        this.names = names;
+        this.connections = connections;
+    }
+
+    // for flyweight subclasses (see MappedMovie) that keep their data somewhere else
+    // and override the getters
+    protected Movie(int id, NameDictionary names) {
+        this.id = id;
+        this.names = names;
     }
 
 
@@ -45,46 +84,56 @@ public class Movie {
         if (value == null) {
             return false; //return false if no connection
         }
-        switch (type) {
-            case ACTOR:
-                return actors != null && actors.contains(value);
-            case DIRECTOR:
-                return director != null && !director.isEmpty() &&
-                        director.equals(value);
-            case WRITER:
-                return writers != null && writers.contains(value);
-            case COMPOSER:
-                return composer != null &&  !composer.isEmpty() &&
-                        composer.equals(value);
-            case CINES:
-                return cines != null && cines.contains(value);
-            case GENRE:
-                return genres != null && genres.contains(value);
-            default:
-                return false;
+        // a name no movie has can't be a connection
+        int valueId = names.lookup(value);
+        return valueId >= 0 && hasConnection(type, valueId);
+    }
+
+    // same check with an already encoded name (just int comparisons)
+    public boolean hasConnection(Move.ConnectionType type, int valueId) {
+        for (int v : connections[type.ordinal()]) {
+            if (v == valueId) {
+                return true;
+            }
         }
+        return false;
     }
 
     //return a list of all values for a specific connection type
     public List<String> getConnections(Move.ConnectionType type) {
         switch (type) {
-            case ACTOR:
-                return actors;
             case DIRECTOR:
-                return Arrays.asList(director);
-            case WRITER:
-                return writers;
+                return Arrays.asList(getDirector());
             case COMPOSER:
-                return Arrays.asList(composer);
-            case CINES:
-                return cines;
-            case GENRE:
-                return genres;
+                return Arrays.asList(getComposer());
             default:
-                return Arrays.asList(); // empty list
+                return names.decode(connections[type.ordinal()]);
         }
     }
 
+    // the dictionary ids behind getConnections (empty for a missing director/composer)
+    // this is the movie's own array, don't modify it
+    public int[] getConnectionIds(Move.ConnectionType type) {
+        return connections[type.ordinal()];
+    }
+
+    // the dictionary the ids are from. ids of two movies only compare if this is the
+    // same for both
+    public NameDictionary getNames() {
+        return names;
+    }
+
+    // move the names over to a database's dictionary (see MovieDatabase.addMovie)
+    void useNames(NameDictionary target) {
+        if (target == names) {
+            return;
+        }
+        for (int t = 0; t < connections.length; t++) {
+            connections[t] = reencode(connections[t], target);
+        }
+        names = target;
+    }
+
     // getters (9 getters for the 9 fields)
     public int getId() {
         return id;
@@ -98,35 +147,90 @@ public class Movie {
         return releaseYear;
     }
 
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    public int getVoteCount() {
+        return voteCount;
+    }
+
+    void setVoteCount(int voteCount) {
+        this.voteCount = voteCount;
+    }
+
+    // the list getters are read-only views over the encoded names
     public List<String> getActors() {
-        return actors;
+        return getConnections(Move.ConnectionType.ACTOR);
     }
 
     public List<String> getCines() {
-        return cines;
+        return getConnections(Move.ConnectionType.CINES);
     }
 
     public String getComposer() {
-        return composer;
+        return nameOrEmpty(Move.ConnectionType.COMPOSER);
     }
 
     public String getDirector() {
-        return director;
+        return nameOrEmpty(Move.ConnectionType.DIRECTOR);
     }
 
     public List<String> getGenres() {
-        return genres;
+        return getConnections(Move.ConnectionType.GENRE);
     }
 
     public List<String> getWriters() {
-        return writers;
+        return getConnections(Move.ConnectionType.WRITER);
+    }
+
+    // add credits parsed separately (see MovieDatabase.attachCredits): the cast and
+    // crew lists are appended, director/composer replaced if the credits have one
+    void addCredits(Movie credits) {
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            int[] extra = credits.names == names ? credits.connections[type.ordinal()]
+                    : credits.reencode(credits.connections[type.ordinal()], names);
+            if (extra.length == 0) {
+                continue;
+            }
+            if (type == Move.ConnectionType.DIRECTOR || type == Move.ConnectionType.COMPOSER) {
+                connections[type.ordinal()] = extra;
+            } else {
+                int[] mine = connections[type.ordinal()];
+                int[] merged = Arrays.copyOf(mine, mine.length + extra.length);
+                System.arraycopy(extra, 0, merged, mine.length, extra.length);
+                connections[type.ordinal()] = merged;
+            }
+        }
+    }
+
+    private String nameOrEmpty(Move.ConnectionType type) {
+        int[] ids = connections[type.ordinal()];
+        return ids.length == 0 ? "" : names.nameOf(ids[0]);
     }
 
-    public void setDirector(String director) {
-        this.director = director;
+    // the same names with their ids in target
+    private int[] reencode(int[] ids, NameDictionary target) {
+        if (ids.length == 0) {
+            return ids;
+        }
+        int[] out = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            out[i] = target.intern(names.nameOf(ids[i]));
+        }
+        return out;
     }
-    public void setComposer(String composer) {
-        this.composer = composer;
+
+    // "" (or null) means there is no director/composer
+    private int[] single(String name) {
+        if (name == null || name.isEmpty()) {
+            return NONE;
+        }
+        return new int[] {names.intern(name)};
     }
 
 
@@ -3,6 +3,7 @@ import com.google.gson.*;
 import java.io.*;
 import java.nio.file.*;
 import java.time.format.DateTimeFormatter;
+import java.util.function.BiConsumer;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -11,17 +12,27 @@ import org.apache.commons.csv.CSVRecord;
 //a single CSV cell,  we use csv file paths so that loading from both IDE
 // and simple String.split() would make a mess :)
 
+//one database can be shared by many games on different threads (see SessionManager).
+//once loaded the movies, names and indexes don't change any more, games keep their own
+//state (GameState, with ids of its own for names the catalog doesn't have) and only
+//ever look things up here. what does change is behind this object's lock: the title
+//search, title index, path finder and distance oracle are built on first use, and
+//getRandomMovie draws from this database's own MovieDraw (games sharing a database
+//bring their own draw instead)
 public class MovieDatabase {
 
     // fields
-    // These maps will be filled out string (person name) to a Movie
     private Map<Integer, Movie> moviesById = new HashMap<>();
-    private Map<String, Set<Movie>> actorIndex = new HashMap<>();
-    private Map<String, Set<Movie>> directorIndex = new HashMap<>();
-    private Map<String, Set<Movie>> writerIndex = new HashMap<>();
-    private Map<String, Set<Movie>> cinesIndex = new HashMap<>();
-    private Map<String, Set<Movie>> composerIndex = new HashMap<>();
-    private Map<String, Set<Movie>> genreIndex = new HashMap<>();
+    // every movie by its ordinal, which is just the order they were added in
+    private List<Movie> movies = new ArrayList<>();
+    // this catalog's names, every id below is one of these (see getNames)
+    private NameDictionary names;
+    // the connection indexes as posting lists: for every connection type (by enum
+    // ordinal) and every names id, the sorted ordinals of the movies that
+    // have that name (null if none do). see getPostings and PostingLists
+    private int[][][] postings = new int[Move.ConnectionType.values().length][0][];
+    // which movies connect to which, built at the end of loadAll (see MovieGraph)
+    private MovieGraph graph;
     //a sorted set of all movie titles for prefix search
     private  TreeSet<String> titleSet = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
 
@@ -29,198 +40,366 @@ public class MovieDatabase {
     private  Gson gson = new Gson();
     //Formatter for release date strings
     private DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("M/dd/yyyy");
-    //keep track of which movies we've returned randomly
-    private Set<Integer> usedMovieIds = new HashSet<>();
+    //keep track of which movies we've returned randomly (see getRandomMovie)
+    private MovieDraw draw;
+    private Random random = new Random();
     private Map<String, Movie> moviesByTitle = new HashMap<>();
+    //typo tolerant title lookups, built on first use (see titleSearch)
+    private FuzzySearch titleSearch;
+    private int titleSearchCount;
+    //word/substring title search, see getTitleIndex
+    private TitleSearchIndex titleIndex;
+    private int titleIndexCount;
+    //shortest chains between movies, see getPathFinder
+    private PathFinder pathFinder;
+    private int pathFinderCount;
+    //distance bounds between movies, see getDistanceOracle
+    private DistanceOracle distanceOracle;
+
+    //how the loaders read the JSON cells, see setStreamingJson
+    private boolean streamingJson = true;
+    //worker threads for loadAll, see setLoadParallelism
+    private int loadParallelism = 1;
+
+    //crew jobs we turn into connections (see readCrew)
+    private static final String[] CREW_JOBS = {"Director", "Original Music Composer",
+        "Writer", "Director of Photography"};
+
+    public MovieDatabase() {
+        this(new NameDictionary());
+    }
+
+    //a database whose name ids come from this dictionary (MappedMovieDatabase's are
+    //the store's own strings)
+    MovieDatabase(NameDictionary names) {
+        this.names = names;
+    }
 
-    //load movie, credit csv and then build indexes
+    //the dictionary behind this catalog's name ids (Movie.getConnectionIds, the
+    //posting lists, MovieGraph edges). it only holds this catalog's names
+    public NameDictionary getNames() {
+        return names;
+    }
+
+    //swap in the dictionary a snapshot was read into, before any movie is added
+    void setNames(NameDictionary names) {
+        if (!movies.isEmpty()) {
+            throw new IllegalStateException("database already has movies");
+        }
+        this.names = names;
+    }
+
+    //true (default): JsonCellScanner streams just the fields we use out of each cell
+    //false: build a full Gson tree per cell like we used to (kept to compare against)
+    public void setStreamingJson(boolean streamingJson) {
+        this.streamingJson = streamingJson;
+    }
+
+    //load movie, credit csv and then build indexes and the movie graph
+    //with a load parallelism above 1 this goes through ParallelMovieLoader instead,
+    //which ends up with exactly the same database
     public void loadAll(String moviesCsvFile, String creditsCsvFile) throws IOException {
-        loadMovies(moviesCsvFile);
-        loadCredits(creditsCsvFile);
-        buildIndexes();
+        if (loadParallelism > 1) {
+            new ParallelMovieLoader(this, loadParallelism).load(moviesCsvFile, creditsCsvFile);
+        } else {
+            loadMovies(moviesCsvFile);
+            loadCredits(creditsCsvFile);
+            buildIndexes();
+        }
+        graph = MovieGraph.build(this);
+        distanceOracle = null;
+    }
+
+    //how many worker threads loadAll may use (1 = the plain sequential load)
+    public void setLoadParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("need at least one thread");
+        }
+        this.loadParallelism = threads;
+    }
+
+    //same as loadAll, but tries the binary snapshot first (see MovieSnapshot)
+    //if the snapshot is missing, broken or older than the csv files we parse the csv
+    //like before and write a fresh snapshot for the next launch
+    //returns true if the snapshot was used
+    public boolean loadAll(String moviesCsvFile, String creditsCsvFile,
+                           String snapshotFile) throws IOException {
+        Path movies = resolve(moviesCsvFile);
+        Path credits = resolve(creditsCsvFile);
+        //keep the snapshot next to the csv files
+        Path snapshot = movies.resolveSibling(snapshotFile);
+        if (MovieSnapshot.read(snapshot, movies, credits, this)) {
+            return true;
+        }
+        loadAll(moviesCsvFile, creditsCsvFile);
+        // worth building now, the snapshot keeps it for the next launch
+        getDistanceOracle();
+        try {
+            MovieSnapshot.write(this, snapshot, movies, credits);
+        } catch (IOException e) {
+            //not fatal, we just parse the csv again next time
+            System.err.println("Could not write snapshot: " + e.getMessage());
+        }
+        return false;
+    }
+
+    //csv files live either in the working dir (terminal) or under src/ (IDE)
+    static Path resolve(String path) {
+        Path p = Paths.get(path);
+        if (!Files.exists(p) && Files.exists(Paths.get("src", path))) {
+            p = Paths.get("src", path);
+        }
+        return p;
     }
 
 
     // load data from a file to be indexed
     //load basic movie data: id, title, year, genres
-    //genres come in as a JSON string, so we parse them with Gson
+    //genres come in as a JSON string, see readNames
     public void loadMovies(String path) throws IOException {
-        Path csv = Paths.get(path);
-        if (!Files.exists(csv)) {
-            csv = Paths.get("src",path);
-        }
+        Path csv = resolve(path);
         try (
                 Reader in = Files.newBufferedReader(csv);
                 CSVParser parser = new CSVParser(in, CSVFormat.DEFAULT.withFirstRecordAsHeader());
         ) {
             for (CSVRecord rec : parser) {
-                int id = Integer.parseInt(rec.get("id").trim());
-                String title = rec.get("title").trim();
-                //parse release year from either M/D/YYYY or YYYY-MM-DD
-                int year = 0;
-                String rd = rec.get("release_date").trim();
-                if (!rd.isEmpty()) {
-                    String[] parts = rd.split("/");
-                    if (parts.length == 3) {
-                        year = Integer.parseInt(parts[2]);
-                    } else {
-                        //try alternatively format YYYY-MM-DD
-                        parts = rd.split("-");
-                        if (parts.length == 3) {
-                            year = Integer.parseInt(parts[0]);
-                        }
-                    }
-                }
+                addMovie(parseMovie(rec));
+            }
 
-                //try to parse genres if exist
-                List<String> genres = new ArrayList<>();
-                String genresStr = rec.get("genres");
-                if (genresStr != null && !genresStr.isEmpty()) {
-                    try {
-                        JsonArray genresArr = JsonParser.parseString(genresStr).getAsJsonArray();
-                        for (JsonElement el : genresArr) {
-                            String genreName = el.getAsJsonObject().get("name").getAsString();
-                            genres.add(genreName);
-                        }
-                    } catch (Exception ignore) {
 
-                    }
+        }
+    }
+
+    //turn one row of the movies csv into a Movie (with empty crew/actors for now)
+    //doesn't touch the database, so ParallelMovieLoader can call it from any thread
+    Movie parseMovie(CSVRecord rec) {
+        int id = Integer.parseInt(rec.get("id").trim());
+        String title = rec.get("title").trim();
+        //parse release year from either M/D/YYYY or YYYY-MM-DD
+        int year = 0;
+        String rd = rec.get("release_date").trim();
+        if (!rd.isEmpty()) {
+            String[] parts = rd.split("/");
+            if (parts.length == 3) {
+                year = Integer.parseInt(parts[2]);
+            } else {
+                //try alternatively format YYYY-MM-DD
+                parts = rd.split("-");
+                if (parts.length == 3) {
+                    year = Integer.parseInt(parts[0]);
                 }
-                //create a movie with empty crew/actors for now
-                Movie m = new Movie(id, title, year,"",""
-                        ,new ArrayList<>(),
-                        new ArrayList<>(),
-                        new ArrayList<>(),
-                        genres);
-                titleSet.add(title);
-                moviesById.put(id,m);
-                moviesByTitle.put(title.toLowerCase(),m);
             }
+        }
 
+        //try to parse genres if exist
+        List<String> genres = new ArrayList<>();
+        String genresStr = rec.get("genres");
+        if (genresStr != null && !genresStr.isEmpty()) {
+            readNames(genresStr, genres);
+        }
+        Movie movie = new Movie(names, id, title, year, "", "",
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                genres);
+        movie.setVoteCount(readVoteCount(rec));
+        return movie;
+    }
 
+    //vote_count column, 0 if the file has no such column or the cell is empty/broken
+    private static int readVoteCount(CSVRecord rec) {
+        if (!rec.isMapped("vote_count")) {
+            return 0;
+        }
+        try {
+            return (int) Double.parseDouble(rec.get("vote_count").trim());
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
 
     //read the credits CSV and parse cast (actors) and crew roles:
     //Connection: Director, Original Music Composer, Writer, Director of Photography
     public void loadCredits(String path) throws IOException {
-        Path csv = Paths.get(path);
-        if (!Files.exists(csv)) {
-            csv = Paths.get("src",path);
-        }
+        Path csv = resolve(path);
         try (
                 Reader in = Files.newBufferedReader(csv);
                 CSVParser parser = new CSVParser(in, CSVFormat.DEFAULT.withFirstRecordAsHeader());
         ) {
             for (CSVRecord rec : parser) {
-                int id = Integer.parseInt(rec.get(0).trim());
-                Movie m = moviesById.get(id);
-                if (m == null) {
-                    continue;
-                }
-                String castJson = rec.get("cast");
-
-                //Parse cast JSON array for actor names
-                try {
-                    JsonArray arr = JsonParser.parseString(castJson).getAsJsonArray();
-                    for (JsonElement el : arr) {
-                        String name = el.getAsJsonObject().get("name").getAsString();
-                        m.getActors().add(name);
-                    }
-                } catch (Exception ignore) {
+                attachCredits(parseCredits(rec));
+            }
+        }
+    }
 
-                }
-                //parse crew JSON array for specific jobs
-                String crewJson = rec.get("crew");
-                try {
-                    JsonArray arr = JsonParser.parseString(crewJson).getAsJsonArray();
-                    for (JsonElement el : arr) {
-                        String job = el.getAsJsonObject().get("job").getAsString();
-                        String name = el.getAsJsonObject().get("name").getAsString();
-                        switch (job) {
-                            case "Director":
-                                m.setDirector(name);
-                                break;
-                            case "Original Music Composer":
-                                m.setComposer(name);
-                                break;
-                            case "Writer":
-                                m.getWriters().add(name);
-                                break;
-                            case "Director of Photography":
-                                m.getCines().add(name);
-                                break;
-                            default:
-                                break;
-                        }
-                    }
-                } catch (Exception ignore) {
+    //parse one row of the credits csv into a throwaway Movie that only carries the
+    //id and the cast/crew. like parseMovie this is safe to call from worker threads
+    Movie parseCredits(CSVRecord rec) {
+        int id = Integer.parseInt(rec.get(0).trim());
+        //Parse cast JSON array for actor names
+        List<String> actors = new ArrayList<>();
+        readNames(rec.get("cast"), actors);
+        //parse crew JSON array for specific jobs
+        List<List<String>> crew = readCrew(rec.get("crew"));
+        return new Movie(names, id, "", 0, last(crew.get(0)), last(crew.get(1)),
+                actors, crew.get(2), crew.get(3), Collections.emptyList());
+    }
+
+    //copy parsed credits onto the real movie (credits for unknown movies are dropped)
+    void attachCredits(Movie credits) {
+        Movie m = moviesById.get(credits.getId());
+        if (m == null) {
+            return;
+        }
+        m.addCredits(credits);
+    }
+
+    //add the "name" of every object in a JSON array cell (genres, cast)
+    //a broken cell keeps the names before its first bad entry, or none at all if it
+    //isn't valid json. JsonCellScanner does the same, so streamingJson doesn't matter
+    private void readNames(String json, List<String> out) {
+        try {
+            if (streamingJson) {
+                JsonCellScanner.names(json, out);
+                return;
+            }
+            JsonArray arr = JsonParser.parseString(json).getAsJsonArray();
+            for (JsonElement el : arr) {
+                out.add(el.getAsJsonObject().get("name").getAsString());
+            }
+        } catch (Exception ignore) {
+
+        }
+    }
 
+    //pick the director, composer, writers and cinematographers out of a crew cell
+    //returns one list of names per entry of CREW_JOBS
+    private List<List<String>> readCrew(String json) {
+        List<List<String>> crew = new ArrayList<>(CREW_JOBS.length);
+        for (int i = 0; i < CREW_JOBS.length; i++) {
+            crew.add(new ArrayList<>());
+        }
+        try {
+            if (streamingJson) {
+                JsonCellScanner.crew(json, CREW_JOBS, (name, job) -> crew.get(job).add(name));
+                return crew;
+            }
+            JsonArray arr = JsonParser.parseString(json).getAsJsonArray();
+            for (JsonElement el : arr) {
+                String job = el.getAsJsonObject().get("job").getAsString();
+                String name = el.getAsJsonObject().get("name").getAsString();
+                int jobIndex = Arrays.asList(CREW_JOBS).indexOf(job);
+                if (jobIndex >= 0) {
+                    crew.get(jobIndex).add(name);
                 }
             }
+        } catch (Exception ignore) {
+
+        }
+        return crew;
+    }
+
+    //a movie keeps only one director/composer, the last one listed
+    private static String last(List<String> names) {
+        return names.isEmpty() ? "" : names.get(names.size() - 1);
+    }
+
+    //register a movie in the id/title lookups (used by the csv and snapshot loaders)
+    //and give it the next ordinal (a movie with an id we already have takes its place).
+    //a movie built by hand has its names moved into this database's dictionary
+    void addMovie(Movie m) {
+        m.useNames(names);
+        titleSet.add(m.getTitle());
+        Movie old = moviesById.put(m.getId(), m);
+        if (old != null) {
+            m.setOrdinal(old.getOrdinal());
+            movies.set(old.getOrdinal(), m);
+        } else {
+            m.setOrdinal(movies.size());
+            movies.add(m);
         }
+        moviesByTitle.put(m.getTitle().toLowerCase(), m);
+    }
+
+    //all loaded movies in ordinal order, for the snapshot writer
+    Collection<Movie> getAllMovies() {
+        return Collections.unmodifiableList(movies);
+    }
+
+    //every non-empty posting list of a type with its name, for the snapshot writers
+    void forEachPosting(Move.ConnectionType type, BiConsumer<String, int[]> action) {
+        int[][] lists = postings[type.ordinal()];
+        for (int id = 0; id < lists.length; id++) {
+            if (lists[id] != null) {
+                action.accept(names.nameOf(id), lists[id]);
+            }
+        }
+    }
+
+    //the movie graph, or null if this database wasn't filled by loadAll
+    //(GameState then compares the movies' names directly)
+    public MovieGraph getGraph() {
+        return graph;
+    }
+
+    void setGraph(MovieGraph graph) {
+        this.graph = graph;
+        this.distanceOracle = null;
+    }
+
+    //swap in the posting lists of one type (indexed by names id), used by
+    //the snapshot reader instead of rebuilding them
+    void setPostings(Move.ConnectionType type, int[][] lists) {
+        postings[type.ordinal()] = lists;
     }
 
     // build index maps (lookup index) for actor, dir, writer, etc
     public void buildIndexes() {
-        for (Movie m : moviesById.values()) {
-            //index actors
-            for (String a : m.getActors()) {
-                Set<Movie> s = actorIndex.get(a);
-                if (s == null) {
-                    s = new HashSet<>();
-                    actorIndex.put(a,s);
-                }
-                s.add(m);
-            }
-            //index director
-            String d = m.getDirector();
-            if (!d.isEmpty()) {
-                Set<Movie> s = directorIndex.get(d);
-                if (s == null) {
-                    s = new HashSet<>();
-                    directorIndex.put(d,s);
-                }
-                s.add(m);
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            buildIndex(type);
+        }
+    }
+
+    //fill the posting lists of one connection type. every type has its own slot, so
+    //ParallelMovieLoader builds them side by side on different threads.
+    //count first so every list is allocated once at its exact size, then fill them
+    //walking the movies in ordinal order, which leaves every list sorted
+    void buildIndex(Move.ConnectionType type) {
+        int maxId = -1;
+        for (Movie m : movies) {
+            for (int id : m.getConnectionIds(type)) {
+                maxId = Math.max(maxId, id);
             }
-            //index writers
-            for (String w : m.getWriters()) {
-                Set<Movie> s = writerIndex.get(w);
-                if (s == null) {
-                    s = new HashSet<>();
-                    writerIndex.put(w,s);
-                }
-                s.add(m);
+        }
+        int[] counts = new int[maxId + 1];
+        for (Movie m : movies) {
+            for (int id : m.getConnectionIds(type)) {
+                counts[id]++;
             }
-            //index cinematographers
-            for (String c : m.getCines()) {
-                Set<Movie> s = cinesIndex.get(c);
-                if (s == null) {
-                    s = new HashSet<>();
-                    cinesIndex.put(c,s);
-                }
-                s.add(m);
+        }
+        int[][] lists = new int[maxId + 1][];
+        for (int id = 0; id <= maxId; id++) {
+            if (counts[id] > 0) {
+                lists[id] = new int[counts[id]];
+                counts[id] = 0;
             }
-            //index composer
-            String comp = m.getComposer();
-            if (!comp.isEmpty()) {
-                Set<Movie> s = composerIndex.get(comp);
-                if (s == null) {
-                    s = new HashSet<>();
-                    composerIndex.put(comp,s);
+        }
+        for (Movie m : movies) {
+            for (int id : m.getConnectionIds(type)) {
+                int[] list = lists[id];
+                //a name listed twice for the same movie only counts once
+                if (counts[id] > 0 && list[counts[id] - 1] == m.getOrdinal()) {
+                    continue;
                 }
-                s.add(m);
+                list[counts[id]++] = m.getOrdinal();
             }
-            //index genres
-            for (String g : m.getGenres()) {
-                Set<Movie> s = genreIndex.get(g);
-                if (s == null) {
-                    s = new HashSet<>();
-                    genreIndex.put(g,s);
-                }
-                s.add(m);
+        }
+        for (int id = 0; id <= maxId; id++) {
+            if (lists[id] != null && counts[id] < lists[id].length) {
+                lists[id] = Arrays.copyOf(lists[id], counts[id]);
             }
         }
+        postings[type.ordinal()] = lists;
     }
 
 
@@ -252,51 +431,182 @@ public class MovieDatabase {
     }
 
     //get movie randomly, once movie is used, return null
-    public Movie getRandomMovie() {
-        List<Integer> unused = new ArrayList<>();
-        for (int id : moviesById.keySet()) {
-            if (!usedMovieIds.contains(id)) {
-                unused.add(id);
-            }
+    //every movie comes up at most once until resetRandomMovies
+    public synchronized Movie getRandomMovie() {
+        int ordinal = draw().draw();
+        //if we have exhausted all movies, return null
+        return ordinal < 0 ? null : getMovieByOrdinal(ordinal);
+    }
+
+    //make every movie available to getRandomMovie again
+    public synchronized void resetRandomMovies() {
+        draw().reset();
+    }
 
+    //where getRandomMovie gets its randomness from, e.g. new Random(seed) to get
+    //the same movies in the same order every run
+    public synchronized void setRandom(Random random) {
+        this.random = random;
+        if (draw != null) {
+            draw.setRandom(random);
         }
-        //if we have exhausted all movies, return null
-        if (unused.isEmpty()) {
-            return null;
+    }
+
+    //the draw is made on first use, and again if movies were added since
+    //(keeping the ones that were already drawn out of it)
+    private synchronized MovieDraw draw() {
+        int count = getMovieCount();
+        if (draw == null || draw.size() != count) {
+            MovieDraw fresh = new MovieDraw(count, random);
+            for (int i = 0; draw != null && i < draw.size(); i++) {
+                if (draw.isUsed(i)) {
+                    fresh.markUsed(i);
+                }
+            }
+            draw = fresh;
         }
-        //pick one at random
-        int idx = new Random().nextInt(unused.size());
-        int chosenID = unused.get(idx);
-        //mark it as used
-        usedMovieIds.add(chosenID);
-        //return the movie
-        return moviesById.get(chosenID);
+        return draw;
+    }
 
+    //the movie with this ordinal (0 .. getMovieCount() - 1)
+    public Movie getMovieByOrdinal(int ordinal) {
+        return movies.get(ordinal);
     }
 
-    //getters for each index
+    public int getMovieCount() {
+        return movies.size();
+    }
+
+    //sorted ordinals of all movies with this value, or null if no movie has it.
+    //this is the index's own array, don't modify it
+    public int[] getPostings(Move.ConnectionType type, String value) {
+        int id = names.lookup(value);
+        int[][] lists = postings[type.ordinal()];
+        return id < 0 || id >= lists.length ? null : lists[id];
+    }
+
+    //sorted ordinals of the other movies that share at least one value of this type
+    //with the given movie ("which movies share an actor with this one")
+    public int[] getMoviesSharing(Movie movie, Move.ConnectionType type) {
+        List<int[]> lists = new ArrayList<>();
+        for (String value : movie.getConnections(type)) {
+            lists.add(getPostings(type, value));
+        }
+        int[] self = {movie.getOrdinal()};
+        return PostingLists.difference(PostingLists.unionAll(lists), self);
+    }
+
+    //getters for each index (read-only sets over the posting lists)
     public Set<Movie> getMovieByGenre(String genre) {
-        return genreIndex.get(genre);
+        return moviesFor(Move.ConnectionType.GENRE, genre);
     }
 
     public Set<Movie> getMovieByActor(String actor) {
-        return actorIndex.get(actor);
+        return moviesFor(Move.ConnectionType.ACTOR, actor);
     }
 
     public Set<Movie> getMovieByDirector(String director) {
-        return directorIndex.get(director);
+        return moviesFor(Move.ConnectionType.DIRECTOR, director);
     }
 
     public Set<Movie> getMovieByComposer(String composer) {
-        return composerIndex.get(composer);
+        return moviesFor(Move.ConnectionType.COMPOSER, composer);
     }
 
     public Set<Movie> getMovieByCines(String cines) {
-        return cinesIndex.get(cines);
+        return moviesFor(Move.ConnectionType.CINES, cines);
     }
 
     public Set<Movie> getMovieByWriter(String writer) {
-        return writerIndex.get(writer);
+        return moviesFor(Move.ConnectionType.WRITER, writer);
+    }
+
+    //same lookups, but just the (sorted) tmdb ids, empty if no movie has the value
+    public int[] getMovieIdsByGenre(String genre) {
+        return idsFor(Move.ConnectionType.GENRE, genre);
+    }
+
+    public int[] getMovieIdsByActor(String actor) {
+        return idsFor(Move.ConnectionType.ACTOR, actor);
+    }
+
+    public int[] getMovieIdsByDirector(String director) {
+        return idsFor(Move.ConnectionType.DIRECTOR, director);
+    }
+
+    public int[] getMovieIdsByComposer(String composer) {
+        return idsFor(Move.ConnectionType.COMPOSER, composer);
+    }
+
+    public int[] getMovieIdsByCines(String cines) {
+        return idsFor(Move.ConnectionType.CINES, cines);
+    }
+
+    public int[] getMovieIdsByWriter(String writer) {
+        return idsFor(Move.ConnectionType.WRITER, writer);
+    }
+
+    // null when the value isn't indexed, like the old HashMap indexes
+    private Set<Movie> moviesFor(Move.ConnectionType type, String value) {
+        int[] ordinals = getPostings(type, value);
+        return ordinals == null ? null : new PostingSet(ordinals);
+    }
+
+    private int[] idsFor(Move.ConnectionType type, String value) {
+        int[] ordinals = getPostings(type, value);
+        if (ordinals == null) {
+            return PostingLists.EMPTY;
+        }
+        int[] ids = new int[ordinals.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = getMovieByOrdinal(ordinals[i]).getId();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    //Set<Movie> view over a posting list, movies are looked up as we go
+    private class PostingSet extends AbstractSet<Movie> {
+        private final int[] ordinals;
+
+        PostingSet(int[] ordinals) {
+            this.ordinals = ordinals;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Movie)) {
+                return false;
+            }
+            int ordinal = ((Movie) o).getOrdinal();
+            return ordinal >= 0 && PostingLists.contains(ordinals, ordinal)
+                    && getMovieByOrdinal(ordinal).equals(o);
+        }
+
+        @Override
+        public Iterator<Movie> iterator() {
+            return new Iterator<Movie>() {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return i < ordinals.length;
+                }
+
+                @Override
+                public Movie next() {
+                    if (i >= ordinals.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return getMovieByOrdinal(ordinals[i++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ordinals.length;
+        }
     }
 
     public Set<Integer> getAllMovieIds() {
@@ -310,4 +620,86 @@ public class MovieDatabase {
         return moviesByTitle.get(title.toLowerCase());
     }
 
+    //the movie with this title, or else the one whose title is closest to it within
+    //maxDistance typos (see FuzzySearch). ties go to the movie with more votes.
+    //null if nothing is close enough
+    public Movie getClosestMovieByTitle(String title, int maxDistance) {
+        Movie exact = getMovieByTitle(title);
+        if (exact != null || title == null || title.isEmpty() || maxDistance <= 0) {
+            return exact;
+        }
+        FuzzySearch search = titleSearch();
+        int word = search.closest(title, maxDistance);
+        return word < 0 ? null : getMovieByTitle(search.trie().word(word));
+    }
+
+    //same, forgiving as many typos as FuzzySearch.defaultMaxDistance allows for
+    //a title this long
+    public Movie getClosestMovieByTitle(String title) {
+        int length = title == null ? 0 : title.trim().length();
+        return getClosestMovieByTitle(title, FuzzySearch.defaultMaxDistance(length));
+    }
+
+    //finds titles by any of their words or any piece of them (see TitleSearchIndex),
+    //most voted on first. built on first use like titleSearch, so call it once after
+    //loading to not pay for that on the first keystroke
+    public synchronized TitleSearchIndex getTitleIndex() {
+        int count = getMovieCount();
+        if (titleIndex == null || titleIndexCount != count) {
+            titleIndex = TitleSearchIndex.build(this);
+            titleIndexCount = count;
+        }
+        return titleIndex;
+    }
+
+    //shortest chains of moves between movies (see PathFinder). built on first use like
+    //the title index
+    public synchronized PathFinder getPathFinder() {
+        int count = getMovieCount();
+        if (pathFinder == null || pathFinderCount != count) {
+            pathFinder = PathFinder.build(this);
+            pathFinderCount = count;
+        }
+        return pathFinder;
+    }
+
+    //lower and upper bounds on the moves between two movies (see DistanceOracle), null
+    //without a movie graph. built on first use, or read from the snapshot
+    public synchronized DistanceOracle getDistanceOracle() {
+        if (graph == null) {
+            return null;
+        }
+        if (distanceOracle == null || distanceOracle.getMovieCount() != getMovieCount()) {
+            distanceOracle = DistanceOracle.build(graph, DistanceOracle.DEFAULT_LANDMARKS);
+        }
+        return distanceOracle;
+    }
+
+    //the one that was built already, or null
+    synchronized DistanceOracle builtDistanceOracle() {
+        return distanceOracle;
+    }
+
+    synchronized void setDistanceOracle(DistanceOracle distanceOracle) {
+        this.distanceOracle = distanceOracle;
+    }
+
+    //built on first use and again if movies were added since, synchronized because
+    //one database can serve several games at once
+    private synchronized FuzzySearch titleSearch() {
+        int count = getMovieCount();
+        if (titleSearch == null || titleSearchCount != count) {
+            List<String> titles = new ArrayList<>(count);
+            double[] votes = new double[count];
+            for (int i = 0; i < count; i++) {
+                Movie m = getMovieByOrdinal(i);
+                titles.add(m.getTitle());
+                votes[i] = m.getVoteCount();
+            }
+            titleSearch = new FuzzySearch(new CompactTrie(titles, votes, 0));
+            titleSearchCount = count;
+        }
+        return titleSearch;
+    }
+
 }
@@ -332,4 +332,57 @@ public class MovieDatabaseTest {
         assertEquals(19995, avatar.getId());
     }
 
+    @Test
+    public void testMovieIdsByActor() {
+        int[] ids = db.getMovieIdsByActor("Sam Worthington");
+        assertTrue("Avatar should be in the id list", Arrays.binarySearch(ids, 19995) >= 0);
+        assertEquals("id list and set should agree",
+                db.getMovieByActor("Sam Worthington").size(), ids.length);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue("ids should be sorted", ids[i - 1] < ids[i]);
+        }
+        assertEquals(0, db.getMovieIdsByActor("NonExistentActor12345").length);
+        assertTrue(Arrays.binarySearch(db.getMovieIdsByDirector("James Cameron"), 19995) >= 0);
+    }
+
+    @Test
+    public void testPostingsAreSortedOrdinals() {
+        Movie avatar = db.getMovieById(19995);
+        int[] action = db.getPostings(Move.ConnectionType.GENRE, "Action");
+        assertNotNull(action);
+        assertTrue(PostingLists.contains(action, avatar.getOrdinal()));
+        for (int i = 1; i < action.length; i++) {
+            assertTrue("postings should be sorted", action[i - 1] < action[i]);
+        }
+        assertSame(avatar, db.getMovieByOrdinal(avatar.getOrdinal()));
+        assertTrue(db.getMovieByGenre("Action").contains(avatar));
+    }
+
+    @Test
+    public void testMoviesSharing() {
+        Movie avatar = db.getMovieById(19995);
+        int[] shared = db.getMoviesSharing(avatar, Move.ConnectionType.ACTOR);
+        assertFalse("a movie doesn't share with itself",
+                PostingLists.contains(shared, avatar.getOrdinal()));
+        for (int ordinal : shared) {
+            Movie other = db.getMovieByOrdinal(ordinal);
+            boolean any = false;
+            for (String actor : avatar.getActors()) {
+                any |= other.hasConnection(Move.ConnectionType.ACTOR, actor);
+            }
+            assertTrue(other.getTitle() + " should share an actor with Avatar", any);
+        }
+    }
+
+    @Test
+    public void testGetClosestMovieByTitle() {
+        Movie avatar = db.getMovieById(19995);
+        assertEquals("Exact titles still work", avatar, db.getClosestMovieByTitle("avatar"));
+        assertEquals("One typo should be forgiven", avatar, db.getClosestMovieByTitle("Avatr"));
+        assertEquals("Swapped letters count as one typo", avatar,
+                db.getClosestMovieByTitle("Avaatr", 1));
+        assertNull("Too far off", db.getClosestMovieByTitle("Avxxxr", 2));
+        assertNull(db.getClosestMovieByTitle("Avatr", 0));
+        assertNull(db.getClosestMovieByTitle(""));
+    }
 }
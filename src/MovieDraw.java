@@ -0,0 +1,96 @@
+import java.util.Random;
+
+//draw-without-replacement over the numbers 0 .. size - 1 (movie ordinals), O(1) per draw.
+//
+//pool[0 .. remaining - 1] holds what hasn't been drawn yet in no particular order. a
+//draw picks a random slot in there, swaps it with the last unused slot and shrinks
+//`remaining`, so the drawn values pile up at the end of the array. position[] tracks
+//where every value sits, so a value can also be taken out by hand (markUsed) in O(1).
+//reset puts the pool back in its starting order (O(n)), so the same seed gives the
+//same draws after a reset too.
+public class MovieDraw {
+
+    private final int[] pool;
+    private final int[] position;
+    private int remaining;
+    private Random random;
+
+    public MovieDraw(int size, Random random) {
+        pool = new int[size];
+        position = new int[size];
+        this.random = random;
+        reset();
+    }
+
+    //a random value that hasn't been drawn or marked used yet, or -1 if none are left
+    public int draw() {
+        if (remaining == 0) {
+            return -1;
+        }
+        int value = pool[random.nextInt(remaining)];
+        markUsed(value);
+        return value;
+    }
+
+    //take a value out of the draw without drawing it, false if it was already out
+    public boolean markUsed(int value) {
+        int at = position[value];
+        if (at >= remaining) {
+            return false;
+        }
+        int last = remaining - 1;
+        swap(at, last);
+        remaining = last;
+        return true;
+    }
+
+    public boolean isUsed(int value) {
+        return position[value] >= remaining;
+    }
+
+    //how many values can still be drawn
+    public int remaining() {
+        return remaining;
+    }
+
+    public int size() {
+        return pool.length;
+    }
+
+    //where the draw is now, see rewind
+    public int mark() {
+        return remaining;
+    }
+
+    //put back everything drawn or marked used since mark() returned this (undo).
+    //drawn values only ever move to the end of the pool, so that is just the old count
+    public void rewind(int mark) {
+        if (mark < remaining || mark > pool.length) {
+            throw new IllegalArgumentException("draw was reset since the mark");
+        }
+        remaining = mark;
+    }
+
+    //put everything back
+    public void reset() {
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = i;
+            position[i] = i;
+        }
+        remaining = pool.length;
+    }
+
+    //e.g. a seeded Random so tests and simulations draw the same movies every run
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    private void swap(int i, int j) {
+        int a = pool[i];
+        int b = pool[j];
+        pool[i] = b;
+        pool[j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+}
@@ -0,0 +1,99 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class MovieDrawTest {
+
+    @Test
+    public void testDrawsEveryValueOnce() {
+        MovieDraw draw = new MovieDraw(100, new Random(1));
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            int v = draw.draw();
+            assertTrue("value out of range: " + v, v >= 0 && v < 100);
+            assertTrue("value drawn twice: " + v, seen.add(v));
+            assertTrue(draw.isUsed(v));
+        }
+        assertEquals(0, draw.remaining());
+        assertEquals("an empty draw gives -1", -1, draw.draw());
+    }
+
+    @Test
+    public void testReset() {
+        MovieDraw draw = new MovieDraw(10, new Random(2));
+        for (int i = 0; i < 10; i++) {
+            draw.draw();
+        }
+        draw.reset();
+        assertEquals(10, draw.remaining());
+        for (int i = 0; i < 10; i++) {
+            assertFalse(draw.isUsed(i));
+        }
+        assertNotEquals(-1, draw.draw());
+    }
+
+    @Test
+    public void testRewind() {
+        MovieDraw draw = new MovieDraw(10, new Random(4));
+        int first = draw.draw();
+        int mark = draw.mark();
+        int second = draw.draw();
+        draw.markUsed(draw.draw() == 0 ? 1 : 0);
+        draw.rewind(mark);
+        assertEquals(9, draw.remaining());
+        assertTrue("drawn before the mark", draw.isUsed(first));
+        assertFalse("drawn after the mark", draw.isUsed(second));
+        draw.reset();
+        try {
+            draw.rewind(mark);
+            fail("a reset draw can't go back to the mark");
+        } catch (IllegalArgumentException expected) {
+            // nothing to put back
+        }
+    }
+
+    @Test
+    public void testMarkUsed() {
+        MovieDraw draw = new MovieDraw(5, new Random(3));
+        assertTrue(draw.markUsed(2));
+        assertFalse("can't take a value out twice", draw.markUsed(2));
+        assertEquals(4, draw.remaining());
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals(2, draw.draw());
+        }
+    }
+
+    @Test
+    public void testSeededDrawsRepeat() {
+        MovieDraw a = new MovieDraw(50, new Random(42));
+        MovieDraw b = new MovieDraw(50, new Random(42));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(a.draw(), b.draw());
+        }
+    }
+
+    @Test
+    public void testDatabaseDraws() throws Exception {
+        MovieDatabase db = new MovieDatabase();
+        db.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        db.setRandom(new Random(7));
+        List<Integer> first = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            first.add(db.getRandomMovie().getId());
+        }
+        db.resetRandomMovies();
+        db.setRandom(new Random(7));
+        for (int i = 0; i < 20; i++) {
+            assertEquals("same seed, same movies", first.get(i),
+                    (Integer) db.getRandomMovie().getId());
+        }
+
+        db.resetRandomMovies();
+        Set<Integer> ids = new HashSet<>();
+        Movie m;
+        while ((m = db.getRandomMovie()) != null) {
+            assertTrue("movie drawn twice", ids.add(m.getId()));
+        }
+        assertEquals(db.getAllMovieIds(), ids);
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+//movie-to-movie adjacency graph in CSR form, built once at load time so checking a
+//guess is an edge lookup instead of comparing cast lists.
+//
+//vertices are movie ordinals (see MovieDatabase.addMovie). the edges leaving movie
+//`from` are edges offsets[from] .. offsets[from + 1] - 1, and edge e goes to
+//neighbors[e] through the name edgeValues[e] (an id in the database's NameDictionary) of connection
+//type edgeTypes[e]. there is an edge for every name two movies share, so a pair of
+//movies with the same director and two common actors has three edges.
+//
+//within a movie's range the edges are sorted by neighbor, then by connection type
+//(enum order), then by where the name sits in the neighbor's own list. that is the
+//order GameState.tryBuildMove used to try connections in, so it can just walk them.
+//genres are left out, they are not a valid connection (and would make this huge)
+public class MovieGraph {
+
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final byte[] edgeTypes;
+    private final int[] edgeValues;
+
+    private static final Move.ConnectionType[] TYPES = Move.ConnectionType.values();
+
+    MovieGraph(int[] offsets, int[] neighbors, byte[] edgeTypes, int[] edgeValues) {
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.edgeTypes = edgeTypes;
+        this.edgeValues = edgeValues;
+    }
+
+    //build the graph from the movies and posting lists of a loaded database
+    public static MovieGraph build(MovieDatabase db) {
+        int count = db.getMovieCount();
+        int[] offsets = new int[count + 1];
+        int[] neighbors = new int[Math.max(16, count * 8)];
+        byte[] types = new byte[neighbors.length];
+        int[] values = new int[neighbors.length];
+        int edges = 0;
+
+        // one sort key per edge of the current movie:
+        // neighbor << 32 | type << 24 | position of the name in the neighbor's list
+        long[] keys = new long[64];
+        for (int from = 0; from < count; from++) {
+            Movie movie = db.getMovieByOrdinal(from);
+            int n = 0;
+            for (Move.ConnectionType type : TYPES) {
+                if (type == Move.ConnectionType.GENRE) {
+                    continue;
+                }
+                for (String value : movie.getConnections(type)) {
+                    int[] others = db.getPostings(type, value);
+                    if (others == null) {
+                        continue;
+                    }
+                    int valueId = db.getNames().lookup(value);
+                    for (int to : others) {
+                        if (to == from) {
+                            continue;
+                        }
+                        int[] theirs = db.getMovieByOrdinal(to).getConnectionIds(type);
+                        int pos = indexOf(theirs, valueId);
+                        if (n == keys.length) {
+                            keys = Arrays.copyOf(keys, n * 2);
+                        }
+                        keys[n++] = (long) to << 32 | (long) type.ordinal() << 24 | pos;
+                    }
+                }
+            }
+            Arrays.sort(keys, 0, n);
+
+            if (edges + n > neighbors.length) {
+                int size = Math.max(neighbors.length * 2, edges + n);
+                neighbors = Arrays.copyOf(neighbors, size);
+                types = Arrays.copyOf(types, size);
+                values = Arrays.copyOf(values, size);
+            }
+            for (int i = 0; i < n; i++) {
+                // a name listed twice gives the same key twice, keep one edge
+                if (i > 0 && keys[i] == keys[i - 1]) {
+                    continue;
+                }
+                int to = (int) (keys[i] >>> 32);
+                int type = (int) (keys[i] >>> 24) & 0xFF;
+                int pos = (int) keys[i] & 0xFFFFFF;
+                neighbors[edges] = to;
+                types[edges] = (byte) type;
+                values[edges] = db.getMovieByOrdinal(to).getConnectionIds(TYPES[type])[pos];
+                edges++;
+            }
+            offsets[from + 1] = edges;
+        }
+        return new MovieGraph(offsets, Arrays.copyOf(neighbors, edges),
+                Arrays.copyOf(types, edges), Arrays.copyOf(values, edges));
+    }
+
+    private static int indexOf(int[] ids, int id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("posting list and movie disagree");
+    }
+
+    public int getMovieCount() {
+        return offsets.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return neighbors.length;
+    }
+
+    //first and one-past-last edge leaving this movie
+    public int edgeStart(int from) {
+        return offsets[from];
+    }
+
+    public int edgeEnd(int from) {
+        return offsets[from + 1];
+    }
+
+    public int neighbor(int edge) {
+        return neighbors[edge];
+    }
+
+    public Move.ConnectionType edgeType(int edge) {
+        return TYPES[edgeTypes[edge]];
+    }
+
+    //id of the shared name in the database's NameDictionary
+    public int edgeValue(int edge) {
+        return edgeValues[edge];
+    }
+
+    //first edge from -> to, or -1 if the movies share nothing. the other edges
+    //between them follow it directly (binary search, neighbors are sorted)
+    public int firstEdge(int from, int to) {
+        int lo = offsets[from];
+        int hi = offsets[from + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (neighbors[mid] < to) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo < offsets[from + 1] && neighbors[lo] == to ? lo : -1;
+    }
+
+    //one past the last edge of the run `edge` is in: the edges from a movie to one
+    //neighbor sit next to each other, so [edge, runEnd(from, edge)) are the ones left
+    //to that neighbor. walk a movie's neighbors with
+    //  for (int e = edgeStart(from); e < edgeEnd(from); e = runEnd(from, e))
+    public int runEnd(int from, int edge) {
+        int to = neighbors[edge];
+        int end = offsets[from + 1];
+        int e = edge + 1;
+        while (e < end && neighbors[e] == to) {
+            e++;
+        }
+        return e;
+    }
+
+    //do the two movies share this name
+    public boolean hasEdge(int from, int to, Move.ConnectionType type, int valueId) {
+        int e = firstEdge(from, to);
+        if (e < 0) {
+            return false;
+        }
+        for (int end = runEnd(from, e); e < end; e++) {
+            if (edgeTypes[e] == type.ordinal() && edgeValues[e] == valueId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //number of distinct movies connected to this one
+    public int degree(int from) {
+        int d = 0;
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (e == offsets[from] || neighbors[e] != neighbors[e - 1]) {
+                d++;
+            }
+        }
+        return d;
+    }
+
+    //the graph as part of a MovieSnapshot payload (value ids are written through the
+    //snapshot's own name table, see MovieSnapshot)
+    void write(DataOutputStream out, int[] valuePosition) throws IOException {
+        out.writeInt(getMovieCount());
+        out.writeInt(getEdgeCount());
+        for (int i = 1; i < offsets.length; i++) {
+            out.writeInt(offsets[i]);
+        }
+        for (int e = 0; e < neighbors.length; e++) {
+            out.writeInt(neighbors[e]);
+            out.writeByte(edgeTypes[e]);
+            out.writeInt(valuePosition[edgeValues[e]]);
+        }
+    }
+
+    static MovieGraph read(DataInputStream in, int[] dictId) throws IOException {
+        int count = in.readInt();
+        int edges = in.readInt();
+        int[] offsets = new int[count + 1];
+        for (int i = 1; i <= count; i++) {
+            offsets[i] = in.readInt();
+            if (offsets[i] < offsets[i - 1] || offsets[i] > edges) {
+                throw new IOException("bad graph offsets");
+            }
+        }
+        if (offsets[count] != edges) {
+            throw new IOException("bad graph offsets");
+        }
+        int[] neighbors = new int[edges];
+        byte[] types = new byte[edges];
+        int[] values = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            neighbors[e] = in.readInt();
+            types[e] = in.readByte();
+            values[e] = dictId[in.readInt()];
+            if (neighbors[e] < 0 || neighbors[e] >= count
+                    || types[e] < 0 || types[e] >= TYPES.length) {
+                throw new IOException("bad graph edge");
+            }
+        }
+        return new MovieGraph(offsets, neighbors, types, values);
+    }
+}
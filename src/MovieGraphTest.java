@@ -0,0 +1,134 @@
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class MovieGraphTest {
+    private static MovieDatabase db;
+    private static MovieGraph graph;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        db = new MovieDatabase();
+        db.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        graph = db.getGraph();
+    }
+
+    @Test
+    public void testBuiltByLoadAll() {
+        assertNotNull("loadAll should build the graph", graph);
+        assertEquals(db.getMovieCount(), graph.getMovieCount());
+        assertTrue(graph.getEdgeCount() > 0);
+    }
+
+    @Test
+    public void testEdgesMatchSharedNames() {
+        //checking every pair is quadratic, the first couple hundred movies will do
+        for (int from = 0; from < Math.min(200, db.getMovieCount()); from++) {
+            Movie a = db.getMovieByOrdinal(from);
+            //what comparing the cast lists directly gives, in tryBuildMove's order
+            List<String> expected = new ArrayList<>();
+            for (int to = 0; to < db.getMovieCount(); to++) {
+                if (to == from) {
+                    continue;
+                }
+                Movie b = db.getMovieByOrdinal(to);
+                for (Move.ConnectionType type : Move.ConnectionType.values()) {
+                    if (type == Move.ConnectionType.GENRE) {
+                        continue;
+                    }
+                    Set<String> seen = new HashSet<>();
+                    for (String value : b.getConnections(type)) {
+                        if (!value.isEmpty() && a.hasConnection(type, value) && seen.add(value)) {
+                            expected.add(to + " " + type + " " + value);
+                        }
+                    }
+                }
+            }
+            List<String> actual = new ArrayList<>();
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e++) {
+                actual.add(graph.neighbor(e) + " " + graph.edgeType(e) + " "
+                        + db.getNames().nameOf(graph.edgeValue(e)));
+            }
+            assertEquals("edges of " + a.getTitle(), expected, actual);
+        }
+    }
+
+    @Test
+    public void testEdgeLookup() {
+        Movie avatar = db.getMovieById(19995);
+        int from = avatar.getOrdinal();
+        int e = graph.edgeStart(from);
+        assertTrue("Avatar should share someone with another movie", e < graph.edgeEnd(from));
+        int to = graph.neighbor(e);
+        assertEquals(e, graph.firstEdge(from, to));
+        assertTrue(graph.hasEdge(from, to, graph.edgeType(e), graph.edgeValue(e)));
+        assertFalse(graph.hasEdge(from, to, Move.ConnectionType.GENRE, graph.edgeValue(e)));
+        assertEquals(-1, graph.firstEdge(from, from));
+        assertTrue(graph.degree(from) > 0);
+    }
+
+    @Test
+    public void testTryBuildMoveUsesGraph() {
+        WinCondition wc = new WinCondition(Move.ConnectionType.GENRE, "Western", 5);
+        Player p1 = new Player("a", wc);
+        Player p2 = new Player("b", new WinCondition(Move.ConnectionType.GENRE, "Western", 5));
+        Movie avatar = db.getMovieById(19995);
+        int to = graph.neighbor(graph.edgeStart(avatar.getOrdinal()));
+        Movie next = db.getMovieByOrdinal(to);
+
+        GameState state = new GameState(new MovieDatabase() {
+            @Override
+            public Movie getRandomMovie() {
+                return avatar;
+            }
+
+            @Override
+            public MovieGraph getGraph() {
+                return graph;
+            }
+
+            @Override
+            public Movie getMovieByOrdinal(int ordinal) {
+                return db.getMovieByOrdinal(ordinal);
+            }
+
+            @Override
+            public NameDictionary getNames() {
+                return db.getNames();
+            }
+        }, Arrays.asList(p1, p2));
+        state.initialGameState();
+        Optional<Move> move = state.tryBuildMove(p1, next);
+        assertTrue("movies joined by an edge should give a move", move.isPresent());
+        assertTrue(avatar.hasConnection(move.get().getConnectionType(),
+                move.get().getConnectionValue()));
+        assertTrue(next.hasConnection(move.get().getConnectionType(),
+                move.get().getConnectionValue()));
+    }
+
+    @Test
+    public void testSnapshotKeepsGraph() throws Exception {
+        Path dir = temp.newFolder("graph").toPath();
+        Path snapshot = dir.resolve("movies.snapshot");
+        MovieSnapshot.write(db, snapshot, null, null);
+        MovieDatabase copy = new MovieDatabase();
+        assertTrue(MovieSnapshot.read(snapshot, null, null, copy));
+        MovieGraph restored = copy.getGraph();
+        assertNotNull("snapshot should bring the graph back", restored);
+        assertEquals(graph.getEdgeCount(), restored.getEdgeCount());
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            assertEquals(graph.neighbor(e), restored.neighbor(e));
+            assertEquals(graph.edgeType(e), restored.edgeType(e));
+            // the snapshot comes back with a dictionary of its own
+            assertEquals(db.getNames().nameOf(graph.edgeValue(e)),
+                    copy.getNames().nameOf(restored.edgeValue(e)));
+        }
+    }
+}
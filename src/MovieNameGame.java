@@ -1,9 +1,19 @@
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class MovieNameGame {
     public static void main(String[] args) throws IOException {
+        // `--server [port]` hosts games over tcp instead of opening the window
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+            try (GameServer server = new GameServer(loadDatabase(), port)) {
+                server.serve();
+            }
+            return;
+        }
 
         // Set Lanterna to use Swing terminal
         System.setProperty("com.googlecode.lanterna.terminal" +
@@ -12,14 +22,14 @@ public class MovieNameGame {
 
         // initialize the database
         try {
-            MovieDatabase database = new MovieDatabase();
-            String moviesPath = "tmdb_5000_movies.csv";
-            String creditsPath = "tmdb_5000_credits.csv";
-            database.loadAll(moviesPath, creditsPath);
+            MovieDatabase database = loadDatabase();
 
             //show player name: : player 1;  player 2
+            // `--computer` puts the computer (SearchBot) in player 2's seat
+            // (anywhere on the command line, it combines with --latency)
+            boolean vsComputer = Arrays.asList(args).contains("--computer");
             String name1 = "Player 1";
-            String name2 = "Player 2";
+            String name2 = vsComputer ? "Computer" : "Player 2";
 
             // generate winCondition randomly: true - default genre;
             // false- get winCondition randomly
@@ -27,36 +37,45 @@ public class MovieNameGame {
             WinCondition wc2 = WinCondition.random(database,5,true);
 
             // build player list - based on player 1 and 2
-            Player p1 = new Player("Player 1", wc1);
-            Player p2 = new Player("Player 2", wc2);
+            Player p1 = new Player(name1, wc1);
+            Player p2 = new Player(name2, wc2);
             List<Player> players = new ArrayList<>();
             players.add(p1);
             players.add(p2);
 
 
             // create gameState
-            GameState gameState = new GameState(database, players);
+            // with a draw of its own, so !undo can put an escape's movie back
+            GameState gameState = new GameState(database, players,
+                    new MovieDraw(database.getMovieCount(), new Random()));
             gameState.initialGameState();
 
             // create UI
             GameUI ui = new GameUI(gameState);
+            // `--latency` prints how fast the suggestion box was when the game closes
+            ui.setPrintLatency(Arrays.asList(args).contains("--latency"));
 
-            // get all movie titles for autocomplete
-            List<String> allMovieTitles = new ArrayList<>();
+            // autocomplete over all movie titles, most popular (voted on) first
+            List<Movie> allMovies = new ArrayList<>();
             for (int id : database.getAllMovieIds()) {
                 Movie movie = database.getMovieById(id);
                 if (movie != null) {
-                    allMovieTitles.add(movie.getTitle());
+                    allMovies.add(movie);
                 }
             }
             // create and set autocomplete
-            Autocomplete autocomplete = new Autocomplete(allMovieTitles);
+            Autocomplete autocomplete = Autocomplete.byVoteCount(allMovies,
+                    Autocomplete.DEFAULT_TOP_K);
             ui.setAutocomplete(autocomplete);
+            ui.setTitleSearch(database.getTitleIndex());
 
             ui.showGameState(gameState);
 
             // create controller and start the game
             GameController controller = new GameController(gameState, ui);
+            if (vsComputer) {
+                controller.setBot(p2, new SearchBot());
+            }
 
             // Start the controller in a new thread
             new Thread(() -> {
@@ -75,4 +94,16 @@ public class MovieNameGame {
             e.printStackTrace();
         }
     }
+
+    private static MovieDatabase loadDatabase() throws IOException {
+        MovieDatabase database = new MovieDatabase();
+        // parse the csv files on all cores when there is no usable snapshot
+        database.setLoadParallelism(Runtime.getRuntime().availableProcessors());
+        String moviesPath = "tmdb_5000_movies.csv";
+        String creditsPath = "tmdb_5000_credits.csv";
+        // reuses the binary snapshot from the last launch when the csv files
+        // haven't changed since
+        database.loadAll(moviesPath, creditsPath, "tmdb_5000.snapshot");
+        return database;
+    }
 }
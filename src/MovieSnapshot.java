@@ -0,0 +1,261 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+//binary snapshot of a loaded MovieDatabase (movies + all connection indexes)
+//parsing the two tmdb csv files and all the JSON cells inside them is most of our
+//startup time, so after the first loadAll we dump everything into one file and read
+//that back on the next launch instead
+//
+//layout (all big-endian, DataOutputStream style):
+//  int magic, int version, long movies csv mtime, long credits csv mtime,
+//  int payload length, long crc32 of payload, payload bytes
+//payload:
+//  the names used by the movies (count, then the strings), referred to by their
+//  position in this table below
+//  int movie count, then per movie: id, title, year, vote count and per Move.ConnectionType
+//  (in enum order) a count followed by that many name positions
+//  then the posting lists, per Move.ConnectionType: entry count, then per entry
+//  the name position and the (sorted) ordinals of the movies with that name.
+//  movies are written in ordinal order, so reading them back in the same order
+//  gives them the same ordinals again
+//  then a boolean for whether there is a MovieGraph, and the graph (see
+//  MovieGraph.write, edge names are positions in the name table too)
+//  then a boolean for whether there is a DistanceOracle, and the oracle (see
+//  DistanceOracle.write)
+public class MovieSnapshot {
+
+    private static final int MAGIC = 0x4D564442; // "MVDB"
+    // bump this whenever the payload layout changes, old files are then ignored
+    static final int VERSION = 6;
+
+    private MovieSnapshot() {
+    }
+
+    //write the database to the given file, recording the csv mtimes so we can tell
+    //later if the snapshot went stale. we write to a temp file first so a crash
+    //never leaves a half written snapshot behind
+    public static void write(MovieDatabase db, Path snapshot, Path moviesCsv,
+                             Path creditsCsv) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        Collection<Movie> movies = db.getAllMovies();
+        NameDictionary names = db.getNames();
+
+        // dictionary ids differ from run to run, so the file gets its own name table
+        Map<Integer, Integer> position = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Movie m : movies) {
+            for (Move.ConnectionType type : Move.ConnectionType.values()) {
+                for (int id : m.getConnectionIds(type)) {
+                    if (!position.containsKey(id)) {
+                        position.put(id, table.size());
+                        table.add(names.nameOf(id));
+                    }
+                }
+            }
+        }
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            db.forEachPosting(type, (key, ordinals) -> {
+                int id = names.lookup(key);
+                if (!position.containsKey(id)) {
+                    position.put(id, table.size());
+                    table.add(key);
+                }
+            });
+        }
+        out.writeInt(table.size());
+        for (String name : table) {
+            out.writeUTF(name);
+        }
+
+        out.writeInt(movies.size());
+        for (Movie m : movies) {
+            out.writeInt(m.getId());
+            out.writeUTF(m.getTitle());
+            out.writeInt(m.getReleaseYear());
+            out.writeInt(m.getVoteCount());
+            for (Move.ConnectionType type : Move.ConnectionType.values()) {
+                int[] ids = m.getConnectionIds(type);
+                out.writeInt(ids.length);
+                for (int id : ids) {
+                    out.writeInt(position.get(id));
+                }
+            }
+        }
+
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            List<String> keys = new ArrayList<>();
+            List<int[]> lists = new ArrayList<>();
+            db.forEachPosting(type, (key, ordinals) -> {
+                keys.add(key);
+                lists.add(ordinals);
+            });
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                out.writeInt(position.get(names.lookup(keys.get(i))));
+                int[] ordinals = lists.get(i);
+                out.writeInt(ordinals.length);
+                for (int ordinal : ordinals) {
+                    out.writeInt(ordinal);
+                }
+            }
+        }
+        MovieGraph graph = db.getGraph();
+        out.writeBoolean(graph != null);
+        if (graph != null) {
+            int[] valuePosition = new int[names.size()];
+            for (Map.Entry<Integer, Integer> e : position.entrySet()) {
+                valuePosition[e.getKey()] = e.getValue();
+            }
+            graph.write(out, valuePosition);
+        }
+        DistanceOracle oracle = db.builtDistanceOracle();
+        out.writeBoolean(oracle != null);
+        if (oracle != null) {
+            oracle.write(out);
+        }
+        out.flush();
+        byte[] payload = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (DataOutputStream file = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.writeLong(mtime(moviesCsv));
+            file.writeLong(mtime(creditsCsv));
+            file.writeInt(payload.length);
+            file.writeLong(crc.getValue());
+            file.write(payload);
+        }
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    //try to fill the (empty) database from the snapshot
+    //returns false if there is no snapshot, it is from another version, it is
+    //older than the csv files, or the checksum does not match. in that case the
+    //database is left untouched and the caller should parse the csv files instead
+    public static boolean read(Path snapshot, Path moviesCsv, Path creditsCsv,
+                               MovieDatabase db) {
+        if (!Files.exists(snapshot)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            long moviesTime = in.readLong();
+            long creditsTime = in.readLong();
+            if (isStale(moviesCsv, moviesTime) || isStale(creditsCsv, creditsTime)) {
+                return false;
+            }
+            byte[] payload = new byte[in.readInt()];
+            long expectedCrc = in.readLong();
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != expectedCrc) {
+                return false;
+            }
+            readPayload(new DataInputStream(new ByteArrayInputStream(payload)), db);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // truncated or otherwise broken file, just fall back to the csv
+            return false;
+        }
+    }
+
+    //parse everything first and only then hand it to the database, so a bad
+    //payload can't leave it half filled
+    private static void readPayload(DataInputStream in, MovieDatabase db) throws IOException {
+        // name table -> ids in a dictionary of its own, which the database takes over
+        // once everything checks out
+        int nameCount = in.readInt();
+        if (nameCount < 0) {
+            throw new IOException("bad name count");
+        }
+        int[] dictId = new int[nameCount];
+        NameDictionary names = new NameDictionary(Math.max(16, nameCount));
+        for (int i = 0; i < nameCount; i++) {
+            dictId[i] = names.intern(in.readUTF());
+        }
+
+        int count = in.readInt();
+        List<Movie> movies = new ArrayList<>(count);
+        int types = Move.ConnectionType.values().length;
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            String title = in.readUTF();
+            int year = in.readInt();
+            int votes = in.readInt();
+            int[][] connections = new int[types][];
+            for (int t = 0; t < types; t++) {
+                int[] ids = new int[in.readInt()];
+                for (int k = 0; k < ids.length; k++) {
+                    ids[k] = dictId[in.readInt()];
+                }
+                connections[t] = ids;
+            }
+            Movie movie = new Movie(names, id, title, year, connections);
+            movie.setVoteCount(votes);
+            movies.add(movie);
+        }
+
+        int[][][] postings = new int[types][][];
+        for (int t = 0; t < types; t++) {
+            int entries = in.readInt();
+            int[][] lists = new int[names.size()][];
+            for (int i = 0; i < entries; i++) {
+                int name = dictId[in.readInt()];
+                int[] ordinals = new int[in.readInt()];
+                for (int j = 0; j < ordinals.length; j++) {
+                    ordinals[j] = in.readInt();
+                    if (ordinals[j] < 0 || ordinals[j] >= count) {
+                        throw new IOException("posting list refers to unknown movie");
+                    }
+                }
+                lists[name] = ordinals;
+            }
+            postings[t] = lists;
+        }
+
+        MovieGraph graph = in.readBoolean() ? MovieGraph.read(in, dictId) : null;
+        if (graph != null && graph.getMovieCount() != count) {
+            throw new IOException("graph doesn't match the movies");
+        }
+        DistanceOracle oracle = in.readBoolean() ? DistanceOracle.read(in) : null;
+        if (oracle != null && (graph == null || oracle.getMovieCount() != count)) {
+            throw new IOException("distance oracle doesn't match the movies");
+        }
+
+        db.setNames(names);
+        for (Movie m : movies) {
+            db.addMovie(m);
+        }
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            db.setPostings(type, postings[type.ordinal()]);
+        }
+        db.setGraph(graph);
+        db.setDistanceOracle(oracle);
+    }
+
+    //a snapshot is stale if the csv it was built from changed since
+    //(if the csv is not around at all we trust the snapshot)
+    private static boolean isStale(Path csv, long recordedTime) throws IOException {
+        return csv != null && Files.exists(csv) && mtime(csv) != recordedTime;
+    }
+
+    private static long mtime(Path p) throws IOException {
+        if (p == null || !Files.exists(p)) {
+            return 0L;
+        }
+        return Files.getLastModifiedTime(p).toMillis();
+    }
+}
@@ -0,0 +1,115 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class MovieSnapshotTest {
+    private MovieDatabase db;
+    private Path dir;
+    private Path snapshot;
+    private Path movies;
+    private Path credits;
+
+    //gets deleted after every test, with everything in it
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Before
+    public void setUp() throws Exception {
+        db = new MovieDatabase();
+        db.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+
+        //fake "csv" files so we can play with their mtimes
+        dir = temp.newFolder("snapshot").toPath();
+        snapshot = dir.resolve("movies.snapshot");
+        movies = Files.write(dir.resolve("movies.csv"), "movies".getBytes());
+        credits = Files.write(dir.resolve("credits.csv"), "credits".getBytes());
+        MovieSnapshot.write(db, snapshot, movies, credits);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        MovieDatabase copy = new MovieDatabase();
+        assertTrue("Fresh snapshot should load",
+                MovieSnapshot.read(snapshot, movies, credits, copy));
+
+        assertEquals(db.getAllMovieIds(), copy.getAllMovieIds());
+        Movie avatar = copy.getMovieById(19995);
+        assertEquals("Avatar", avatar.getTitle());
+        assertEquals(2009, avatar.getReleaseYear());
+        assertEquals(db.getMovieById(19995).getVoteCount(), avatar.getVoteCount());
+        assertEquals("James Cameron", avatar.getDirector());
+        assertEquals("James Horner", avatar.getComposer());
+        assertEquals(db.getMovieById(19995).getActors(), avatar.getActors());
+        assertEquals(db.getMovieById(19995).getGenres(), avatar.getGenres());
+        assertEquals(avatar, copy.getMovieByTitle("avatar"));
+        assertEquals(db.searchByTitlePrefix("Pirate"), copy.searchByTitlePrefix("Pirate"));
+    }
+
+    @Test
+    public void testIndexesRestored() {
+        MovieDatabase copy = new MovieDatabase();
+        MovieSnapshot.read(snapshot, movies, credits, copy);
+
+        Set<Movie> sam = copy.getMovieByActor("Sam Worthington");
+        assertNotNull(sam);
+        assertEquals(db.getMovieByActor("Sam Worthington").size(), sam.size());
+        assertTrue(sam.contains(copy.getMovieById(19995)));
+        assertEquals(db.getMovieByGenre("Action").size(),
+                copy.getMovieByGenre("Action").size());
+        assertEquals(db.getMovieByCines("Mauro Fiore").size(),
+                copy.getMovieByCines("Mauro Fiore").size());
+        assertNull(copy.getMovieByDirector("NonExistentDirector1357"));
+    }
+
+    @Test
+    public void testStaleSnapshotIgnored() throws IOException {
+        //pretend the credits csv was edited after the snapshot was written
+        Files.setLastModifiedTime(credits,
+                FileTime.fromMillis(Files.getLastModifiedTime(credits).toMillis() + 5000));
+        MovieDatabase copy = new MovieDatabase();
+        assertFalse("Snapshot older than the csv should be ignored",
+                MovieSnapshot.read(snapshot, movies, credits, copy));
+        assertTrue(copy.getAllMovieIds().isEmpty());
+    }
+
+    @Test
+    public void testCorruptSnapshotIgnored() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 10] ^= 0x55;
+        Files.write(snapshot, bytes);
+        MovieDatabase copy = new MovieDatabase();
+        assertFalse("Checksum mismatch should be detected",
+                MovieSnapshot.read(snapshot, movies, credits, copy));
+        assertTrue(copy.getAllMovieIds().isEmpty());
+    }
+
+    @Test
+    public void testMissingSnapshot() {
+        assertFalse(MovieSnapshot.read(dir.resolve("nope.snapshot"), movies, credits,
+                new MovieDatabase()));
+    }
+
+    @Test
+    public void testLoadAllWritesThenUsesSnapshot() throws IOException {
+        String name = "test_" + System.nanoTime() + ".snapshot";
+        MovieDatabase first = new MovieDatabase();
+        assertFalse("First load has to parse the csv",
+                first.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv", name));
+        MovieDatabase second = new MovieDatabase();
+        try {
+            assertTrue("Second load should come from the snapshot",
+                    second.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv", name));
+            assertEquals(first.getAllMovieIds(), second.getAllMovieIds());
+            assertNotNull(second.getMovieByDirector("James Cameron"));
+        } finally {
+            Files.deleteIfExists(Paths.get(name));
+            Files.deleteIfExists(Paths.get("src", name));
+        }
+    }
+}
@@ -28,6 +28,7 @@ public class MovieTest {
         assertEquals("Avatar ID should be 19995", 19995, avatar.getId());
         assertEquals("Avatar title should be correct","Avatar", avatar.getTitle());
         assertEquals("Avatar year should be 2009", 2009, avatar.getReleaseYear());
+        assertEquals("Avatar vote count should be read", 11800, avatar.getVoteCount());
 
         assertEquals("Pirates ID should be 285", 285, pirates.getId());
         assertEquals("Pirates title should be correct", "Pirates of the Caribbean: At World's End",
@@ -0,0 +1,101 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+//dictionary encoding for person and genre names: every distinct name gets a small
+//int id, and Movie keeps int[] ids instead of List<String>. the same actor shows up
+//in dozens of movies (and used to be a new String in each), now it's one String here
+//plus 4 bytes per movie, and comparing names is comparing ints.
+//
+//every catalog has its own (see MovieDatabase.getNames), so ids are only comparable
+//between movies of the same database, and anything sized by id is sized by that
+//catalog's names. a movie built by hand keeps a little one of its own until it is
+//added to a database (see Movie.getNames). it only ever grows, and interning is
+//safe from several loader threads at once
+public class NameDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids;
+    // id -> name, replaced by a bigger copy when full
+    private volatile String[] names;
+    private int size = 0;
+
+    public NameDictionary() {
+        this(1024);
+    }
+
+    //room for about this many names before it grows
+    public NameDictionary(int capacity) {
+        ids = new ConcurrentHashMap<>(capacity);
+        names = new String[Math.max(1, capacity)];
+    }
+
+    //id for the name, adding it if we haven't seen it before
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] arr = names;
+            if (size == arr.length) {
+                arr = Arrays.copyOf(arr, size * 2);
+            }
+            arr[size] = name;
+            names = arr;
+            // only publish the id once the name is in the array
+            ids.put(name, size);
+            return size++;
+        }
+    }
+
+    //id for the name, or -1 if no movie has it (doesn't add anything)
+    public int lookup(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    //the name behind an id (the reverse dictionary, for display)
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    //how many names we have (ids are 0 .. size() - 1)
+    public int size() {
+        return ids.size();
+    }
+
+    //intern every name of a list
+    public int[] encode(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return new int[0];
+        }
+        int[] out = new int[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = intern(values.get(i));
+        }
+        return out;
+    }
+
+    //read-only List<String> view over an array of ids (nothing is copied)
+    public List<String> decode(int[] values) {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                return nameOf(values[i]);
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
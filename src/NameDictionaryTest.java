@@ -0,0 +1,107 @@
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.Assert.*;
+
+public class NameDictionaryTest {
+
+    @Test
+    public void testInternIsStable() {
+        NameDictionary dict = new NameDictionary();
+        int a = dict.intern("Sam Worthington");
+        int b = dict.intern("Zoe Saldana");
+        assertNotEquals("different names get different ids", a, b);
+        assertEquals("same name gets the same id", a, dict.intern("Sam Worthington"));
+        assertEquals("Sam Worthington", dict.nameOf(a));
+        assertEquals(2, dict.size());
+    }
+
+    @Test
+    public void testLookupDoesNotAdd() {
+        NameDictionary dict = new NameDictionary();
+        assertEquals(-1, dict.lookup("Nobody"));
+        assertEquals(-1, dict.lookup(null));
+        assertEquals(0, dict.size());
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        NameDictionary dict = new NameDictionary();
+        List<String> names = Arrays.asList("Action", "Adventure", "Action");
+        int[] ids = dict.encode(names);
+        assertEquals(3, ids.length);
+        assertEquals(ids[0], ids[2]);
+        assertEquals(names, dict.decode(ids));
+        assertEquals(0, dict.encode(null).length);
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        NameDictionary dict = new NameDictionary();
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, dict.intern("name" + i));
+        }
+        assertEquals("name4321", dict.nameOf(4321));
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        NameDictionary dict = new NameDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            results.add(pool.submit(() -> {
+                int[] ids = new int[2000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = dict.intern("actor" + i);
+                }
+                return ids;
+            }));
+        }
+        int[] first = results.get(0).get();
+        for (Future<int[]> f : results) {
+            assertArrayEquals("every thread sees the same ids", first, f.get());
+        }
+        pool.shutdown();
+        assertEquals(2000, dict.size());
+        for (int i = 0; i < first.length; i++) {
+            assertEquals("actor" + i, dict.nameOf(first[i]));
+        }
+    }
+
+    @Test
+    public void testMovieUsesItsDictionaryIds() {
+        Movie m = new Movie(1, "Avatar", 2009, "James Cameron", "",
+                Arrays.asList("Sam Worthington"), new ArrayList<>(),
+                new ArrayList<>(), Arrays.asList("Action"));
+        int id = m.getNames().lookup("Sam Worthington");
+        assertTrue(m.hasConnection(Move.ConnectionType.ACTOR, id));
+        assertArrayEquals(new int[] {id}, m.getConnectionIds(Move.ConnectionType.ACTOR));
+        assertEquals("no composer means no ids", 0,
+                m.getConnectionIds(Move.ConnectionType.COMPOSER).length);
+        assertEquals("", m.getComposer());
+        assertFalse(m.hasConnection(Move.ConnectionType.ACTOR, "Never Interned Person"));
+    }
+
+    @Test
+    public void testEveryDatabaseHasItsOwnNames() {
+        MovieDatabase one = new MovieDatabase();
+        MovieDatabase two = new MovieDatabase();
+        Movie a = new Movie(1, "A", 2000, "", "", Arrays.asList("Only In One"),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Movie b = new Movie(2, "B", 2000, "", "", Arrays.asList("Both", "Only In Two"),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        one.addMovie(a);
+        two.addMovie(b);
+
+        assertSame("added movies move to the database's names", one.getNames(), a.getNames());
+        assertEquals(1, one.getNames().size());
+        assertEquals(2, two.getNames().size());
+        assertEquals(-1, one.getNames().lookup("Only In Two"));
+        int id = two.getNames().lookup("Only In Two");
+        assertArrayEquals(new int[] {two.getNames().lookup("Both"), id},
+                b.getConnectionIds(Move.ConnectionType.ACTOR));
+        assertTrue(b.hasConnection(Move.ConnectionType.ACTOR, "Only In Two"));
+        assertEquals(Arrays.asList("Both", "Only In Two"), b.getActors());
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+//pipelined version of MovieDatabase.loadAll
+//  reader stage: one thread per csv splits it into batches of records
+//  worker stage: a pool of `parallelism` threads parses the JSON cells of each batch
+//  merge stage:  the calling thread adds movies / attaches credits batch by batch
+//                in file order, then the six indexes get built on separate threads
+//the movies and credits files are read at the same time, only the credits merge
+//has to wait for all the movies. merging in file order is what keeps the result
+//identical to the sequential load (e.g. which movie wins for a repeated title)
+public class ParallelMovieLoader {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final MovieDatabase db;
+    private final int parallelism;
+
+    public ParallelMovieLoader(MovieDatabase db, int parallelism) {
+        this.db = db;
+        this.parallelism = parallelism;
+    }
+
+    public void load(String moviesCsvFile, String creditsCsvFile) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            BlockingQueue<Future<List<Movie>>> movieBatches = new LinkedBlockingQueue<>();
+            BlockingQueue<Future<List<Movie>>> creditBatches = new LinkedBlockingQueue<>();
+            Future<?> moviesRead = readers.submit(() ->
+                    read(moviesCsvFile, workers, movieBatches, true));
+            Future<?> creditsRead = readers.submit(() ->
+                    read(creditsCsvFile, workers, creditBatches, false));
+
+            merge(movieBatches, moviesRead, db::addMovie);
+            merge(creditBatches, creditsRead, db::attachCredits);
+
+            List<Callable<Void>> indexJobs = new ArrayList<>();
+            for (Move.ConnectionType type : Move.ConnectionType.values()) {
+                indexJobs.add(() -> {
+                    db.buildIndex(type);
+                    return null;
+                });
+            }
+            for (Future<Void> f : workers.invokeAll(indexJobs)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            workers.shutdownNow();
+            readers.shutdownNow();
+        }
+    }
+
+    //reader stage: hand batches of records to the workers, in order.
+    //an empty list marks the end (also when reading failed, see merge)
+    private Void read(String file, ExecutorService workers,
+                      BlockingQueue<Future<List<Movie>>> out, boolean movies) throws IOException {
+        try (
+                Reader in = Files.newBufferedReader(MovieDatabase.resolve(file));
+                CSVParser parser = new CSVParser(in, CSVFormat.DEFAULT.builder()
+                        .setHeader().setSkipHeaderRecord(true).build())
+        ) {
+            List<CSVRecord> batch = new ArrayList<>(BATCH_SIZE);
+            for (CSVRecord rec : parser) {
+                batch.add(rec);
+                if (batch.size() == BATCH_SIZE) {
+                    out.add(workers.submit(parseTask(batch, movies)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                out.add(workers.submit(parseTask(batch, movies)));
+            }
+        } finally {
+            out.add(CompletableFuture.completedFuture(new ArrayList<>()));
+        }
+        return null;
+    }
+
+    //worker stage: parse every record of a batch
+    private Callable<List<Movie>> parseTask(List<CSVRecord> batch, boolean movies) {
+        return () -> {
+            List<Movie> parsed = new ArrayList<>(batch.size());
+            for (CSVRecord rec : batch) {
+                parsed.add(movies ? db.parseMovie(rec) : db.parseCredits(rec));
+            }
+            return parsed;
+        };
+    }
+
+    //merge stage: apply every parsed batch, in order, as soon as it is ready
+    private void merge(BlockingQueue<Future<List<Movie>>> batches, Future<?> reader,
+                       Consumer<Movie> apply) throws InterruptedException, ExecutionException {
+        while (true) {
+            List<Movie> batch = batches.take().get();
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(apply);
+        }
+        // rethrows whatever stopped the reader early
+        reader.get();
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IOException(cause);
+    }
+}
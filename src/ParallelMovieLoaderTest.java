@@ -0,0 +1,73 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class ParallelMovieLoaderTest {
+    private static MovieDatabase sequential;
+    private static MovieDatabase parallel;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        sequential = new MovieDatabase();
+        sequential.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        parallel = new MovieDatabase();
+        parallel.setLoadParallelism(4);
+        parallel.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+    }
+
+    @Test
+    public void testSameMovies() {
+        assertEquals(sequential.getAllMovieIds(), parallel.getAllMovieIds());
+        for (int id : sequential.getAllMovieIds()) {
+            Movie s = sequential.getMovieById(id);
+            Movie p = parallel.getMovieById(id);
+            assertEquals(s.getTitle(), p.getTitle());
+            assertEquals(s.getReleaseYear(), p.getReleaseYear());
+            assertEquals(s.getGenres(), p.getGenres());
+            assertEquals(s.getActors(), p.getActors());
+            assertEquals(s.getDirector(), p.getDirector());
+            assertEquals(s.getComposer(), p.getComposer());
+            assertEquals(s.getWriters(), p.getWriters());
+            assertEquals(s.getCines(), p.getCines());
+            //repeated titles have to resolve to the same movie too
+            assertEquals(sequential.getMovieByTitle(s.getTitle()).getId(),
+                    parallel.getMovieByTitle(s.getTitle()).getId());
+        }
+    }
+
+    @Test
+    public void testSameIndexes() {
+        for (Move.ConnectionType type : Move.ConnectionType.values()) {
+            Map<String, int[]> s = new HashMap<>();
+            Map<String, int[]> p = new HashMap<>();
+            sequential.forEachPosting(type, s::put);
+            parallel.forEachPosting(type, p::put);
+            assertEquals(type + " keys", s.keySet(), p.keySet());
+            for (String key : s.keySet()) {
+                //same load order, so even the ordinals have to match
+                assertArrayEquals(type + " " + key, s.get(key), p.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void testSamePrefixSearch() {
+        for (String prefix : Arrays.asList("a", "The", "Pirate", "st", "x")) {
+            assertEquals(sequential.searchByTitlePrefix(prefix),
+                    parallel.searchByTitlePrefix(prefix));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadParallelism() {
+        new MovieDatabase().setLoadParallelism(0);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testMissingFile() throws Exception {
+        MovieDatabase db = new MovieDatabase();
+        db.setLoadParallelism(2);
+        db.loadAll("no_such_movies.csv", "tmdb_5000_credits.csv");
+    }
+}
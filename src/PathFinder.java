@@ -0,0 +1,471 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//shortest chains of movies between two movies ("get from Alien to Up in 4 moves"),
+//for the puzzle mode and for checking a win condition can still be reached.
+//
+//searches the movie/person graph instead of MovieGraph: a node per movie and a node
+//per credited name (type + NameDictionary id, like "ACTOR: Sigourney Weaver"), and an
+//edge between a movie and every name it has. a chain of n moves is a path of 2n edges
+//there, and a name only gets visited once however many movies it has, so the huge
+//filmographies that make MovieGraph quadratic cost a pass over one posting list.
+//names with a single movie can't link anything and are left out, genres too.
+//
+//the search is a bidirectional BFS: a frontier grows from each end one level at a time,
+//always the smaller one, until they touch. that visits a tiny part of a big catalog
+//compared to searching from one end. everything is in flat int arrays built once (CSR,
+//movies first, then names), and every thread has its own marks, parents and queue that
+//are never cleared, a query only bumps a stamp. a shortest chain never uses a name
+//twice, so it never breaks GameState.MAX_CONNECTION_USES either
+public class PathFinder {
+
+    //no limit on the number of moves
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // queries per ForkJoin leaf in findAll
+    private static final int QUERIES_PER_TASK = 64;
+
+    private static final Move.ConnectionType[] TYPES = Move.ConnectionType.values();
+    private static final int ALL_TYPES = (1 << TYPES.length) - 1
+            & ~(1 << Move.ConnectionType.GENRE.ordinal());
+
+    private final int movieCount;
+    // node v's neighbors are adjacent[offsets[v]] .. adjacent[offsets[v + 1] - 1]. nodes
+    // below movieCount are movie ordinals, name node v is name v - movieCount
+    private final int[] offsets;
+    private final int[] adjacent;
+    private final byte[] nameTypes;
+    private final int[] nameValues;
+    // the database's names, for Path.getValue
+    private final NameDictionary names;
+    private int parallelism = 0;
+    private final ThreadLocal<Search> searches;
+
+    private PathFinder(int movieCount, int[] offsets, int[] adjacent, byte[] nameTypes,
+                       int[] nameValues, NameDictionary names) {
+        this.movieCount = movieCount;
+        this.offsets = offsets;
+        this.adjacent = adjacent;
+        this.nameTypes = nameTypes;
+        this.nameValues = nameValues;
+        this.names = names;
+        int nodes = offsets.length - 1;
+        this.searches = ThreadLocal.withInitial(() -> new Search(nodes));
+    }
+
+    //build the graph from the movies of a database (a few passes over all credits)
+    public static PathFinder build(MovieDatabase db) {
+        int count = db.getMovieCount();
+        int names = db.getNames().size();
+
+        // how many movies every name has, per connection type
+        int[][] node = new int[TYPES.length][];
+        for (int m = 0; m < count; m++) {
+            Movie movie = db.getMovieByOrdinal(m);
+            for (Move.ConnectionType type : TYPES) {
+                if (type == Move.ConnectionType.GENRE) {
+                    continue;
+                }
+                int[] ids = movie.getConnectionIds(type);
+                if (ids.length > 0 && node[type.ordinal()] == null) {
+                    node[type.ordinal()] = new int[names];
+                }
+                for (int id : ids) {
+                    node[type.ordinal()][id]++;
+                }
+            }
+        }
+
+        // names with two movies or more become nodes, the counts turn into node ids
+        // (-1 for the rest)
+        int nameCount = 0;
+        for (int[] counts : node) {
+            for (int i = 0; counts != null && i < counts.length; i++) {
+                if (counts[i] >= 2) {
+                    nameCount++;
+                }
+            }
+        }
+        int[] offsets = new int[count + nameCount + 1];
+        byte[] nameTypes = new byte[nameCount];
+        int[] nameValues = new int[nameCount];
+        int n = 0;
+        for (int t = 0; t < TYPES.length; t++) {
+            int[] counts = node[t];
+            for (int i = 0; counts != null && i < counts.length; i++) {
+                if (counts[i] >= 2) {
+                    offsets[count + n + 1] = counts[i];
+                    nameTypes[n] = (byte) t;
+                    nameValues[n] = i;
+                    counts[i] = count + n++;
+                } else {
+                    counts[i] = -1;
+                }
+            }
+        }
+
+        // movie degrees, then offsets from all the degrees
+        for (int m = 0; m < count; m++) {
+            offsets[m + 1] = names(db.getMovieByOrdinal(m), node, null, 0);
+        }
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // movies in ordinal order, so every name's movies come out sorted
+        int[] adjacent = new int[offsets[offsets.length - 1]];
+        int[] fill = new int[nameCount];
+        for (int m = 0; m < count; m++) {
+            int from = offsets[m];
+            int to = from + names(db.getMovieByOrdinal(m), node, adjacent, from);
+            for (int e = from; e < to; e++) {
+                int name = adjacent[e] - count;
+                adjacent[offsets[count + name] + fill[name]++] = m;
+            }
+        }
+        return new PathFinder(count, offsets, adjacent, nameTypes, nameValues,
+                db.getNames());
+    }
+
+    //the name nodes of a movie, written to out from `at` unless out is null. returns
+    //how many there are
+    private static int names(Movie movie, int[][] node, int[] out, int at) {
+        int n = 0;
+        for (Move.ConnectionType type : TYPES) {
+            int[] ids = node[type.ordinal()];
+            if (ids == null) {
+                continue;
+            }
+            for (int id : movie.getConnectionIds(type)) {
+                if (ids[id] >= 0) {
+                    if (out != null) {
+                        out[at + n] = ids[id];
+                    }
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    //names that link two movies or more
+    public int getNameCount() {
+        return nameTypes.length;
+    }
+
+    //worker threads for findAll, 0 (the default) means the common ForkJoin pool
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    //a shortest chain between two movies over any connection, null if there is none
+    public Path find(Movie from, Movie to) {
+        return find(from.getOrdinal(), to.getOrdinal(), null, null, UNLIMITED);
+    }
+
+    //a shortest chain from one movie ordinal to another that only goes through the
+    //given connection types (null for all of them), never through an excluded movie
+    //(null for none, the two ends always count as allowed) and is at most maxSteps
+    //moves long. null if there is no such chain
+    public Path find(int from, int to, Set<Move.ConnectionType> types, BitSet excluded,
+                     int maxSteps) {
+        return searches.get().run(from, new int[] {to}, mask(types), excluded, maxSteps);
+    }
+
+    //same, to whichever of the targets is closest. with the movies that have a win
+    //condition's value as targets and the used movies excluded, that's how far a
+    //player is from the next movie that counts
+    public Path findNearest(int from, int[] targets, Set<Move.ConnectionType> types,
+                            BitSet excluded, int maxSteps) {
+        return searches.get().run(from, targets, mask(types), excluded, maxSteps);
+    }
+
+    //moves in a shortest chain, -1 if there is none
+    public int distance(int from, int to) {
+        Path path = find(from, to, null, null, UNLIMITED);
+        return path == null ? -1 : path.length();
+    }
+
+    //find(from[i], to[i], ...) for every i, spread over the worker threads. the
+    //answers are the same as one by one, only quicker
+    public Path[] findAll(int[] from, int[] to, Set<Move.ConnectionType> types,
+                          BitSet excluded, int maxSteps) {
+        if (from.length != to.length) {
+            throw new IllegalArgumentException("from and to differ in length");
+        }
+        Path[] paths = new Path[from.length];
+        Batch task = new Batch(from, to, mask(types), excluded, maxSteps, paths, 0,
+                from.length);
+        if (parallelism <= 0) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        return paths;
+    }
+
+    private static int mask(Set<Move.ConnectionType> types) {
+        if (types == null) {
+            return ALL_TYPES;
+        }
+        int mask = 0;
+        for (Move.ConnectionType type : types) {
+            mask |= 1 << type.ordinal();
+        }
+        return mask & ALL_TYPES;
+    }
+
+    //queries [lo, hi) of a findAll, split in half until they're small enough
+    private final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] from;
+        private final int[] to;
+        private final int mask;
+        private final BitSet excluded;
+        private final int maxSteps;
+        private final Path[] paths;
+        private final int lo;
+        private final int hi;
+
+        Batch(int[] from, int[] to, int mask, BitSet excluded, int maxSteps, Path[] paths,
+              int lo, int hi) {
+            this.from = from;
+            this.to = to;
+            this.mask = mask;
+            this.excluded = excluded;
+            this.maxSteps = maxSteps;
+            this.paths = paths;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= QUERIES_PER_TASK) {
+                Search search = searches.get();
+                int[] target = new int[1];
+                for (int i = lo; i < hi; i++) {
+                    target[0] = to[i];
+                    paths[i] = search.run(from[i], target, mask, excluded, maxSteps);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Batch(from, to, mask, excluded, maxSteps, paths, lo, mid),
+                    new Batch(from, to, mask, excluded, maxSteps, paths, mid, hi));
+        }
+    }
+
+    //one thread's scratch space. mark[v] says which side has seen node v in the
+    //current query (stamp for the start side, stamp + 1 for the target side, anything
+    //else for neither), parent[v] is the node it was reached from. the start side
+    //queues from the front of queue, the target side from the back: they never see the
+    //same node (the search stops when they would), so they fit in one array
+    private final class Search {
+        private final int[] mark;
+        private final int[] parent;
+        private final int[] queue;
+        private int stamp;
+        // frontier of each side is queue[head[side]] up to (not including) tail[side],
+        // going up for side 0 and down for side 1
+        private final int[] head = new int[2];
+        private final int[] tail = new int[2];
+        // the edge the two sides met over, meetFrom on side meetSide
+        private int meetFrom;
+        private int meetTo;
+        private int meetSide;
+
+        Search(int nodes) {
+            mark = new int[nodes];
+            parent = new int[nodes];
+            queue = new int[nodes];
+        }
+
+        Path run(int from, int[] targets, int mask, BitSet excluded, int maxSteps) {
+            checkMovie(from);
+            for (int t : targets) {
+                checkMovie(t);
+                if (t == from) {
+                    return new Path(new int[] {from}, new byte[0], new int[0], names);
+                }
+            }
+            if (targets.length == 0) {
+                return null;
+            }
+            if (stamp >= Integer.MAX_VALUE - 2) {
+                // after two billion queries, start over rather than wrap
+                Arrays.fill(mark, 0);
+                stamp = 0;
+            }
+            stamp += 2;
+            head[0] = 0;
+            tail[0] = 0;
+            head[1] = queue.length - 1;
+            tail[1] = queue.length - 1;
+            add(0, from, -1);
+            for (int t : targets) {
+                if (mark[t] != stamp + 1) {
+                    add(1, t, -1);
+                }
+            }
+
+            // every level is one more edge of the path, a move is two
+            for (long levels = 0; levels < 2L * maxSteps; levels++) {
+                int size0 = tail[0] - head[0];
+                int size1 = head[1] - tail[1];
+                if (size0 == 0 || size1 == 0) {
+                    return null;
+                }
+                if (expand(size0 <= size1 ? 0 : 1, mask, excluded)) {
+                    return path();
+                }
+            }
+            return null;
+        }
+
+        private void checkMovie(int ordinal) {
+            if (ordinal < 0 || ordinal >= movieCount) {
+                throw new IllegalArgumentException("no movie with ordinal " + ordinal);
+            }
+        }
+
+        private void add(int side, int v, int from) {
+            mark[v] = stamp + side;
+            parent[v] = from;
+            queue[tail[side]] = v;
+            tail[side] += side == 0 ? 1 : -1;
+        }
+
+        //one level of side's frontier. true once it touches the other side. the first
+        //touch is a shortest path: every node the other side has seen before its
+        //current frontier was expanded already, so touching it would have happened a
+        //level earlier
+        private boolean expand(int side, int mask, BitSet excluded) {
+            int step = side == 0 ? 1 : -1;
+            int mine = stamp + side;
+            int theirs = stamp + 1 - side;
+            int end = tail[side];
+            for (int i = head[side]; i != end; i += step) {
+                int v = queue[i];
+                for (int e = offsets[v], last = offsets[v + 1]; e < last; e++) {
+                    int u = adjacent[e];
+                    int m = mark[u];
+                    if (m == mine) {
+                        continue;
+                    }
+                    if (u >= movieCount) {
+                        if ((mask & 1 << nameTypes[u - movieCount]) == 0) {
+                            continue;
+                        }
+                    } else if (m != theirs && excluded != null && excluded.get(u)) {
+                        continue;
+                    }
+                    if (m == theirs) {
+                        meetFrom = v;
+                        meetTo = u;
+                        meetSide = side;
+                        return true;
+                    }
+                    add(side, u, v);
+                }
+            }
+            head[side] = end;
+            return false;
+        }
+
+        //the nodes from start to target through the meeting edge, as a Path
+        private Path path() {
+            int start = meetSide == 0 ? meetFrom : meetTo;
+            int target = meetSide == 0 ? meetTo : meetFrom;
+            int before = 0;
+            for (int v = start; v >= 0; v = parent[v]) {
+                before++;
+            }
+            int after = 0;
+            for (int v = target; v >= 0; v = parent[v]) {
+                after++;
+            }
+            int[] nodes = new int[before + after];
+            int i = before;
+            for (int v = start; v >= 0; v = parent[v]) {
+                nodes[--i] = v;
+            }
+            i = before;
+            for (int v = target; v >= 0; v = parent[v]) {
+                nodes[i++] = v;
+            }
+
+            // movies and names take turns, starting and ending with a movie
+            int moves = nodes.length / 2;
+            int[] movies = new int[moves + 1];
+            byte[] types = new byte[moves];
+            int[] values = new int[moves];
+            for (int k = 0; k < moves; k++) {
+                movies[k] = nodes[2 * k];
+                int name = nodes[2 * k + 1] - movieCount;
+                types[k] = nameTypes[name];
+                values[k] = nameValues[name];
+            }
+            movies[moves] = nodes[nodes.length - 1];
+            return new Path(movies, types, values, names);
+        }
+    }
+
+    //a chain of movies, every one connected to the next through a shared name
+    public static final class Path {
+        private final int[] movies;
+        private final byte[] types;
+        private final int[] values;
+        private final NameDictionary names;
+
+        Path(int[] movies, byte[] types, int[] values, NameDictionary names) {
+            this.movies = movies;
+            this.types = types;
+            this.values = values;
+            this.names = names;
+        }
+
+        //number of moves, one less than the movies in it
+        public int length() {
+            return types.length;
+        }
+
+        //ordinal of the i-th movie, 0 is the start, length() the end
+        public int getMovie(int i) {
+            return movies[i];
+        }
+
+        //how movie i connects to movie i + 1
+        public Move.ConnectionType getType(int i) {
+            return TYPES[types[i]];
+        }
+
+        public String getValue(int i) {
+            return names.nameOf(values[i]);
+        }
+
+        //"Alien -> (actor: Sigourney Weaver) -> Avatar", with the titles from db
+        public String describe(MovieDatabase db) {
+            StringBuilder sb = new StringBuilder(db.getMovieByOrdinal(movies[0]).getTitle());
+            for (int i = 0; i < length(); i++) {
+                sb.append(" -> (").append(getType(i).toString().toLowerCase()).append(": ")
+                        .append(getValue(i)).append(") -> ")
+                        .append(db.getMovieByOrdinal(movies[i + 1]).getTitle());
+            }
+            return sb.toString();
+        }
+    }
+}
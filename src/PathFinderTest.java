@@ -0,0 +1,151 @@
+import org.junit.Test;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class PathFinderTest {
+
+    private final TestCatalog fixture = new TestCatalog();
+
+    private PathFinder finder() {
+        fixture.db.buildIndexes();
+        return PathFinder.build(fixture.db);
+    }
+
+    @Test
+    public void testShortestChain() {
+        // a - b - c - d over actors, and a shortcut a - d over a director
+        Movie a = fixture.directed(1, "A", "Dir A", "x1");
+        Movie b = fixture.directed(2, "B", "Dir B", "x1", "x2");
+        Movie c = fixture.directed(3, "C", "Dir C", "x2", "x3");
+        Movie d = fixture.directed(4, "D", "Dir A", "x3");
+        Movie e = fixture.directed(5, "E", "Dir E", "lonely");
+        PathFinder finder = finder();
+
+        PathFinder.Path path = finder.find(a, d);
+        assertEquals(1, path.length());
+        assertEquals(Move.ConnectionType.DIRECTOR, path.getType(0));
+        assertEquals("Dir A", path.getValue(0));
+        assertEquals("A -> (director: Dir A) -> D", path.describe(fixture.db));
+
+        // actors only, the long way round
+        path = finder.find(a.getOrdinal(), d.getOrdinal(),
+                EnumSet.of(Move.ConnectionType.ACTOR), null, PathFinder.UNLIMITED);
+        assertEquals(3, path.length());
+        assertEquals(Arrays.asList(a.getOrdinal(), b.getOrdinal(), c.getOrdinal(),
+                d.getOrdinal()), Arrays.asList(path.getMovie(0), path.getMovie(1),
+                path.getMovie(2), path.getMovie(3)));
+        assertEquals("x2", path.getValue(1));
+        assertNull("too long", finder.find(a.getOrdinal(), d.getOrdinal(),
+                EnumSet.of(Move.ConnectionType.ACTOR), null, 2));
+
+        assertEquals(-1, finder.distance(a.getOrdinal(), e.getOrdinal()));
+        assertEquals(0, finder.distance(b.getOrdinal(), b.getOrdinal()));
+    }
+
+    @Test
+    public void testExcludedMovies() {
+        Movie a = fixture.directed(1, "A", "d1", "x1", "y1");
+        Movie b = fixture.directed(2, "B", "d2", "x1", "x2");
+        Movie c = fixture.directed(3, "C", "d3", "y1", "y2");
+        Movie d = fixture.directed(4, "D", "d4", "y2", "z");
+        Movie e = fixture.directed(5, "E", "d5", "x2", "z");
+        PathFinder finder = finder();
+        assertEquals(2, finder.distance(a.getOrdinal(), e.getOrdinal()));
+
+        BitSet used = new BitSet();
+        used.set(b.getOrdinal());
+        PathFinder.Path path = finder.find(a.getOrdinal(), e.getOrdinal(), null, used,
+                PathFinder.UNLIMITED);
+        assertEquals(3, path.length());
+        assertEquals(c.getOrdinal(), path.getMovie(1));
+        assertEquals(d.getOrdinal(), path.getMovie(2));
+
+        used.set(d.getOrdinal());
+        assertNull(finder.find(a.getOrdinal(), e.getOrdinal(), null, used,
+                PathFinder.UNLIMITED));
+        // the ends themselves are fine even when excluded
+        used.set(a.getOrdinal());
+        assertEquals(1, finder.find(a.getOrdinal(), b.getOrdinal(), null, used,
+                PathFinder.UNLIMITED).length());
+    }
+
+    @Test
+    public void testNearestTarget() {
+        Movie a = fixture.directed(1, "A", "d1", "x1");
+        fixture.directed(2, "B", "d2", "x1", "x2");
+        Movie c = fixture.directed(3, "C", "d3", "x2", "x3");
+        Movie d = fixture.directed(4, "D", "d4", "x3");
+        PathFinder finder = finder();
+        PathFinder.Path path = finder.findNearest(a.getOrdinal(),
+                new int[] {d.getOrdinal(), c.getOrdinal()}, null, null, PathFinder.UNLIMITED);
+        assertEquals(2, path.length());
+        assertEquals(c.getOrdinal(), path.getMovie(2));
+    }
+
+    @Test
+    public void testMatchesPlainBfsOnRealCatalog() throws Exception {
+        MovieDatabase catalog = new MovieDatabase();
+        catalog.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        PathFinder finder = catalog.getPathFinder();
+        assertSame(finder, catalog.getPathFinder());
+        MovieGraph graph = catalog.getGraph();
+        int count = catalog.getMovieCount();
+        Random random = new Random(9);
+        int pairs = 200;
+        int[] from = new int[pairs];
+        int[] to = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            from[i] = random.nextInt(count);
+            to[i] = random.nextInt(count);
+        }
+        PathFinder.Path[] batch = finder.findAll(from, to, null, null, PathFinder.UNLIMITED);
+        for (int i = 0; i < pairs; i++) {
+            int expected = bfs(graph, from[i], to[i]);
+            PathFinder.Path path = batch[i];
+            assertEquals("pair " + i, expected, path == null ? -1 : path.length());
+            if (path != null) {
+                // every step is a real connection in the movie graph
+                for (int k = 0; k < path.length(); k++) {
+                    int value = catalog.getNames().lookup(path.getValue(k));
+                    assertTrue(graph.hasEdge(path.getMovie(k), path.getMovie(k + 1),
+                            path.getType(k), value));
+                }
+                assertEquals(to[i], path.getMovie(path.length()));
+            }
+            assertEquals(expected, finder.distance(from[i], to[i]));
+        }
+    }
+
+    //moves from one movie to another the slow way, over MovieGraph
+    private static int bfs(MovieGraph graph, int from, int to) {
+        int[] dist = new int[graph.getMovieCount()];
+        Arrays.fill(dist, -1);
+        dist[from] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            if (v == to) {
+                return dist[v];
+            }
+            for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e++) {
+                int u = graph.neighbor(e);
+                if (dist[u] < 0) {
+                    dist[u] = dist[v] + 1;
+                    queue.add(u);
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMovie() {
+        Movie a = fixture.directed(1, "A", "d1", "x1");
+        finder().distance(a.getOrdinal(), 7);
+    }
+}
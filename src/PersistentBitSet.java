@@ -0,0 +1,91 @@
+//an immutable set of non-negative ints (movie ordinals, name ids) where adding one
+//gives a new set and leaves the old one as it was, sharing everything it didn't touch.
+//that's what lets GameState fork and rewind in O(1): a fork just keeps pointing at the
+//same set.
+//
+//the bits sit in a 32-way trie: a leaf is a long[32] (2048 bits), an inner node an
+//Object[32] of children, missing children are all zeros. a set of a million movies is
+//two inner levels deep, so with() copies three small arrays (the path down to the bit)
+//and get() follows three references. the trie only gets as deep as the biggest value
+public final class PersistentBitSet {
+
+    public static final PersistentBitSet EMPTY = new PersistentBitSet(null, 0, 0);
+
+    // bits below the first inner level: 32 words of 64
+    private static final int LEAF_BITS = 11;
+    private static final int FANOUT_BITS = 5;
+
+    private final Object root;
+    // inner levels above the leaves
+    private final int levels;
+    private final int cardinality;
+
+    private PersistentBitSet(Object root, int levels, int cardinality) {
+        this.root = root;
+        this.levels = levels;
+        this.cardinality = cardinality;
+    }
+
+    public boolean get(int index) {
+        if (index < 0 || root == null || (long) index >>> shift(levels) != 0) {
+            return false;
+        }
+        Object node = root;
+        for (int level = levels; level > 0; level--) {
+            node = ((Object[]) node)[(index >>> shift(level - 1)) & 31];
+            if (node == null) {
+                return false;
+            }
+        }
+        return (((long[]) node)[(index >>> 6) & 31] & 1L << index) != 0;
+    }
+
+    //this set plus index (the same set if it was in already)
+    public PersistentBitSet with(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("negative index " + index);
+        }
+        if (get(index)) {
+            return this;
+        }
+        // grow upwards until the trie reaches the index, the old root goes in slot 0
+        Object top = root;
+        int depth = levels;
+        while ((long) index >>> shift(depth) != 0) {
+            if (top != null) {
+                Object[] up = new Object[32];
+                up[0] = top;
+                top = up;
+            }
+            depth++;
+        }
+        return new PersistentBitSet(with(top, depth, index), depth, cardinality + 1);
+    }
+
+    //a copy of node (null = empty) at this many levels above the leaves, with index set
+    private static Object with(Object node, int level, int index) {
+        if (level == 0) {
+            long[] leaf = node == null ? new long[32] : ((long[]) node).clone();
+            leaf[(index >>> 6) & 31] |= 1L << index;
+            return leaf;
+        }
+        Object[] inner = node == null ? new Object[32] : ((Object[]) node).clone();
+        int slot = (index >>> shift(level - 1)) & 31;
+        inner[slot] = with(inner[slot], level - 1, index);
+        return inner;
+    }
+
+    //bits covered by a node this many inner levels above the leaves
+    private static int shift(int level) {
+        return LEAF_BITS + FANOUT_BITS * level;
+    }
+
+    //number of values in the set
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+}
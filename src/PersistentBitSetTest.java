@@ -0,0 +1,50 @@
+import org.junit.Test;
+import java.util.BitSet;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class PersistentBitSetTest {
+
+    @Test
+    public void testWithLeavesTheOldSetAlone() {
+        PersistentBitSet empty = PersistentBitSet.EMPTY;
+        PersistentBitSet one = empty.with(5);
+        PersistentBitSet two = one.with(3000);
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.get(5));
+        assertTrue(one.get(5));
+        assertFalse("the trie grew for 3000, the old set didn't", one.get(3000));
+        assertTrue(two.get(5));
+        assertTrue(two.get(3000));
+        assertEquals(1, one.cardinality());
+        assertEquals(2, two.cardinality());
+        assertSame("already in", two, two.with(5));
+        assertFalse(two.get(-1));
+    }
+
+    @Test
+    public void testMatchesBitSet() {
+        Random rand = new Random(42);
+        BitSet expected = new BitSet();
+        PersistentBitSet set = PersistentBitSet.EMPTY;
+        for (int i = 0; i < 5000; i++) {
+            // mostly small, now and then far out so the trie grows a few levels
+            int value = i % 100 == 0 ? rand.nextInt(Integer.MAX_VALUE) : rand.nextInt(50000);
+            expected.set(value);
+            set = set.with(value);
+        }
+        assertEquals(expected.cardinality(), set.cardinality());
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            assertTrue("missing " + i, set.get(i));
+        }
+        for (int i = 0; i < 50000; i++) {
+            assertEquals("bit " + i, expected.get(i), set.get(i));
+        }
+        assertTrue(set.with(Integer.MAX_VALUE).get(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegative() {
+        PersistentBitSet.EMPTY.with(-1);
+    }
+}
@@ -0,0 +1,115 @@
+//immutable long -> int counts (connection uses by ConnectionCounts.key) where adding
+//to a count gives a new table and leaves the old one as it was, sharing everything it
+//didn't touch. the persistent sibling of ConnectionCounts, for GameState's O(1) forks
+//and rewinds.
+//
+//a hash array mapped trie: the key's mixed hash picks one of 32 slots per level, 5 bits
+//at a time, and an inner node only stores the children that exist (a bitmap says
+//which). the mix is a bijection on 64 bit keys, so two keys never end up with the same
+//hash and there are no collision lists. a game's few hundred connections are two or
+//three levels deep, so add() copies that many small arrays
+public final class PersistentCounts {
+
+    public static final PersistentCounts EMPTY = new PersistentCounts(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentCounts(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    //count of key, 0 if it was never added to
+    public int get(long key) {
+        long hash = mix(key);
+        Node node = root;
+        for (int shift = 0; node != null; shift += 5) {
+            int bit = 1 << (int) (hash >>> shift & 31);
+            if ((node.bitmap & bit) == 0) {
+                return 0;
+            }
+            Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (child instanceof Entry) {
+                Entry entry = (Entry) child;
+                return entry.key == key ? entry.count : 0;
+            }
+            node = (Node) child;
+        }
+        return 0;
+    }
+
+    //a table with delta added to the count of key
+    public PersistentCounts add(long key, int delta) {
+        boolean[] added = new boolean[1];
+        Node node = add(root, 0, key, mix(key), delta, added);
+        return new PersistentCounts(node, added[0] ? size + 1 : size);
+    }
+
+    //keys in the table
+    public int size() {
+        return size;
+    }
+
+    private static Node add(Node node, int shift, long key, long hash, int delta,
+                            boolean[] added) {
+        int bit = 1 << (int) (hash >>> shift & 31);
+        if (node == null) {
+            added[0] = true;
+            return new Node(bit, new Object[] {new Entry(key, delta)});
+        }
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] children = new Object[node.children.length + 1];
+            System.arraycopy(node.children, 0, children, 0, i);
+            children[i] = new Entry(key, delta);
+            System.arraycopy(node.children, i, children, i + 1, node.children.length - i);
+            return new Node(node.bitmap | bit, children);
+        }
+        Object[] children = node.children.clone();
+        Object child = children[i];
+        if (child instanceof Node) {
+            children[i] = add((Node) child, shift + 5, key, hash, delta, added);
+        } else {
+            Entry entry = (Entry) child;
+            if (entry.key == key) {
+                children[i] = new Entry(key, entry.count + delta);
+            } else {
+                // two keys in one slot, push the old one a level down and try again
+                Node below = new Node(1 << (int) (mix(entry.key) >>> (shift + 5) & 31),
+                        new Object[] {entry});
+                children[i] = add(below, shift + 5, key, hash, delta, added);
+            }
+        }
+        return new Node(node.bitmap, children);
+    }
+
+    //splitmix64's finalizer, a bijection that spreads the bits of the key
+    private static long mix(long key) {
+        long h = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class Node {
+        final int bitmap;
+        // an Entry or a Node for every bit in bitmap, in bit order
+        final Object[] children;
+
+        Node(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    private static final class Entry {
+        final long key;
+        final int count;
+
+        Entry(long key, int count) {
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import org.junit.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class PersistentCountsTest {
+
+    @Test
+    public void testAddLeavesTheOldTableAlone() {
+        long actor = ConnectionCounts.key(Move.ConnectionType.ACTOR, 7);
+        long director = ConnectionCounts.key(Move.ConnectionType.DIRECTOR, 7);
+        PersistentCounts one = PersistentCounts.EMPTY.add(actor, 1);
+        PersistentCounts two = one.add(actor, 1).add(director, 1);
+        assertEquals(0, PersistentCounts.EMPTY.get(actor));
+        assertEquals(1, one.get(actor));
+        assertEquals(0, one.get(director));
+        assertEquals(2, two.get(actor));
+        assertEquals(1, two.get(director));
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Random rand = new Random(7);
+        Map<Long, Integer> expected = new HashMap<>();
+        PersistentCounts counts = PersistentCounts.EMPTY;
+        PersistentCounts halfway = null;
+        for (int i = 0; i < 20000; i++) {
+            long key = i % 2 == 0 ? rand.nextLong() : rand.nextInt(3000);
+            expected.merge(key, 1, Integer::sum);
+            counts = counts.add(key, 1);
+            if (i == 9999) {
+                halfway = counts;
+            }
+        }
+        assertEquals(expected.size(), counts.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            assertEquals("count of " + e.getKey(), (int) e.getValue(), counts.get(e.getKey()));
+        }
+        assertTrue("earlier versions keep their size", halfway.size() < counts.size());
+        assertEquals(0, counts.get(-12345L));
+    }
+}
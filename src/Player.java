@@ -39,6 +39,20 @@ public class Player {
 
 
 
+    // same name, score and win condition progress, but progresses on its own
+    // (for GameState.fork and snapshot)
+    public Player copy() {
+        Player copy = new Player(name, winCondition.copy());
+        copy.score = score;
+        return copy;
+    }
+
+    // back to the score and progress of a copy (for GameState.restore)
+    void restoreFrom(Player saved) {
+        score = saved.score;
+        winCondition.setProgress(saved.winCondition.getProgress());
+    }
+
     //increments player's score and also records progress toward their win condition
     // should be called when a player makes a valid move that contributes to their win condition
     public void incrementScore() {
@@ -0,0 +1,124 @@
+import java.util.Arrays;
+import java.util.List;
+
+//helpers for posting lists: sorted int[] of movie ordinals (see MovieDatabase.getPostings)
+//everything here assumes the inputs are sorted and free of duplicates, and hands
+//back new arrays that are too. nothing allocates per element, so intersecting two
+//actors' filmographies is a merge over two int arrays instead of HashSet lookups
+public class PostingLists {
+
+    static final int[] EMPTY = new int[0];
+
+    private PostingLists() {
+    }
+
+    //is the value in the list (binary search)
+    public static boolean contains(int[] list, int value) {
+        return list != null && Arrays.binarySearch(list, value) >= 0;
+    }
+
+    //values that are in both lists
+    public static int[] intersect(int[] a, int[] b) {
+        if (a == null || b == null) {
+            return EMPTY;
+        }
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    //true if the lists have at least one value in common (stops at the first one)
+    public static boolean intersects(int[] a, int[] b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //values that are in either list
+    public static int[] union(int[] a, int[] b) {
+        if (a == null) {
+            return b == null ? EMPTY : b;
+        }
+        if (b == null) {
+            return a;
+        }
+        int[] out = new int[a.length + b.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        while (i < a.length) {
+            out[n++] = a[i++];
+        }
+        while (j < b.length) {
+            out[n++] = b[j++];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    //union of any number of lists (null entries are skipped)
+    public static int[] unionAll(List<int[]> lists) {
+        int[] out = EMPTY;
+        for (int[] list : lists) {
+            out = union(out, list);
+        }
+        return out;
+    }
+
+    //values of a that are not in b
+    public static int[] difference(int[] a, int[] b) {
+        if (a == null) {
+            return EMPTY;
+        }
+        if (b == null) {
+            return a;
+        }
+        int[] out = new int[a.length];
+        int n = 0;
+        int j = 0;
+        for (int v : a) {
+            while (j < b.length && b[j] < v) {
+                j++;
+            }
+            if (j == b.length || b[j] != v) {
+                out[n++] = v;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
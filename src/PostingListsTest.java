@@ -0,0 +1,71 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class PostingListsTest {
+
+    @Test
+    public void testIntersect() {
+        assertArrayEquals(new int[] {3, 7},
+                PostingLists.intersect(new int[] {1, 3, 5, 7}, new int[] {2, 3, 7, 9}));
+        assertArrayEquals(new int[0], PostingLists.intersect(new int[] {1}, new int[] {2}));
+        assertArrayEquals(new int[0], PostingLists.intersect(null, new int[] {2}));
+    }
+
+    @Test
+    public void testIntersects() {
+        assertTrue(PostingLists.intersects(new int[] {1, 4, 8}, new int[] {0, 8}));
+        assertFalse(PostingLists.intersects(new int[] {1, 4}, new int[] {2, 5}));
+        assertFalse(PostingLists.intersects(new int[] {1}, null));
+    }
+
+    @Test
+    public void testUnion() {
+        assertArrayEquals(new int[] {1, 2, 3, 5},
+                PostingLists.union(new int[] {1, 3, 5}, new int[] {2, 3}));
+        assertArrayEquals(new int[] {1, 2, 4, 6},
+                PostingLists.unionAll(Arrays.asList(new int[] {4}, null,
+                        new int[] {1, 6}, new int[] {2, 4})));
+    }
+
+    @Test
+    public void testDifferenceAndContains() {
+        assertArrayEquals(new int[] {1, 5},
+                PostingLists.difference(new int[] {1, 3, 5}, new int[] {0, 3, 4}));
+        assertTrue(PostingLists.contains(new int[] {2, 4, 9}, 9));
+        assertFalse(PostingLists.contains(new int[] {2, 4, 9}, 5));
+        assertFalse(PostingLists.contains(null, 5));
+    }
+
+    @Test
+    public void testMatchesHashSets() {
+        Random r = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            TreeSet<Integer> a = new TreeSet<>();
+            TreeSet<Integer> b = new TreeSet<>();
+            for (int i = 0; i < 40; i++) {
+                a.add(r.nextInt(100));
+                b.add(r.nextInt(100));
+            }
+            Set<Integer> both = new TreeSet<>(a);
+            both.retainAll(b);
+            Set<Integer> either = new TreeSet<>(a);
+            either.addAll(b);
+            Set<Integer> onlyA = new TreeSet<>(a);
+            onlyA.removeAll(b);
+            assertArrayEquals(toArray(both), PostingLists.intersect(toArray(a), toArray(b)));
+            assertArrayEquals(toArray(either), PostingLists.union(toArray(a), toArray(b)));
+            assertArrayEquals(toArray(onlyA), PostingLists.difference(toArray(a), toArray(b)));
+            assertEquals(!both.isEmpty(), PostingLists.intersects(toArray(a), toArray(b)));
+        }
+    }
+
+    private static int[] toArray(Set<Integer> values) {
+        int[] out = new int[values.size()];
+        int i = 0;
+        for (int v : values) {
+            out[i++] = v;
+        }
+        return out;
+    }
+}
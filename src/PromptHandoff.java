@@ -0,0 +1,57 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+//hands the text typed into the input box over to the thread waiting in promptPlayer.
+//the waiting thread parks on a CompletableFuture until Enter completes it, so there is
+//no polling: no cpu used while nobody types, and it wakes up as soon as Enter is hit.
+//
+//  open()     the controller starts waiting for one answer
+//  submit()   the ui thread delivers it (ignored if nobody is waiting)
+//  cancel()   give up on the prompt, the waiting thread gets null (e.g. turn timer ran
+//             out, window closed)
+public class PromptHandoff {
+
+    private CompletableFuture<String> pending;
+
+    //start a new prompt (a prompt still open is cancelled)
+    public synchronized CompletableFuture<String> open() {
+        if (pending != null) {
+            pending.complete(null);
+        }
+        pending = new CompletableFuture<>();
+        return pending;
+    }
+
+    //deliver the answer to the open prompt, false if there is none
+    public synchronized boolean submit(String text) {
+        if (pending == null) {
+            return false;
+        }
+        boolean delivered = pending.complete(text);
+        pending = null;
+        return delivered;
+    }
+
+    //the open prompt (if any) returns null
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.complete(null);
+            pending = null;
+        }
+    }
+
+    public synchronized boolean isWaiting() {
+        return pending != null;
+    }
+
+    //open a prompt and block until it is answered or cancelled (null)
+    public String await() throws InterruptedException {
+        CompletableFuture<String> answer = open();
+        try {
+            return answer.get();
+        } catch (ExecutionException e) {
+            // nothing ever completes it exceptionally
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.Test;
+import java.util.concurrent.*;
+import static org.junit.Assert.*;
+
+public class PromptHandoffTest {
+
+    @Test
+    public void testSubmitWakesWaitingThread() throws Exception {
+        PromptHandoff prompt = new PromptHandoff();
+        ExecutorService controller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> answer = controller.submit(prompt::await);
+            while (!prompt.isWaiting()) {
+                Thread.yield();
+            }
+            assertFalse("Nothing comes back before Enter", answer.isDone());
+            assertTrue(prompt.submit("Avatar"));
+            // the timeout only keeps a broken handoff from hanging the build
+            assertEquals("Avatar", answer.get(10, TimeUnit.SECONDS));
+            assertFalse(prompt.isWaiting());
+        } finally {
+            controller.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSubmitWithoutPromptIgnored() {
+        PromptHandoff prompt = new PromptHandoff();
+        assertFalse(prompt.submit("early"));
+        CompletableFuture<String> answer = prompt.open();
+        assertFalse("Text typed before the prompt isn't delivered", answer.isDone());
+        assertTrue(prompt.submit("Alien"));
+        assertEquals("Alien", answer.getNow("not done"));
+        assertFalse("Only one answer per prompt", prompt.submit("Aliens"));
+    }
+
+    @Test
+    public void testCancelReturnsNull() throws Exception {
+        PromptHandoff prompt = new PromptHandoff();
+        CompletableFuture<String> answer = prompt.open();
+        prompt.cancel();
+        assertNull(answer.get(1, TimeUnit.SECONDS));
+        assertFalse(prompt.isWaiting());
+
+        // opening a new prompt gives up on the old one
+        CompletableFuture<String> first = prompt.open();
+        CompletableFuture<String> second = prompt.open();
+        assertNull(first.get(1, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+    }
+}
@@ -0,0 +1,463 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+//the computer opponent: looks a few moves ahead instead of just grabbing a movie.
+//
+//minimax (negamax with alpha-beta) over the movie graph, deepening one move at a time
+//until the time budget runs out, and the best move of the deepest finished search
+//wins. a position is the movie on top, the movies used so far, how often every
+//connection was used, both players' win condition progress and who is to move. a
+//player wins by completing their condition, and loses if there is nothing left to
+//play from the current movie, which is what makes blocking moves worth something.
+//
+//moves come straight from the graph edges of the current movie and follow the rules of
+//GameState.tryBuildMove (own win condition connection first, then the edges in order,
+//skipping connections used MAX_CONNECTION_USES times), so what the search plays is
+//exactly what the game would accept. positions reached twice (the same movies in
+//another order) are looked up in a transposition table keyed by a zobrist style hash
+//of the position instead of being searched again.
+//
+//power ups and the turn timer aren't part of the search. the scratch space (table,
+//move lists, used marks) is per thread and reused, so one SearchBot can play any
+//number of games at once, e.g. in GameSimulator
+public class SearchBot implements BotStrategy {
+
+    public static final long DEFAULT_BUDGET_MILLIS = 200;
+    public static final int DEFAULT_MAX_DEPTH = 12;
+
+    private static final int WIN = 1_000_000;
+    // scores past this are "win in n moves", the table stores them relative to the node
+    private static final int WIN_BOUND = WIN - 1000;
+    private static final int TABLE_BITS = 18;
+
+    private final long budgetNanos;
+    private final int maxDepth;
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+
+    public SearchBot() {
+        this(DEFAULT_BUDGET_MILLIS, DEFAULT_MAX_DEPTH);
+    }
+
+    //think for at most budgetMillis per move and never more than maxDepth moves ahead
+    public SearchBot(long budgetMillis, int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public String getName() {
+        return "search";
+    }
+
+    @Override
+    public Movie chooseMovie(GameState state, Player me, Random random) {
+        MovieGraph graph = state.getDatabase().getGraph();
+        Movie current = state.getCurrentMovie();
+        if (graph == null || current.getOrdinal() < 0
+                || current.getOrdinal() >= graph.getMovieCount()) {
+            // no graph to search (or an escape put a movie outside it on top)
+            return BotStrategy.anyLegalMovie(state, me, random);
+        }
+        Movie best = searches.get().run(state, me, graph);
+        // the search follows tryBuildMove's rules, this is just a cheap safety net
+        if (best == null || state.isMovieUsed(best) || !state.tryBuildMove(me, best).isPresent()) {
+            return BotStrategy.anyLegalMovie(state, me, random);
+        }
+        return best;
+    }
+
+    //depth reached and nodes visited by the last search on this thread, for tuning
+    public int lastDepth() {
+        return searches.get().lastDepth;
+    }
+
+    public long lastNodes() {
+        return searches.get().nodes;
+    }
+
+    //thrown out of the search when the time is up
+    private static final class OutOfTime extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OutOfTime() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final class Search {
+        private GameState state;
+        private MovieDatabase db;
+        private MovieGraph graph;
+        private long deadline;
+        private long nodes;
+        private int lastDepth;
+        private int rootBest;
+
+        // the position. side 0 is the bot, side 1 its opponent
+        private int current;
+        private boolean[] used = new boolean[0];
+        private int[] marked = new int[64];
+        private int markedCount;
+        // how often every connection was used, the game's plus the search's own. only
+        // connections used in the game or the search are in it, so most lookups stop
+        // at an empty slot right away
+        private final ConnectionCounts usage = new ConnectionCounts(256);
+        private final Move.ConnectionType[] wcType = new Move.ConnectionType[2];
+        private final int[] wcValue = new int[2];
+        private final IntPredicate usable = edge -> usage(edge) < GameState.MAX_CONNECTION_USES;
+        private final int[] progress = new int[2];
+        private final int[] target = new int[2];
+        private long hash;
+        // the moves played to get here from the root (~edge if it counted for the
+        // mover's win condition) and the movie each was played from
+        private int[] pathEdge = new int[16];
+        private int[] pathFrom = new int[16];
+        private int pathLength;
+
+        // one move list per ply, a move is the graph edge it's played over
+        private int[][] moves = new int[0][];
+
+        // transposition table, slot = hash & mask, stamp says which search wrote it
+        private final int mask = (1 << TABLE_BITS) - 1;
+        private final long[] keys = new long[1 << TABLE_BITS];
+        private final int[] scores = new int[1 << TABLE_BITS];
+        private final int[] bestEdge = new int[1 << TABLE_BITS];
+        private final byte[] depths = new byte[1 << TABLE_BITS];
+        private final byte[] bounds = new byte[1 << TABLE_BITS];
+        private final int[] stamps = new int[1 << TABLE_BITS];
+        private int stamp;
+
+        private static final byte EXACT = 0;
+        private static final byte LOWER = 1;
+        private static final byte UPPER = 2;
+
+        Movie run(GameState state, Player me, MovieGraph graph) {
+            this.state = state;
+            this.db = state.getDatabase();
+            this.graph = graph;
+            this.deadline = System.nanoTime() + budgetNanos;
+            this.nodes = 0;
+            this.lastDepth = 0;
+            this.rootBest = -1;
+            stamp++;
+            try {
+                setUp(me);
+                return search();
+            } finally {
+                while (pathLength > 0) {
+                    undo();
+                }
+                for (int i = 0; i < markedCount; i++) {
+                    used[marked[i]] = false;
+                }
+                markedCount = 0;
+                usage.clear();
+                this.state = null;
+                this.db = null;
+            }
+        }
+
+        private void setUp(Player me) {
+            if (used.length != graph.getMovieCount()) {
+                used = new boolean[graph.getMovieCount()];
+            }
+            for (Movie m : state.getPlayedMoviesHistory()) {
+                int ordinal = m.getOrdinal();
+                if (ordinal >= 0 && ordinal < used.length && state.isMovieUsed(m)
+                        && db.getMovieByOrdinal(ordinal) == m) {
+                    mark(ordinal);
+                }
+            }
+            for (Move m : state.getMoveHistory()) {
+                int valueId = db.getNames().lookup(m.getConnectionValue());
+                if (valueId >= 0) {
+                    usage.add(ConnectionCounts.key(m.getConnectionType(), valueId), 1);
+                }
+            }
+            List<Player> players = state.getPlayers();
+            Player opponent = players.get(0) == me ? players.get(1) : players.get(0);
+            setSide(0, me.getWinCondition());
+            setSide(1, opponent.getWinCondition());
+            current = state.getCurrentMovie().getOrdinal();
+            hash = z(2, current) ^ z(4, progress[0]) ^ z(5, progress[1]);
+            int plies = maxDepth + 1;
+            if (moves.length < plies) {
+                moves = Arrays.copyOf(moves, plies);
+                for (int p = 0; p < plies; p++) {
+                    if (moves[p] == null) {
+                        moves[p] = new int[64];
+                    }
+                }
+            }
+        }
+
+        private void setSide(int side, WinCondition wc) {
+            wcType[side] = wc.getType();
+            wcValue[side] = db.getNames().lookup(wc.getValue());
+            progress[side] = wc.getProgress();
+            target[side] = wc.getTarget();
+        }
+
+        private void mark(int ordinal) {
+            if (!used[ordinal]) {
+                used[ordinal] = true;
+                if (markedCount == marked.length) {
+                    marked = Arrays.copyOf(marked, markedCount * 2);
+                }
+                marked[markedCount++] = ordinal;
+            }
+        }
+
+        //iterative deepening at the root, returns the movie to play or null
+        private Movie search() {
+            int best = -1;
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                try {
+                    int score = negamax(depth, 0, -WIN - 1, WIN + 1, 0);
+                    best = rootBest;
+                    lastDepth = depth;
+                    if (Math.abs(score) > WIN_BOUND) {
+                        break; // won or lost for sure, deeper won't change that
+                    }
+                } catch (OutOfTime e) {
+                    break; // run backs out of the half searched line
+                }
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            return best < 0 ? null : db.getMovieByOrdinal(graph.neighbor(best));
+        }
+
+        //best score for `side` to move from here, searching depth more moves
+        private int negamax(int depth, int ply, int alpha, int beta, int side) {
+            if ((++nodes & 1023) == 0 && System.nanoTime() > deadline && lastDepth > 0) {
+                throw new OutOfTime();
+            }
+            int slot = (int) (hash & mask);
+            int ttEdge = -1;
+            if (stamps[slot] == stamp && keys[slot] == hash) {
+                ttEdge = bestEdge[slot];
+                if (depths[slot] >= depth && ply > 0) {
+                    int s = fromTable(scores[slot], ply);
+                    if (bounds[slot] == EXACT
+                            || (bounds[slot] == LOWER && s >= beta)
+                            || (bounds[slot] == UPPER && s <= alpha)) {
+                        return s;
+                    }
+                }
+            }
+
+            if (depth == 0) {
+                return evaluate(ply, side);
+            }
+            int count = generate(ply, side, ttEdge);
+            if (count == 0) {
+                // nothing to play: this side loses
+                return -(WIN - ply);
+            }
+
+            int alphaBefore = alpha;
+            int best = -WIN - 1;
+            int bestMove = -1;
+            int[] list = moves[ply];
+            for (int i = 0; i < count; i++) {
+                int edge = list[i];
+                play(edge, side);
+                int score;
+                if (progress[side] >= target[side]) {
+                    score = WIN - ply - 1;
+                } else {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, 1 - side);
+                }
+                undo();
+                if (score > best) {
+                    best = score;
+                    bestMove = edge;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            if (ply == 0) {
+                rootBest = bestMove;
+            }
+            stamps[slot] = stamp;
+            keys[slot] = hash;
+            scores[slot] = toTable(best, ply);
+            depths[slot] = (byte) depth;
+            bestEdge[slot] = bestMove;
+            bounds[slot] = best <= alphaBefore ? UPPER : best >= beta ? LOWER : EXACT;
+            return best;
+        }
+
+        //fill moves[ply] with the legal moves from the current movie, the table's
+        //best move first, then the ones that count for side's win condition
+        private int generate(int ply, int side, int ttEdge) {
+            int[] list = moves[ply];
+            int n = 0;
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current), runEnd;
+                    e < end; e = runEnd) {
+                runEnd = graph.runEnd(current, e);
+                int edge = used[graph.neighbor(e)] ? -1 : chooseEdge(e, runEnd, side);
+                if (edge >= 0) {
+                    if (n == list.length) {
+                        list = Arrays.copyOf(list, n * 2);
+                        moves[ply] = list;
+                    }
+                    list[n++] = edge;
+                }
+            }
+            int front = 0;
+            for (int i = 0; i < n && ttEdge >= 0; i++) {
+                if (list[i] == ttEdge) {
+                    swap(list, 0, i);
+                    front = 1;
+                    break;
+                }
+            }
+            for (int i = front; i < n; i++) {
+                if (counts(list[i], side)) {
+                    swap(list, front++, i);
+                }
+            }
+            return n;
+        }
+
+        //the edge tryBuildMove would pick among the edges [from, to) to one neighbor
+        private int chooseEdge(int from, int to, int side) {
+            return GameState.chooseEdge(graph, from, to, wcType[side], wcValue[side], usable);
+        }
+
+        //does playing over this edge count for side's win condition (see applyMove)
+        private boolean counts(int edge, int side) {
+            if (wcValue[side] < 0) {
+                return false;
+            }
+            if (wcType[side] == Move.ConnectionType.GENRE) {
+                return db.getMovieByOrdinal(graph.neighbor(edge))
+                        .hasConnection(Move.ConnectionType.GENRE, wcValue[side]);
+            }
+            return graph.edgeType(edge) == wcType[side] && graph.edgeValue(edge) == wcValue[side];
+        }
+
+        //uses of the edge's connection so far, the game's plus the search's own
+        private int usage(int edge) {
+            return usage.get(usageKey(edge));
+        }
+
+        private long usageKey(int edge) {
+            return ConnectionCounts.key(graph.edgeType(edge), graph.edgeValue(edge));
+        }
+
+        //make the move and remember it on the path so undo can take it back
+        private void play(int edge, int side) {
+            int to = graph.neighbor(edge);
+            boolean counts = counts(edge, side) && progress[side] < target[side];
+            if (pathLength == pathEdge.length) {
+                pathEdge = Arrays.copyOf(pathEdge, pathLength * 2);
+                pathFrom = Arrays.copyOf(pathFrom, pathLength * 2);
+            }
+            pathEdge[pathLength] = counts ? ~edge : edge;
+            pathFrom[pathLength++] = current;
+            long key = usageKey(edge);
+            int uses = usage.add(key, 1);
+            hash ^= z(3, key * 31 + uses) ^ z(3, key * 31 + uses + 1);
+            hash ^= z(2, current) ^ z(2, to) ^ z(1, to) ^ z(6, 0);
+            used[to] = true;
+            if (counts) {
+                hash ^= z(4 + side, progress[side]) ^ z(4 + side, progress[side] + 1);
+                progress[side]++;
+            }
+            current = to;
+        }
+
+        //take back the last move played
+        private void undo() {
+            pathLength--;
+            int edge = pathEdge[pathLength] < 0 ? ~pathEdge[pathLength] : pathEdge[pathLength];
+            boolean counted = pathEdge[pathLength] < 0;
+            int from = pathFrom[pathLength];
+            // sides alternate, the first move on the path is side 0's
+            int side = pathLength & 1;
+            int to = graph.neighbor(edge);
+            if (counted) {
+                progress[side]--;
+                hash ^= z(4 + side, progress[side]) ^ z(4 + side, progress[side] + 1);
+            }
+            used[to] = false;
+            current = from;
+            hash ^= z(2, current) ^ z(2, to) ^ z(1, to) ^ z(6, 0);
+            long key = usageKey(edge);
+            int uses = usage.add(key, -1) - 1;
+            hash ^= z(3, key * 31 + uses) ^ z(3, key * 31 + uses + 1);
+        }
+
+        //higher is better for side (to move): how much closer to done it is than the
+        //other side, plus a bit if it can make progress right now. in a race that is
+        //what decides it, the movie a player ends on is where the other one has to go on
+        private int evaluate(int ply, int side) {
+            int mine = target[side] - progress[side];
+            int theirs = target[1 - side] - progress[1 - side];
+            int score = 100 * (theirs - mine);
+            boolean any = false;
+            for (int e = graph.edgeStart(current), end = graph.edgeEnd(current), runEnd;
+                    e < end; e = runEnd) {
+                runEnd = graph.runEnd(current, e);
+                int edge = used[graph.neighbor(e)] ? -1 : chooseEdge(e, runEnd, side);
+                if (edge >= 0) {
+                    if (counts(edge, side)) {
+                        return score + (mine == 1 ? WIN_BOUND / 2 : 60);
+                    }
+                    any = true;
+                }
+            }
+            return any ? score : -(WIN - ply);
+        }
+    }
+
+    //score stored for a node, "win in n" kept relative to the node so it can be
+    //reused at another ply
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND) {
+            return score + ply;
+        }
+        if (score < -WIN_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND) {
+            return score - ply;
+        }
+        if (score < -WIN_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    //a random looking 64 bit value for (what, value), xor-ed into the position hash
+    private static long z(int what, long value) {
+        long x = value * 0x9E3779B97F4A7C15L + what * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
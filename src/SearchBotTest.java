@@ -0,0 +1,84 @@
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+public class SearchBotTest {
+
+    private final TestCatalog fixture = new TestCatalog();
+
+    @Test
+    public void testAvoidsHandingOverTheWin() {
+        // both X and Y count for me, but from X the opponent reaches their comedy
+        // and wins on the spot. from Y they can't, and whatever they do I win next
+        Movie start = fixture.movie(1, "Start", "Western", "a1");
+        Movie x = fixture.movie(2, "X", "Drama", "a1", "a2");
+        Movie y = fixture.movie(3, "Y", "Drama", "a1", "a3");
+        fixture.movie(4, "C", "Comedy", "a2");
+        Movie d = fixture.movie(5, "D", "Western", "a3", "a4");
+        fixture.movie(6, "E", "Drama", "a4");
+        Player me = TestCatalog.player("me", "Drama", 2);
+        Player other = TestCatalog.player("other", "Comedy", 1);
+        GameState state = fixture.game(start, me, other);
+
+        SearchBot bot = new SearchBot(1000, 6);
+        assertSame(y, bot.chooseMovie(state, me, new Random(1)));
+        assertTrue("small enough to solve", bot.lastDepth() <= 6);
+
+        // and it still plays on: the opponent goes to D, the bot finishes on E
+        state.applyMove(state.tryBuildMove(me, y).get());
+        state.nextTurn();
+        state.applyMove(state.tryBuildMove(other, d).get());
+        state.nextTurn();
+        Movie last = bot.chooseMovie(state, me, new Random(1));
+        assertEquals("E", last.getTitle());
+        assertNotEquals(x, last);
+    }
+
+    @Test
+    public void testPrefersStrandingTheOpponent() {
+        // nothing counts for anybody, but after "Dead End" the opponent has no movie
+        // left to play and loses
+        Movie start = fixture.movie(1, "Start", "Western", "a1", "a2");
+        fixture.movie(2, "Open", "Western", "a1", "a3");
+        fixture.movie(3, "More", "Western", "a3");
+        Movie deadEnd = fixture.movie(4, "Dead End", "Western", "a2");
+        Player me = TestCatalog.player("me", "Drama", 3);
+        Player other = TestCatalog.player("other", "Comedy", 3);
+        GameState state = fixture.game(start, me, other);
+        assertSame(deadEnd, new SearchBot(1000, 4).chooseMovie(state, me, new Random(1)));
+    }
+
+    @Test
+    public void testRespectsConnectionLimit() {
+        // "a1" was used up before the search starts, only the movie over "a2" is legal
+        Movie start = fixture.movie(1, "Start", "Drama", "a1", "a2");
+        fixture.movie(2, "Over a1", "Drama", "a1");
+        Movie overA2 = fixture.movie(3, "Over a2", "Western", "a2");
+        Player me = TestCatalog.player("me", "Drama", 5);
+        Player other = TestCatalog.player("other", "Comedy", 5);
+        GameState state = fixture.game(start, me, other);
+        for (int i = 0; i < GameState.MAX_CONNECTION_USES; i++) {
+            state.applyMove(new Move(me, new Movie(100 + i, "old " + i, 1990, "d", "c",
+                    new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>()),
+                    Move.ConnectionType.ACTOR, "a1"));
+        }
+        // applyMove moved the pile, put the start movie back on top
+        state.setCurrentMovie(start);
+        assertSame(overA2, new SearchBot(1000, 4).chooseMovie(state, me, new Random(1)));
+    }
+
+    @Test
+    public void testBeatsRandomOnRealCatalog() throws Exception {
+        MovieDatabase catalog = new MovieDatabase();
+        catalog.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+        GameSimulator sim = new GameSimulator(catalog, new SearchBot(2, 8), BotStrategy.random());
+        SimulationReport report = sim.run(40, 3L);
+        assertTrue("search should win most games: " + report, report.getWins(0) >= 30);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsSomeDepth() {
+        new SearchBot(10, 0);
+    }
+}
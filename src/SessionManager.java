@@ -0,0 +1,100 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//hosts any number of games at once on top of one shared, already loaded MovieDatabase.
+//the catalog is paid for once; a session only costs its GameState and a MovieDraw
+//(an int[] pair the size of the catalog).
+//
+//every session runs on its own thread. most of a game is waiting for the player, so
+//on a JVM with virtual threads (21+) we use one per session and thousands of games
+//are cheap; on older JVMs we fall back to a cached pool of platform threads
+public class SessionManager implements AutoCloseable {
+
+    private final MovieDatabase catalog;
+    private final ExecutorService executor;
+    private final Map<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    public SessionManager(MovieDatabase catalog) {
+        this(catalog, newSessionExecutor());
+    }
+
+    SessionManager(MovieDatabase catalog, ExecutorService executor) {
+        this.catalog = catalog;
+        this.executor = executor;
+    }
+
+    //start a new game talking to this view, returns right away
+    public GameSession start(GameView view, long seed) {
+        int id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, catalog, view, seed);
+        sessions.put(id, session);
+        executor.submit(() -> {
+            try {
+                session.run();
+            } finally {
+                sessions.remove(id);
+                synchronized (sessions) {
+                    sessions.notifyAll();
+                }
+            }
+        });
+        return session;
+    }
+
+    //same, with a seed of its own
+    public GameSession start(GameView view) {
+        return start(view, System.nanoTime() ^ nextId.get());
+    }
+
+    //games that are still running
+    public Collection<GameSession> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int getActiveCount() {
+        return sessions.size();
+    }
+
+    //wait up to the timeout for every running game to finish, true if they did
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (sessions) {
+            while (!sessions.isEmpty()) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(sessions, left);
+            }
+        }
+        return true;
+    }
+
+    //stops taking games and interrupts the running ones
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    //Executors.newVirtualThreadPerTaskExecutor() when the JVM has it. looked up by
+    //reflection so the project still builds and runs on java 17
+    static ExecutorService newSessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "game-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import org.junit.BeforeClass;
+import org.junit.Test;
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.Assert.*;
+
+public class SessionManagerTest {
+    private static MovieDatabase db;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        db = new MovieDatabase();
+        db.loadAll("tmdb_5000_movies.csv", "tmdb_5000_credits.csv");
+    }
+
+    //plays the given lines, then leaves the game
+    private static class ScriptedView implements GameView {
+        private final Deque<String> inputs;
+        volatile Movie firstMovie;
+        volatile Player winner;
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        ScriptedView(String... inputs) {
+            this.inputs = new ArrayDeque<>(Arrays.asList(inputs));
+        }
+
+        @Override
+        public String promptPlayer(Player currentPlayer) throws IOException {
+            if (inputs.isEmpty()) {
+                throw new IOException("done");
+            }
+            return inputs.poll();
+        }
+
+        @Override
+        public void showGameState(GameState state) {
+            if (firstMovie == null) {
+                firstMovie = state.getCurrentMovie();
+            }
+        }
+
+        @Override
+        public void showError(String message) {
+            errors.add(message);
+        }
+
+        @Override
+        public void showGameEnd(Player winner) {
+            this.winner = winner;
+        }
+    }
+
+    @Test
+    public void testManyConcurrentSessions() throws Exception {
+        List<ScriptedView> views = new ArrayList<>();
+        try (SessionManager manager = new SessionManager(db)) {
+            for (int i = 0; i < 500; i++) {
+                ScriptedView view = new ScriptedView("no such movie 123", "!skip", "");
+                views.add(view);
+                manager.start(view, i % 10);
+            }
+            assertTrue("every game should finish", manager.awaitIdle(30, TimeUnit.SECONDS));
+            assertEquals(0, manager.getActiveCount());
+        }
+        for (int i = 0; i < views.size(); i++) {
+            ScriptedView view = views.get(i);
+            assertNotNull("every game gets a first movie", view.firstMovie);
+            assertEquals(Arrays.asList("That movie doesn't exist. Please try again!",
+                    "Invalid input. Please try again!"), view.errors);
+            //same seed, same game
+            assertSame(views.get(i % 10).firstMovie, view.firstMovie);
+        }
+    }
+
+    @Test
+    public void testSessionsDontUseTheSharedDraw() {
+        MovieDatabase counting = new MovieDatabase() {
+            @Override
+            public Movie getRandomMovie() {
+                fail("sessions should draw from their own MovieDraw");
+                return null;
+            }
+
+            @Override
+            public Movie getMovieByOrdinal(int ordinal) {
+                return db.getMovieByOrdinal(ordinal);
+            }
+
+            @Override
+            public int getMovieCount() {
+                return db.getMovieCount();
+            }
+        };
+        GameSession session = new GameSession(1, counting, new ScriptedView(), 3);
+        assertTrue(session.getState().hasMovieDraw());
+        assertNotNull(session.getState().getCurrentMovie());
+        new EscapeCommand(counting).execute(session.getState());
+        assertEquals(2, session.getState().getPlayedMoviesHistory().size());
+    }
+
+    @Test
+    public void testTextProtocol() {
+        StringWriter written = new StringWriter();
+        TextGameView view = new TextGameView(
+                new BufferedReader(new StringReader("!skip\nQUIT\n")),
+                new PrintWriter(written));
+        GameSession session = new GameSession(1, db, view, 5);
+        session.run();
+        assertTrue(session.isFinished());
+
+        List<String> lines = Arrays.asList(written.toString().split("\\R"));
+        assertEquals("MOVIE " + session.getState().getPlayedMoviesHistory().get(0).getTitle(),
+                lines.get(0));
+        assertEquals("TURN Player 1", lines.get(1));
+        assertTrue(lines.get(2).startsWith("GOAL Player 1 0/5 "));
+        assertTrue(lines.contains("PROMPT Player 1"));
+        //the skip went through, so player 2 is asked next
+        assertEquals("PROMPT Player 2", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void testTurnTimeRunsOut() throws Exception {
+        // a client that never answers
+        PipedWriter client = new PipedWriter();
+        BufferedReader in = new BufferedReader(new PipedReader(client));
+        StringWriter written = new StringWriter();
+        try (SessionManager manager = new SessionManager(db)) {
+            GameSession session = manager.start(
+                    new TextGameView(in, new PrintWriter(written), 1), 7);
+            assertTrue("the turn timer should end the game",
+                    manager.awaitIdle(10, TimeUnit.SECONDS));
+            assertTrue(session.getState().isGameOver());
+        } finally {
+            client.close();
+        }
+        List<String> lines = Arrays.asList(written.toString().split("\\R"));
+        assertTrue(lines.contains("PROMPT Player 1"));
+        assertEquals("the player who ran out of time loses", "END Player 2",
+                lines.get(lines.size() - 1));
+    }
+
+    @Test
+    public void testServerOverSocket() throws Exception {
+        try (GameServer server = new GameServer(db, 0)) {
+            Thread serving = new Thread(() -> {
+                try {
+                    server.serve();
+                } catch (IOException ignore) {
+
+                }
+            });
+            serving.start();
+            try (Socket client = new Socket("localhost", server.getPort())) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        client.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                        client.getOutputStream(), StandardCharsets.UTF_8), true);
+                assertTrue(in.readLine().startsWith("MOVIE "));
+                String line;
+                while (!(line = in.readLine()).startsWith("PROMPT")) {
+                    assertNotNull(line);
+                }
+                out.println("QUIT");
+                assertNull("server hangs up after QUIT", in.readLine());
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+import java.util.*;
+
+//what GameSimulator found out: who wins how often, how long games take, and how hard
+//every win condition is to complete.
+//
+//every ForkJoin task fills its own report and the tasks' reports are merged on the
+//way back up, so nothing in here is shared between threads while games run
+public class SimulationReport {
+
+    //how often one kind of win condition was dealt and completed
+    public static final class ConditionStats {
+        private int dealt;
+        private int completed;
+        private long movesToComplete;
+        private long progress;
+        private long target;
+
+        //number of players that had it
+        public int getDealt() {
+            return dealt;
+        }
+
+        //number of them that won by completing it
+        public int getCompleted() {
+            return completed;
+        }
+
+        //share of the players holding it that completed it, 0 .. 1
+        public double getCompletionRate() {
+            return dealt == 0 ? 0 : (double) completed / dealt;
+        }
+
+        //average game length (in moves) of the games it was completed in
+        public double getAverageMovesToComplete() {
+            return completed == 0 ? 0 : (double) movesToComplete / completed;
+        }
+
+        //how far players got on average, as a share of the target
+        public double getAverageProgress() {
+            return target == 0 ? 0 : (double) progress / target;
+        }
+
+        private void add(WinCondition wc, boolean won, int moves) {
+            dealt++;
+            progress += wc.getProgress();
+            target += wc.getTarget();
+            if (won) {
+                completed++;
+                movesToComplete += moves;
+            }
+        }
+
+        private void merge(ConditionStats other) {
+            dealt += other.dealt;
+            completed += other.completed;
+            movesToComplete += other.movesToComplete;
+            progress += other.progress;
+            target += other.target;
+        }
+    }
+
+    private final String[] strategies;
+    private int games;
+    private final int[] wins = new int[2];
+    private int firstPlayerWins;
+    private int draws;
+    private int stuck;
+    private long moves;
+    private long elapsedNanos;
+    private final Map<Move.ConnectionType, ConditionStats> byType =
+            new EnumMap<>(Move.ConnectionType.class);
+    private final Map<String, ConditionStats> byCondition = new HashMap<>();
+
+    SimulationReport(String first, String second) {
+        strategies = new String[] {first, second};
+    }
+
+    //one finished game. winner is the strategy (0 or 1) that won, -1 if the game hit
+    //the move limit. conditions[s] is the win condition strategy s played with
+    void addGame(int winner, boolean firstPlayerWon, boolean opponentStuck, int gameMoves,
+                 WinCondition[] conditions) {
+        games++;
+        moves += gameMoves;
+        if (winner < 0) {
+            draws++;
+        } else {
+            wins[winner]++;
+            if (firstPlayerWon) {
+                firstPlayerWins++;
+            }
+            if (opponentStuck) {
+                stuck++;
+            }
+        }
+        for (int s = 0; s < conditions.length; s++) {
+            WinCondition wc = conditions[s];
+            boolean won = winner == s && wc.isMet();
+            byType.computeIfAbsent(wc.getType(), t -> new ConditionStats())
+                    .add(wc, won, gameMoves);
+            byCondition.computeIfAbsent(key(wc), k -> new ConditionStats())
+                    .add(wc, won, gameMoves);
+        }
+    }
+
+    void merge(SimulationReport other) {
+        games += other.games;
+        wins[0] += other.wins[0];
+        wins[1] += other.wins[1];
+        firstPlayerWins += other.firstPlayerWins;
+        draws += other.draws;
+        stuck += other.stuck;
+        moves += other.moves;
+        other.byType.forEach((t, s) ->
+                byType.computeIfAbsent(t, k -> new ConditionStats()).merge(s));
+        other.byCondition.forEach((c, s) ->
+                byCondition.computeIfAbsent(c, k -> new ConditionStats()).merge(s));
+    }
+
+    private static String key(WinCondition wc) {
+        return wc.getType() + ": " + wc.getValue();
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public String getStrategyName(int strategy) {
+        return strategies[strategy];
+    }
+
+    public int getWins(int strategy) {
+        return wins[strategy];
+    }
+
+    public double getWinRate(int strategy) {
+        return games == 0 ? 0 : (double) wins[strategy] / games;
+    }
+
+    //games won by whoever moved first, whichever strategy that was
+    public int getFirstPlayerWins() {
+        return firstPlayerWins;
+    }
+
+    //games that hit the move limit without a winner
+    public int getDraws() {
+        return draws;
+    }
+
+    //games won because the other side had no legal movie left (not by a win condition)
+    public int getWinsByStuckOpponent() {
+        return stuck;
+    }
+
+    public long getTotalMoves() {
+        return moves;
+    }
+
+    public double getAverageGameLength() {
+        return games == 0 ? 0 : (double) moves / games;
+    }
+
+    //wall clock time of the whole run (set once all tasks are merged)
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public ConditionStats getTypeStats(Move.ConnectionType type) {
+        return byType.get(type);
+    }
+
+    //stats of one win condition, e.g. getConditionStats(GENRE, "Drama"), or null if it
+    //never came up
+    public ConditionStats getConditionStats(Move.ConnectionType type, String value) {
+        return byCondition.get(type + ": " + value);
+    }
+
+    //every condition that came up at least minDealt times, hardest (lowest completion
+    //rate) first
+    public List<Map.Entry<String, ConditionStats>> getConditionsByDifficulty(int minDealt) {
+        List<Map.Entry<String, ConditionStats>> list = new ArrayList<>();
+        for (Map.Entry<String, ConditionStats> e : byCondition.entrySet()) {
+            if (e.getValue().dealt >= minDealt) {
+                list.add(e);
+            }
+        }
+        list.sort(Comparator.comparingDouble((Map.Entry<String, ConditionStats> e) ->
+                e.getValue().getCompletionRate()).thenComparing(Map.Entry::getKey));
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d games, %.1f moves on average, %d hit the move limit%n",
+                games, getAverageGameLength(), draws));
+        if (elapsedNanos > 0) {
+            sb.append(String.format("  %.0f ms, %.0f moves per minute%n", elapsedNanos / 1e6,
+                    moves * 60e9 / elapsedNanos));
+        }
+        for (int s = 0; s < 2; s++) {
+            sb.append(String.format("  %-12s won %6.2f%%%n", strategies[s],
+                    100 * getWinRate(s)));
+        }
+        sb.append(String.format("  first player won %.2f%%, %d wins because the other "
+                + "side was stuck%n", games == 0 ? 0 : 100.0 * firstPlayerWins / games, stuck));
+        sb.append(String.format("%-10s %8s %10s %12s %10s%n", "condition", "dealt",
+                "completed", "avg moves", "progress"));
+        for (Map.Entry<Move.ConnectionType, ConditionStats> e : byType.entrySet()) {
+            ConditionStats s = e.getValue();
+            sb.append(String.format("%-10s %8d %9.2f%% %12.1f %9.1f%%%n", e.getKey(),
+                    s.dealt, 100 * s.getCompletionRate(), s.getAverageMovesToComplete(),
+                    100 * s.getAverageProgress()));
+        }
+        List<Map.Entry<String, ConditionStats>> hardest = getConditionsByDifficulty(10);
+        if (!hardest.isEmpty()) {
+            sb.append("hardest / easiest conditions (dealt 10+ times):").append(System.lineSeparator());
+            int shown = Math.min(5, hardest.size());
+            for (int i = 0; i < shown; i++) {
+                appendCondition(sb, hardest.get(i));
+            }
+            for (int i = Math.max(shown, hardest.size() - 5); i < hardest.size(); i++) {
+                appendCondition(sb, hardest.get(i));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendCondition(StringBuilder sb, Map.Entry<String, ConditionStats> e) {
+        sb.append(String.format("  %-40s %6d dealt %7.2f%% completed%n", e.getKey(),
+                e.getValue().dealt, 100 * e.getValue().getCompletionRate()));
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//remembers where in the trie the last text ended up, so the next keystroke only has to
+//move from there instead of walking down from the root again. nodes[i] is the node for
+//the first i + 1 chars of the (lowercase) text, or -1 once no title starts with it.
+//
+//  typing a char        one child lookup
+//  backspace            pop the last node
+//  anything else        (paste, editing in the middle) keep the part before the first
+//                       changed char and walk down from there
+//
+//one cursor per input box. not thread safe, but SuggestionPipeline only ever runs one
+//lookup at a time
+public class SuggestionCursor {
+
+    private final Autocomplete ac;
+    private final CompactTrie trie;
+    private String text = "";
+    private int[] nodes = new int[16];
+
+    SuggestionCursor(Autocomplete ac, CompactTrie trie) {
+        this.ac = ac;
+        this.trie = trie;
+    }
+
+    //move to this text, returns the trie node for it (-1 if no title starts with it)
+    public int moveTo(String newText) {
+        String lower = newText.toLowerCase();
+        int keep = 0;
+        int max = Math.min(lower.length(), text.length());
+        while (keep < max && lower.charAt(keep) == text.charAt(keep)) {
+            keep++;
+        }
+        if (lower.length() > nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(lower.length(), nodes.length * 2));
+        }
+        for (int i = keep; i < lower.length(); i++) {
+            int parent = i == 0 ? trie.root() : nodes[i - 1];
+            nodes[i] = parent < 0 ? -1 : trie.child(parent, lower.charAt(i));
+        }
+        text = lower;
+        return node();
+    }
+
+    //the node of the current text
+    public int node() {
+        return text.isEmpty() ? trie.root() : nodes[text.length() - 1];
+    }
+
+    public String text() {
+        return text;
+    }
+
+    //same results as Autocomplete.getPrefixSuggestions / getSuggestions for the text
+    public List<String> getPrefixSuggestions(String newText, int maxSuggestions) {
+        int node = moveTo(newText);
+        List<String> results = new ArrayList<>();
+        if (node >= 0) {
+            ac.addWords(node, results, null, maxSuggestions);
+        }
+        return results;
+    }
+
+    public List<String> getSuggestions(String newText, int maxSuggestions) {
+        List<String> results = getPrefixSuggestions(newText, maxSuggestions);
+        return results.isEmpty() ? ac.getTypoSuggestions(newText, maxSuggestions) : results;
+    }
+}
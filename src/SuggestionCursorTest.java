@@ -0,0 +1,64 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class SuggestionCursorTest {
+
+    private final List<String> movies = Arrays.asList("Star Wars", "Star Trek", "Stardust",
+            "Starship Troopers", "Stand by Me", "Avatar", "Alien", "Aliens");
+
+    @Test
+    public void testTypingAndBackspace() {
+        Autocomplete ac = new Autocomplete(movies);
+        SuggestionCursor cursor = ac.newCursor();
+        for (String text : Arrays.asList("s", "st", "sta", "star", "star ", "sta", "stan",
+                "", "A", "Ali")) {
+            assertEquals("'" + text + "'", ac.getPrefixSuggestions(text, 3),
+                    cursor.getPrefixSuggestions(text, 3));
+        }
+        assertEquals("ali", cursor.text());
+    }
+
+    @Test
+    public void testNoMatchThenBackToMatching() {
+        Autocomplete ac = new Autocomplete(movies);
+        SuggestionCursor cursor = ac.newCursor();
+        assertEquals(-1, cursor.moveTo("starx"));
+        assertEquals(-1, cursor.moveTo("starxy"));
+        cursor.moveTo("star");
+        assertEquals(Arrays.asList("Star Trek", "Star Wars", "Stardust", "Starship Troopers"),
+                cursor.getPrefixSuggestions("star", 10));
+        // typo fallback like Autocomplete.getSuggestions
+        assertEquals(ac.getSuggestions("Alein", 5), cursor.getSuggestions("Alein", 5));
+    }
+
+    @Test
+    public void testRandomEditsMatchFullLookups() {
+        Random r = new Random(16);
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int k = r.nextInt(8); k >= 0; k--) {
+                sb.append("abcD ".charAt(r.nextInt(5)));
+            }
+            titles.add(sb.toString());
+        }
+        Autocomplete ac = new Autocomplete(titles, String::length, 5);
+        SuggestionCursor cursor = ac.newCursor();
+        StringBuilder text = new StringBuilder();
+        for (int step = 0; step < 5000; step++) {
+            int what = r.nextInt(10);
+            if (what < 5) {
+                text.append("abcdD ".charAt(r.nextInt(6)));
+            } else if (what < 8 && text.length() > 0) {
+                text.setLength(text.length() - 1);
+            } else if (text.length() > 0) {
+                // change a char somewhere in the middle
+                text.setCharAt(r.nextInt(text.length()), "abc".charAt(r.nextInt(3)));
+            }
+            String t = text.toString();
+            assertEquals(step + ": '" + t + "'", ac.getPrefixSuggestions(t, 5),
+                    cursor.getPrefixSuggestions(t, 5));
+        }
+    }
+}
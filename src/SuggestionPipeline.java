@@ -0,0 +1,118 @@
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+//moves the suggestion lookup off the ui thread. GameUI hands every change of the input
+//box to onTextChanged, which just (re)starts a short debounce timer and returns:
+//
+//  - while keys keep coming in faster than the debounce delay nothing is looked up,
+//    each keystroke cancels the lookup the one before it scheduled
+//  - the lookup itself runs on a background thread
+//  - every change bumps a generation number, a lookup whose text was changed again in
+//    the meantime is thrown away (checked after the lookup and again on the ui thread,
+//    so an old list can never replace a newer one)
+//  - the newest result is rendered through `uiThread` (GUIThread.invokeLater)
+//
+//keystrokeToRender records the time from the last keystroke to its suggestions being
+//on screen (debounce included), lookupTime just the lookup
+public class SuggestionPipeline {
+
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 60;
+
+    // one daemon thread does the lookups of every pipeline, they take microseconds
+    private static ScheduledExecutorService shared;
+
+    private final Function<String, List<String>> lookup;
+    private final Consumer<List<String>> render;
+    private final Consumer<Runnable> uiThread;
+    private final ScheduledExecutorService executor;
+    private final long debounceMillis;
+
+    private final LatencyRecorder keystrokeToRender =
+            new LatencyRecorder("autocomplete keystroke to render");
+    private final LatencyRecorder lookupTime = new LatencyRecorder("autocomplete lookup");
+
+    private long generation;
+    private ScheduledFuture<?> pending;
+
+    public SuggestionPipeline(Function<String, List<String>> lookup,
+                              Consumer<List<String>> render, Consumer<Runnable> uiThread) {
+        this(lookup, render, uiThread, sharedExecutor(), DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public SuggestionPipeline(Function<String, List<String>> lookup,
+                              Consumer<List<String>> render, Consumer<Runnable> uiThread,
+                              ScheduledExecutorService executor, long debounceMillis) {
+        this.lookup = lookup;
+        this.render = render;
+        this.uiThread = uiThread;
+        this.executor = executor;
+        this.debounceMillis = debounceMillis;
+    }
+
+    private static synchronized ScheduledExecutorService sharedExecutor() {
+        if (shared == null) {
+            shared = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "autocomplete");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return shared;
+    }
+
+    //the input box changed, called on the ui thread (never blocks)
+    public synchronized void onTextChanged(String text) {
+        long typedAt = System.nanoTime();
+        long mine = ++generation;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = executor.schedule(() -> run(text, mine, typedAt),
+                debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    //drop whatever is scheduled or in flight (e.g. the prompt was answered)
+    public synchronized void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void run(String text, long mine, long typedAt) {
+        if (!isCurrent(mine)) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<String> result = lookup.apply(text);
+        lookupTime.record(System.nanoTime() - start);
+        if (!isCurrent(mine)) {
+            return;
+        }
+        uiThread.accept(() -> {
+            // the text may have changed again while this waited for the ui thread
+            if (isCurrent(mine)) {
+                render.accept(result);
+                keystrokeToRender.record(System.nanoTime() - typedAt);
+            }
+        });
+    }
+
+    private synchronized boolean isCurrent(long mine) {
+        return generation == mine;
+    }
+
+    public LatencyRecorder getKeystrokeToRender() {
+        return keystrokeToRender;
+    }
+
+    public LatencyRecorder getLookupTime() {
+        return lookupTime;
+    }
+}
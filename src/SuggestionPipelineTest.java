@@ -0,0 +1,75 @@
+import org.junit.After;
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import static org.junit.Assert.*;
+
+public class SuggestionPipelineTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    private final List<String> looked = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<List<String>> rendered = new LinkedBlockingQueue<>();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private SuggestionPipeline pipeline(long debounce) {
+        return new SuggestionPipeline(text -> {
+            looked.add(text);
+            return Collections.singletonList(text.toUpperCase());
+        }, rendered::add, Runnable::run, executor, debounce);
+    }
+
+    @Test
+    public void testFastTypingLooksUpOnce() throws Exception {
+        SuggestionPipeline p = pipeline(100);
+        for (String text : Arrays.asList("s", "st", "sta", "star")) {
+            p.onTextChanged(text);
+        }
+        assertEquals(Collections.singletonList("STAR"), rendered.poll(2, TimeUnit.SECONDS));
+        assertNull("Nothing else should show up", rendered.poll(300, TimeUnit.MILLISECONDS));
+        assertEquals(Collections.singletonList("star"), looked);
+        assertEquals(1, p.getKeystrokeToRender().count());
+        assertTrue(p.getKeystrokeToRender().meanMillis() >= 100);
+    }
+
+    @Test
+    public void testStaleResultDropped() throws Exception {
+        // the ui thread is slow: results queue up there while the user keeps typing
+        List<Runnable> uiQueue = new ArrayList<>();
+        SuggestionPipeline p = new SuggestionPipeline(text -> Collections.singletonList(text),
+                rendered::add, uiQueue::add, executor, 0);
+        p.onTextChanged("a");
+        Thread.sleep(200);
+        p.onTextChanged("ab");
+        Thread.sleep(200);
+        assertEquals(2, uiQueue.size());
+        uiQueue.forEach(Runnable::run);
+        assertEquals(Collections.singletonList("ab"), rendered.poll());
+        assertNull("The result for 'a' is out of date", rendered.poll());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        SuggestionPipeline p = pipeline(50);
+        p.onTextChanged("alien");
+        p.cancel();
+        assertNull(rendered.poll(300, TimeUnit.MILLISECONDS));
+        assertTrue(looked.isEmpty());
+    }
+
+    @Test
+    public void testLatencyRecorder() {
+        LatencyRecorder r = new LatencyRecorder("test");
+        for (int i = 1; i <= 100; i++) {
+            r.record(i * 1_000_000L);
+        }
+        assertEquals(100, r.count());
+        assertEquals(50.5, r.meanMillis(), 1e-9);
+        assertEquals(50.0, r.percentileMillis(50), 1e-9);
+        assertEquals(99.0, r.percentileMillis(99), 1e-9);
+        assertEquals(100.0, r.maxMillis(), 1e-9);
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+//writes a made up catalog in the same csv layout as the tmdb 5000 files, as big as we
+//want (100k - 1M movies), so the benchmarks can show how things scale past 4800 movies.
+//
+//people are picked with a skew (a few show up in hundreds of movies, most in a handful)
+//and the pool grows with the catalog, so filmographies and the movie graph stay about
+//as dense as in the real data. the same seed always gives the same files
+//
+//  java SyntheticCatalog <movies> <output dir> [seed]
+public class SyntheticCatalog {
+
+    public static final String MOVIES_FILE = "synthetic_movies.csv";
+    public static final String CREDITS_FILE = "synthetic_credits.csv";
+
+    private static final String[] GENRES = {"Action", "Adventure", "Animation", "Comedy",
+        "Crime", "Documentary", "Drama", "Family", "Fantasy", "History", "Horror", "Music",
+        "Mystery", "Romance", "Science Fiction", "Thriller", "War", "Western"};
+    private static final String[] WORDS = {"Star", "Dark", "Night", "Knight", "Love", "War",
+        "Return", "City", "Lost", "King", "Ring", "Man", "Iron", "Space", "Ghost", "River",
+        "Fire", "Ice", "Moon", "Shadow", "Last", "Secret", "Storm", "Blood", "Golden"};
+    private static final String[] OTHER_JOBS = {"Producer", "Editor", "Casting",
+        "Sound Designer"};
+
+    private final Random random;
+    private final int people;
+
+    private SyntheticCatalog(int movies, long seed) {
+        this.random = new Random(seed);
+        // roughly the people per movie ratio of the real files
+        this.people = Math.max(100, movies * 4);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java SyntheticCatalog <movies> <output dir> [seed]");
+            return;
+        }
+        int movies = Integer.parseInt(args[0]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        write(Paths.get(args[1]), movies, seed);
+    }
+
+    //write MOVIES_FILE and CREDITS_FILE with the given number of movies into dir
+    public static void write(Path dir, int movies, long seed) throws IOException {
+        Files.createDirectories(dir);
+        new SyntheticCatalog(movies, seed).writeFiles(dir, movies);
+    }
+
+    private void writeFiles(Path dir, int count) throws IOException {
+        try (
+                Writer m = Files.newBufferedWriter(dir.resolve(MOVIES_FILE), StandardCharsets.UTF_8);
+                Writer c = Files.newBufferedWriter(dir.resolve(CREDITS_FILE), StandardCharsets.UTF_8);
+                CSVPrinter movies = new CSVPrinter(m, CSVFormat.DEFAULT.builder().setHeader(
+                        "budget", "genres", "id", "release_date", "title", "vote_average",
+                        "vote_count").build());
+                CSVPrinter credits = new CSVPrinter(c, CSVFormat.DEFAULT.builder().setHeader(
+                        "movie_id", "title", "cast", "crew").build())
+        ) {
+            for (int i = 0; i < count; i++) {
+                int id = i + 1;
+                String title = title(id);
+                movies.printRecord(1000, genres(), id,
+                        (1 + random.nextInt(12)) + "/" + (10 + random.nextInt(19)) + "/"
+                                + (1930 + random.nextInt(87)),
+                        title, 1 + random.nextInt(90) / 10.0, random.nextInt(15000));
+                credits.printRecord(id, title, cast(), crew());
+            }
+        }
+    }
+
+    //a few words, plus the id now and then so most titles are unique but not all
+    private String title(int id) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (random.nextInt(10) != 0) {
+            sb.append(' ').append(id);
+        }
+        return sb.toString();
+    }
+
+    private String genres() {
+        List<String> picked = new ArrayList<>(Arrays.asList(GENRES));
+        Collections.shuffle(picked, random);
+        StringBuilder sb = new StringBuilder("[");
+        int n = 1 + random.nextInt(3);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("{\"id\": ").append(i).append(", \"name\": \"")
+                    .append(picked.get(i)).append("\"}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private String cast() {
+        StringBuilder sb = new StringBuilder("[");
+        int n = random.nextInt(16);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("{\"cast_id\": ").append(i).append(", \"character\": \"Role ")
+                    .append(i).append("\", \"gender\": 2, \"name\": \"")
+                    .append(person()).append("\", \"order\": ").append(i).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private String crew() {
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        int others = random.nextInt(6);
+        for (int i = 0; i < others; i++) {
+            first = crewMember(sb, first, OTHER_JOBS[random.nextInt(OTHER_JOBS.length)]);
+        }
+        if (random.nextInt(20) != 0) {
+            first = crewMember(sb, first, "Director");
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            first = crewMember(sb, first, "Writer");
+        }
+        for (int i = random.nextInt(2); i > 0; i--) {
+            first = crewMember(sb, first, "Director of Photography");
+        }
+        if (random.nextInt(5) != 0) {
+            crewMember(sb, first, "Original Music Composer");
+        }
+        return sb.append(']').toString();
+    }
+
+    private boolean crewMember(StringBuilder sb, boolean first, String job) {
+        if (!first) {
+            sb.append(", ");
+        }
+        sb.append("{\"department\": \"Crew\", \"job\": \"").append(job)
+                .append("\", \"name\": \"").append(person()).append("\"}");
+        return false;
+    }
+
+    //skewed pick: low numbers come up a lot more often than high ones
+    private String person() {
+        double u = random.nextDouble();
+        return "Person " + (int) (people * Math.pow(u, 1.5));
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import java.nio.file.*;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class SyntheticCatalogTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testLoadsLikeTheRealFiles() throws Exception {
+        Path dir = temp.newFolder("synthetic").toPath();
+        SyntheticCatalog.write(dir, 500, 1L);
+        MovieDatabase db = new MovieDatabase();
+        db.loadAll(dir.resolve(SyntheticCatalog.MOVIES_FILE).toString(),
+                dir.resolve(SyntheticCatalog.CREDITS_FILE).toString());
+
+        assertEquals(500, db.getMovieCount());
+        Movie first = db.getMovieById(1);
+        assertNotNull(first);
+        assertTrue("release year should parse", first.getReleaseYear() >= 1930);
+        assertFalse("every movie has a genre", first.getGenres().isEmpty());
+        assertTrue("movies should share people", db.getGraph().getEdgeCount() > 0);
+        int withDirector = 0;
+        for (int i = 0; i < db.getMovieCount(); i++) {
+            if (!db.getMovieByOrdinal(i).getDirector().isEmpty()) {
+                withDirector++;
+            }
+        }
+        assertTrue("most movies have a director", withDirector > 400);
+    }
+
+    @Test
+    public void testSameSeedSameFiles() throws Exception {
+        Path a = temp.newFolder("a").toPath();
+        Path b = temp.newFolder("b").toPath();
+        SyntheticCatalog.write(a, 200, 9L);
+        SyntheticCatalog.write(b, 200, 9L);
+        for (String file : Arrays.asList(SyntheticCatalog.MOVIES_FILE,
+                SyntheticCatalog.CREDITS_FILE)) {
+            assertArrayEquals(file, Files.readAllBytes(a.resolve(file)),
+                    Files.readAllBytes(b.resolve(file)));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+//a small hand-made catalog for the tests. every movie gets a director and composer
+//of its own, so only what a test spells out (actors, genre) connects two movies
+final class TestCatalog {
+
+    final MovieDatabase db = new MovieDatabase();
+
+    Movie movie(int id, String title, String genre, String... actors) {
+        return add(id, title, "Director " + title, genre, actors);
+    }
+
+    //a drama with the director given, for tests that connect movies over directors
+    Movie directed(int id, String title, String director, String... actors) {
+        return add(id, title, director, "Drama", actors);
+    }
+
+    private Movie add(int id, String title, String director, String genre, String... actors) {
+        Movie m = new Movie(id, title, 2000, director, "Composer " + title,
+                new ArrayList<>(Arrays.asList(actors)), new ArrayList<>(),
+                new ArrayList<>(), new ArrayList<>(Collections.singletonList(genre)));
+        db.addMovie(m);
+        return m;
+    }
+
+    //index the movies added so far and give the catalog its graph
+    MovieGraph graph() {
+        db.buildIndexes();
+        MovieGraph graph = MovieGraph.build(db);
+        db.setGraph(graph);
+        return graph;
+    }
+
+    //a game on the catalog starting from `start`, the players moving in the order given
+    GameState game(Movie start, Player... players) {
+        graph();
+        MovieDraw draw = new MovieDraw(db.getMovieCount(), new Random(1));
+        for (int i = 0; i < db.getMovieCount(); i++) {
+            if (i != start.getOrdinal()) {
+                draw.markUsed(i);
+            }
+        }
+        GameState state = new GameState(db, new ArrayList<>(Arrays.asList(players)), draw);
+        state.initialGameState();
+        if (state.getCurrentMovie() != start) {
+            throw new IllegalStateException("the game didn't start on " + start.getTitle());
+        }
+        return state;
+    }
+
+    //a player who wins with `count` movies of the genre
+    static Player player(String name, String genre, int count) {
+        return new Player(name, new WinCondition(Move.ConnectionType.GENRE, genre, count));
+    }
+}
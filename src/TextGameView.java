@@ -0,0 +1,147 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+
+//headless GameView that talks a line based text protocol, one game per connection.
+//both players of the game take turns on the same connection, like in the window.
+//
+//server -> client:
+//  MOVIE <title>                       the movie on top of the pile
+//  TURN <player>                       whose turn it is
+//  GOAL <player> <progress>/<target> <description>
+//  PROMPT <player>                     waiting for a line of input
+//  ERROR <message>                     last input didn't work, same player again
+//  END <player>                        game over, <player> won (or END - for nobody)
+//client -> server, one per PROMPT:
+//  a movie title, !skip, !block, !escape, or QUIT to leave the game
+//  (after an ERROR "Did you mean <title>?", yes plays that title)
+//
+//every turn has a time limit like in the window (30 seconds unless given), the clock
+//starts with the TURN line. when it runs out the player loses and END follows right
+//away. the countdown runs on the shared TimerWheel, and the connection is read on a
+//thread of its own (a virtual one where the JVM has them) so the prompt can give up
+//waiting for it
+public class TextGameView implements GameView {
+
+    public static final int DEFAULT_TURN_SECONDS = 30;
+
+    // one reader per connection, see readLines
+    private static final ExecutorService READERS = SessionManager.newSessionExecutor();
+    // put in the queue by the reader when the client is gone and by the timer when
+    // the turn is over. compared by identity, no line the client sends is either
+    private static final String CLIENT_LEFT = new String("QUIT");
+    private static final String TIME_UP = new String("TIME UP");
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    private final TurnTimer turnTimer;
+    private volatile GameState state;
+    private boolean reading;
+
+    public TextGameView(BufferedReader in, PrintWriter out) {
+        this(in, out, DEFAULT_TURN_SECONDS);
+    }
+
+    public TextGameView(BufferedReader in, PrintWriter out, int turnSeconds) {
+        this.in = in;
+        this.out = out;
+        this.turnTimer = new TurnTimer(TimerWheel.shared(), turnSeconds, remaining -> { },
+                this::handleTimeUp);
+    }
+
+    //a closed connection (or QUIT) ends the game, GameController passes this up.
+    //null once the turn timer ran out
+    @Override
+    public String promptPlayer(Player currentPlayer) throws IOException {
+        startReading();
+        send("PROMPT " + currentPlayer.getName());
+        String line;
+        try {
+            line = lines.take();
+        } catch (InterruptedException e) {
+            // the server is shutting down
+            Thread.currentThread().interrupt();
+            throw new IOException("game interrupted", e);
+        }
+        if (line == TIME_UP) {
+            return null;
+        }
+        if (line == CLIENT_LEFT || line.trim().equalsIgnoreCase("QUIT")) {
+            // whoever takes from the queue next sees it too
+            lines.add(CLIENT_LEFT);
+            turnTimer.stop();
+            throw new IOException("client left the game");
+        }
+        return line;
+    }
+
+    @Override
+    public void showGameState(GameState state) {
+        this.state = state;
+        // a new turn (an error doesn't get here, that's the same turn again)
+        turnTimer.start();
+        StringBuilder sb = new StringBuilder();
+        Movie current = state.getCurrentMovie();
+        sb.append("MOVIE ").append(current == null ? "-" : current.getTitle()).append('\n');
+        sb.append("TURN ").append(state.getCurrentPlayer().getName()).append('\n');
+        for (Player p : state.getPlayers()) {
+            WinCondition wc = p.getWinCondition();
+            sb.append("GOAL ").append(p.getName()).append(' ').append(wc.getProgress())
+                    .append('/').append(wc.getTarget()).append(' ')
+                    .append(wc.getDescription()).append('\n');
+        }
+        sb.setLength(sb.length() - 1);
+        send(sb.toString());
+    }
+
+    @Override
+    public void showError(String message) {
+        send("ERROR " + message);
+    }
+
+    @Override
+    public void showGameEnd(Player winner) {
+        turnTimer.stop();
+        send("END " + (winner == null ? "-" : winner.getName()));
+    }
+
+    //on the wheel's thread: the player whose turn it is loses, the waiting prompt
+    //wakes up and the controller ends the game
+    private void handleTimeUp() {
+        GameState current = state;
+        if (current != null) {
+            current.setTimeExpired(true);
+        }
+        lines.add(TIME_UP);
+    }
+
+    private synchronized void startReading() {
+        if (!reading) {
+            reading = true;
+            READERS.execute(this::readLines);
+        }
+    }
+
+    //hand every line to the prompt, in order, until the client goes away
+    private void readLines() {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            // connection closed (also when the game is over and the server hangs up)
+        } finally {
+            lines.add(CLIENT_LEFT);
+        }
+    }
+
+    private void send(String lines) {
+        out.println(lines);
+        out.flush();
+    }
+}
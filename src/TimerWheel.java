@@ -0,0 +1,255 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+//one thread that runs timeouts for everybody (turn timers of every game in the
+//process) instead of a java.util.Timer thread per game.
+//
+//hierarchical timing wheel: time moves in ticks (10 ms for the shared wheel) and there
+//are LEVELS wheels of SLOTS slots each. a slot of level i covers SLOTS^i ticks, so
+//level 0 holds what is due in the next 64 ticks one slot per tick, level 1 the next
+//64 * 64 ticks 64 ticks per slot and so on. every tick we
+//
+//  - move the slot of a higher level down when the time reaches it (its timeouts are
+//    put back in, now landing in a finer level), and
+//  - run everything in the current level 0 slot.
+//
+//scheduling and cancelling are O(1) (a slot is a linked list), a timeout is moved down
+//at most LEVELS - 1 times, and there is no queue to keep sorted, so millions of pending
+//timeouts are cheap. timeouts fire up to one tick late, never early.
+//
+//tasks run on the wheel's thread, one after the other, so they should be quick (hand
+//ui work over with invokeLater). with nothing scheduled the thread just parks
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    public static final long DEFAULT_TICK_MILLIS = 10;
+
+    private static TimerWheel shared;
+
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final long start;
+    // slots[level][slot] is a dummy head of a circular list
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    private long now;
+    private int pending;
+    private final Thread worker;
+    private volatile boolean stopped;
+
+    //a wheel with its own daemon thread
+    public TimerWheel(long tickMillis) {
+        this(tickMillis, System::nanoTime, true);
+    }
+
+    //tests pass their own clock and no thread, and call runDue themselves
+    TimerWheel(long tickMillis, LongSupplier clock, boolean startThread) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.clock = clock;
+        this.start = clock.getAsLong();
+        for (Timeout[] level : slots) {
+            for (int s = 0; s < SLOTS; s++) {
+                level[s] = new Timeout(this, 0, null);
+                level[s].prev = level[s];
+                level[s].next = level[s];
+            }
+        }
+        if (startThread) {
+            worker = new Thread(this::work, "timer-wheel");
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            worker = null;
+        }
+    }
+
+    //the process wide wheel (10 ms ticks) the turn timers use
+    public static synchronized TimerWheel shared() {
+        if (shared == null) {
+            shared = new TimerWheel(DEFAULT_TICK_MILLIS);
+        }
+        return shared;
+    }
+
+    //run task once the delay has passed, unless it is cancelled first
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("timer wheel stopped");
+        }
+        long elapsed = clock.getAsLong() - start + unit.toNanos(Math.max(0, delay));
+        // round up, a timeout may fire late but never early
+        long deadline = (elapsed + tickNanos - 1) / tickNanos;
+        Timeout t = new Timeout(this, deadline, task);
+        boolean wake;
+        synchronized (this) {
+            insert(t);
+            wake = pending++ == 0;
+        }
+        if (wake && worker != null) {
+            LockSupport.unpark(worker);
+        }
+        return t;
+    }
+
+    //number of timeouts waiting to fire
+    public synchronized int pending() {
+        return pending;
+    }
+
+    //stop the thread, pending timeouts never fire
+    public void stop() {
+        stopped = true;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    //put a timeout in the finest level whose wheel reaches its deadline
+    private void insert(Timeout t) {
+        long deadline = Math.max(t.deadline, now + 1);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            long diff = (deadline >>> shift) - (now >>> shift);
+            if (diff < SLOTS || level == LEVELS - 1) {
+                // past the last level we park it in the farthest slot and look again
+                // when that slot comes down
+                long at = diff < SLOTS ? deadline >>> shift : (now >>> shift) + SLOTS - 1;
+                link(slots[level][(int) (at & (SLOTS - 1))], t);
+                return;
+            }
+        }
+    }
+
+    private static void link(Timeout head, Timeout t) {
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+
+    private static void unlink(Timeout t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.prev = null;
+        t.next = null;
+    }
+
+    //advance to the current time and run whatever came due, returns how many ran
+    int runDue() {
+        long target = (clock.getAsLong() - start) / tickNanos;
+        List<Timeout> due = new ArrayList<>();
+        synchronized (this) {
+            if (pending == 0) {
+                // nothing to move or run, skip straight there
+                now = Math.max(now, target);
+            }
+            while (now < target) {
+                tick(due);
+            }
+        }
+        for (Timeout t : due) {
+            try {
+                t.task.run();
+            } catch (RuntimeException e) {
+                // one broken task must not take the timers of every other game with it
+                e.printStackTrace();
+            }
+        }
+        return due.size();
+    }
+
+    private void tick(List<Timeout> due) {
+        now++;
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * SLOT_BITS;
+            if ((now & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            Timeout head = slots[level][(int) ((now >>> shift) & (SLOTS - 1))];
+            while (head.next != head) {
+                Timeout t = head.next;
+                unlink(t);
+                insert(t);
+            }
+        }
+        Timeout head = slots[0][(int) (now & (SLOTS - 1))];
+        while (head.next != head) {
+            Timeout t = head.next;
+            unlink(t);
+            t.state = Timeout.EXPIRED;
+            pending--;
+            due.add(t);
+        }
+    }
+
+    private void work() {
+        while (!stopped) {
+            runDue();
+            boolean idle;
+            long sleep;
+            synchronized (this) {
+                idle = pending == 0;
+                sleep = start + (now + 1) * tickNanos - clock.getAsLong();
+            }
+            if (idle) {
+                LockSupport.park(this); // until something is scheduled
+            } else if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+    }
+
+    //handle to one scheduled task
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final TimerWheel wheel;
+        private final long deadline;
+        private final Runnable task;
+        private Timeout prev;
+        private Timeout next;
+        // guarded by the wheel
+        private int state = WAITING;
+
+        private Timeout(TimerWheel wheel, long deadline, Runnable task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        //false if it already fired (or was cancelled before)
+        public boolean cancel() {
+            synchronized (wheel) {
+                if (state != WAITING) {
+                    return false;
+                }
+                state = CANCELLED;
+                unlink(this);
+                wheel.pending--;
+                return true;
+            }
+        }
+
+        public boolean isExpired() {
+            synchronized (wheel) {
+                return state == EXPIRED;
+            }
+        }
+
+        public boolean isCancelled() {
+            synchronized (wheel) {
+                return state == CANCELLED;
+            }
+        }
+    }
+}
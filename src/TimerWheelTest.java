@@ -0,0 +1,144 @@
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    // fake clock in nanoseconds, wheels built on it have no thread of their own
+    private final AtomicLong clock = new AtomicLong();
+
+    private TimerWheel manualWheel() {
+        return new TimerWheel(10, clock::get, false);
+    }
+
+    private void advanceMillis(TimerWheel wheel, long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        wheel.runDue();
+    }
+
+    @Test
+    public void testFiresOnTimeNotEarly() {
+        TimerWheel wheel = manualWheel();
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> fired.add("a"), 25, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> fired.add("b"), 5, TimeUnit.MILLISECONDS);
+        assertEquals(2, wheel.pending());
+        advanceMillis(wheel, 9);
+        assertTrue(fired.isEmpty());
+        advanceMillis(wheel, 1);
+        assertEquals(Arrays.asList("b"), fired);
+        advanceMillis(wheel, 10);
+        assertEquals("25 ms isn't up at 20 ms", Arrays.asList("b"), fired);
+        advanceMillis(wheel, 10);
+        assertEquals(Arrays.asList("b", "a"), fired);
+        assertEquals(0, wheel.pending());
+    }
+
+    @Test
+    public void testManyTimeoutsAcrossLevels() {
+        TimerWheel wheel = manualWheel();
+        Random r = new Random(18);
+        int n = 20000;
+        long[] deadline = new long[n];
+        long[] firedAt = new long[n];
+        List<TimerWheel.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            // up to ~3 hours, so every level of the wheel gets used
+            long delay = (long) Math.pow(r.nextDouble(), 4) * 10_000_000L;
+            int id = i;
+            deadline[i] = delay;
+            timeouts.add(wheel.schedule(() -> firedAt[id] = clock.get() / 1_000_000L,
+                    delay, TimeUnit.MILLISECONDS));
+        }
+        // cancel every 10th
+        int cancelled = 0;
+        for (int i = 0; i < n; i += 10) {
+            assertTrue(timeouts.get(i).cancel());
+            cancelled++;
+        }
+        assertEquals(n - cancelled, wheel.pending());
+        long step = 7; // ms, not a multiple of the tick
+        while (wheel.pending() > 0) {
+            advanceMillis(wheel, step);
+            step = Math.min(step * 2, 60_000);
+        }
+        for (int i = 0; i < n; i++) {
+            if (i % 10 == 0) {
+                assertEquals("cancelled " + i, 0, firedAt[i]);
+                assertTrue(timeouts.get(i).isCancelled());
+                continue;
+            }
+            assertTrue("timeout " + i + " fired early", firedAt[i] >= deadline[i]);
+            assertTrue(timeouts.get(i).isExpired());
+            assertFalse(timeouts.get(i).cancel());
+        }
+    }
+
+    @Test
+    public void testExactTickWithSmallSteps() {
+        TimerWheel wheel = manualWheel();
+        long[] firedAt = new long[200];
+        for (int i = 0; i < firedAt.length; i++) {
+            int id = i;
+            wheel.schedule(() -> firedAt[id] = clock.get() / 1_000_000L, i * 97L,
+                    TimeUnit.MILLISECONDS);
+        }
+        for (int t = 0; t < 200 * 97 / 10 + 2; t++) {
+            advanceMillis(wheel, 10);
+        }
+        for (int i = 0; i < firedAt.length; i++) {
+            long due = Math.max(10, (i * 97L + 9) / 10 * 10);
+            assertEquals("timeout " + i + " should fire on the first tick after it's due",
+                    due, firedAt[i]);
+        }
+    }
+
+    @Test
+    public void testOwnThread() throws Exception {
+        TimerWheel wheel = new TimerWheel(1);
+        try {
+            CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            for (int i = 1; i <= 3; i++) {
+                wheel.schedule(latch::countDown, 20 * i, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(60));
+            // idle for a while, then it should still wake up for new work
+            Thread.sleep(50);
+            CountDownLatch again = new CountDownLatch(1);
+            wheel.schedule(again::countDown, 5, TimeUnit.MILLISECONDS);
+            assertTrue(again.await(2, TimeUnit.SECONDS));
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testTurnTimer() throws Exception {
+        TimerWheel wheel = new TimerWheel(5);
+        try {
+            List<Integer> ticks = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch expired = new CountDownLatch(1);
+            TurnTimer timer = new TurnTimer(wheel, 1, ticks::add, expired::countDown);
+            timer.start();
+            assertTrue(timer.isRunning());
+            assertTrue(expired.await(3, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1, 0), ticks);
+            assertFalse(timer.isRunning());
+
+            // restarting drops the old turn's countdown
+            ticks.clear();
+            CountDownLatch never = new CountDownLatch(1);
+            TurnTimer other = new TurnTimer(wheel, 1, ticks::add, never::countDown);
+            other.start();
+            other.stop();
+            assertFalse(never.await(1500, TimeUnit.MILLISECONDS));
+            assertTrue(ticks.size() <= 1);
+        } finally {
+            wheel.stop();
+        }
+    }
+}
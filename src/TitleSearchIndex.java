@@ -0,0 +1,312 @@
+import java.util.*;
+
+//finds titles by the words in them and by any piece of them, not just from the start:
+//"knight" or "dark kni" find "The Dark Knight", and so does "ark knig".
+//
+//titles are numbered best score first (doc 0 is the most voted on movie), so every
+//posting list below is sorted by rank as well as by number. walking a list or an
+//intersection from the front gives the best matches first and we can stop as soon as
+//we have enough, without scoring or sorting anything per query.
+//
+//  words     the distinct words of all titles (lowercase, apostrophes dropped, split
+//            on everything else that isn't a letter or digit), sorted, with the docs
+//            that contain each one. stop words ("the", "a", ...) are left out, so
+//            they don't match half the catalog. all words starting with some prefix
+//            are a range of word ids
+//  trigrams  every 3 char piece of every lowercase title with the docs containing
+//            it, for substring queries (candidates are then checked with contains)
+//
+//immutable once built, so it can be shared between threads
+public class TitleSearchIndex {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "the", "a", "an", "of", "and", "in", "on", "to"));
+
+    private final String[] titles;
+    private final String[] lowerTitles;
+    private final String[] words;
+    private final int[][] wordDocs;
+    // every doc's word ids, sorted
+    private final int[][] docWords;
+    private final Map<Long, int[]> trigramDocs;
+
+    //scores[i] ranks titles.get(i), higher first (ties alphabetical). titles that
+    //only differ in case are kept once, with the best score
+    public TitleSearchIndex(List<String> titleList, double[] scores) {
+        Map<String, Integer> byLower = new HashMap<>();
+        for (int i = 0; i < titleList.size(); i++) {
+            String lower = titleList.get(i).toLowerCase();
+            Integer seen = byLower.get(lower);
+            if (seen == null || scores[i] > scores[seen]) {
+                byLower.put(lower, i);
+            }
+        }
+        Integer[] order = byLower.values().toArray(new Integer[0]);
+        Arrays.sort(order, (a, b) -> scores[a] != scores[b]
+                ? Double.compare(scores[b], scores[a])
+                : titleList.get(a).toLowerCase().compareTo(titleList.get(b).toLowerCase()));
+        titles = new String[order.length];
+        lowerTitles = new String[order.length];
+        for (int doc = 0; doc < order.length; doc++) {
+            titles[doc] = titleList.get(order[doc]);
+            lowerTitles[doc] = titles[doc].toLowerCase();
+        }
+
+        // words: sort the distinct ones, then fill the lists doc by doc (so sorted)
+        List<List<String>> tokens = new ArrayList<>(titles.length);
+        TreeSet<String> distinct = new TreeSet<>();
+        for (String title : lowerTitles) {
+            List<String> t = tokenize(title, true);
+            tokens.add(t);
+            distinct.addAll(t);
+        }
+        words = distinct.toArray(new String[0]);
+        int[] counts = new int[words.length];
+        docWords = new int[titles.length][];
+        for (int doc = 0; doc < titles.length; doc++) {
+            int[] ids = new int[tokens.get(doc).size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Arrays.binarySearch(words, tokens.get(doc).get(i));
+            }
+            Arrays.sort(ids);
+            ids = distinctSorted(ids);
+            docWords[doc] = ids;
+            for (int id : ids) {
+                counts[id]++;
+            }
+        }
+        wordDocs = new int[words.length][];
+        for (int id = 0; id < words.length; id++) {
+            wordDocs[id] = new int[counts[id]];
+            counts[id] = 0;
+        }
+        for (int doc = 0; doc < titles.length; doc++) {
+            for (int id : docWords[doc]) {
+                wordDocs[id][counts[id]++] = doc;
+            }
+        }
+
+        // trigrams: same count then fill, with a map since most of them never occur
+        Map<Long, int[]> gramCount = new HashMap<>();
+        for (int doc = 0; doc < titles.length; doc++) {
+            for (long gram : trigrams(lowerTitles[doc])) {
+                gramCount.computeIfAbsent(gram, g -> new int[1])[0]++;
+            }
+        }
+        trigramDocs = new HashMap<>(gramCount.size() * 2);
+        for (Map.Entry<Long, int[]> e : gramCount.entrySet()) {
+            trigramDocs.put(e.getKey(), new int[e.getValue()[0]]);
+            e.getValue()[0] = 0;
+        }
+        for (int doc = 0; doc < titles.length; doc++) {
+            for (long gram : trigrams(lowerTitles[doc])) {
+                int[] filled = gramCount.get(gram);
+                trigramDocs.get(gram)[filled[0]++] = doc;
+            }
+        }
+    }
+
+    //index over every movie of a database, most voted on first
+    public static TitleSearchIndex build(MovieDatabase db) {
+        int count = db.getMovieCount();
+        List<String> titles = new ArrayList<>(count);
+        double[] votes = new double[count];
+        for (int i = 0; i < count; i++) {
+            Movie m = db.getMovieByOrdinal(i);
+            titles.add(m.getTitle());
+            votes[i] = m.getVoteCount();
+        }
+        return new TitleSearchIndex(titles, votes);
+    }
+
+    //titles matching the words of the query, best first, at most limit of them.
+    //every finished word has to be in the title, the word still being typed (no space
+    //after it yet) only has to start one of the title's words. stop words are ignored
+    //unless they're still being typed ("the" might become "theory")
+    public List<String> searchWords(String query, int limit) {
+        List<String> results = new ArrayList<>();
+        String lower = query.toLowerCase();
+        boolean typing = !lower.isEmpty() && isWordChar(lower.charAt(lower.length() - 1));
+        List<String> done = tokenize(lower, true);
+        String prefix = null;
+        List<String> all = tokenize(lower, false);
+        if (typing && !all.isEmpty()) {
+            prefix = all.get(all.size() - 1);
+            if (!done.isEmpty() && done.get(done.size() - 1).equals(prefix)) {
+                done.remove(done.size() - 1);
+            }
+        }
+        if (limit <= 0 || (done.isEmpty() && prefix == null)) {
+            return results;
+        }
+
+        // finished words: intersect their lists, rarest first
+        int[] docs = null;
+        List<int[]> lists = new ArrayList<>();
+        for (String word : done) {
+            int id = Arrays.binarySearch(words, word);
+            if (id < 0) {
+                return results;
+            }
+            lists.add(wordDocs[id]);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.length));
+        for (int[] list : lists) {
+            docs = docs == null ? list : PostingLists.intersect(docs, list);
+        }
+
+        if (prefix == null) {
+            for (int i = 0; i < docs.length && results.size() < limit; i++) {
+                results.add(titles[docs[i]]);
+            }
+            return results;
+        }
+        int lo = lowerBound(prefix);
+        int hi = lowerBound(prefix + Character.MAX_VALUE);
+        if (docs != null) {
+            // keep the docs with a word in [lo, hi), in rank order
+            for (int i = 0; i < docs.length && results.size() < limit; i++) {
+                if (hasWordIn(docWords[docs[i]], lo, hi)) {
+                    results.add(titles[docs[i]]);
+                }
+            }
+            return results;
+        }
+        // just the one word being typed: the best `limit` docs of the union can only
+        // come from the first `limit` docs of every list in the range
+        int[] best = new int[0];
+        for (int id = lo; id < hi; id++) {
+            int[] head = wordDocs[id].length <= limit ? wordDocs[id]
+                    : Arrays.copyOf(wordDocs[id], limit);
+            best = PostingLists.union(best, head);
+            if (best.length > limit) {
+                best = Arrays.copyOf(best, limit);
+            }
+        }
+        for (int doc : best) {
+            results.add(titles[doc]);
+        }
+        return results;
+    }
+
+    //titles containing the query anywhere (case insensitive), best first, at most
+    //limit of them. needs at least 3 chars, shorter pieces match too much to be useful
+    public List<String> searchSubstring(String query, int limit) {
+        List<String> results = new ArrayList<>();
+        String lower = query.toLowerCase();
+        long[] grams = trigrams(lower);
+        if (grams.length == 0 || limit <= 0) {
+            return results;
+        }
+        List<int[]> lists = new ArrayList<>();
+        for (long gram : grams) {
+            int[] docs = trigramDocs.get(gram);
+            if (docs == null) {
+                return results;
+            }
+            lists.add(docs);
+        }
+        lists.sort(Comparator.comparingInt(l -> l.length));
+        // intersect a few of the rarest pieces, contains() sorts out the rest
+        int[] docs = lists.get(0);
+        for (int i = 1; i < Math.min(lists.size(), 3); i++) {
+            docs = PostingLists.intersect(docs, lists.get(i));
+        }
+        for (int i = 0; i < docs.length && results.size() < limit; i++) {
+            if (lowerTitles[docs[i]].contains(lower)) {
+                results.add(titles[docs[i]]);
+            }
+        }
+        return results;
+    }
+
+    //word matches first, then substring matches to fill up to limit
+    public List<String> search(String query, int limit) {
+        List<String> results = searchWords(query, limit);
+        if (results.size() < limit) {
+            for (String title : searchSubstring(query.trim(), limit)) {
+                if (results.size() == limit) {
+                    break;
+                }
+                if (!results.contains(title)) {
+                    results.add(title);
+                }
+            }
+        }
+        return results;
+    }
+
+    //number of distinct titles
+    public int size() {
+        return titles.length;
+    }
+
+    //lowercase words of s, optionally without the stop words
+    static List<String> tokenize(String s, boolean dropStopWords) {
+        List<String> out = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= s.length(); i++) {
+            char c = i < s.length() ? s.charAt(i) : ' ';
+            if (c == '\'') {
+                continue;
+            }
+            if (isWordChar(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                String w = word.toString();
+                if (!dropStopWords || !STOP_WORDS.contains(w)) {
+                    out.add(w);
+                }
+                word.setLength(0);
+            }
+        }
+        return out;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'';
+    }
+
+    //the 3 char pieces of s, packed 16 bits per char
+    private static long[] trigrams(String s) {
+        if (s.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[s.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+        }
+        Arrays.sort(grams);
+        int n = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[n++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, n);
+    }
+
+    //first word id >= w
+    private int lowerBound(String w) {
+        int i = Arrays.binarySearch(words, w);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static boolean hasWordIn(int[] sortedIds, int lo, int hi) {
+        int i = Arrays.binarySearch(sortedIds, lo);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return i < sortedIds.length && sortedIds[i] < hi;
+    }
+
+    private static int[] distinctSorted(int[] sorted) {
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,112 @@
+import org.junit.Test;
+import java.util.*;
+import static org.junit.Assert.*;
+
+public class TitleSearchIndexTest {
+
+    private static final List<String> TITLES = Arrays.asList("The Dark Knight",
+            "The Dark Knight Rises", "A Knight's Tale", "Knight and Day", "Dark Shadows",
+            "Star Wars", "The Lord of the Rings", "It's a Wonderful Life", "Darkman");
+    // votes, The Dark Knight Rises is the most popular here
+    private static final double[] VOTES = {900, 1000, 300, 200, 250, 800, 700, 600, 50};
+
+    private final TitleSearchIndex index = new TitleSearchIndex(TITLES, VOTES);
+
+    @Test
+    public void testWordInTheMiddle() {
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight",
+                "A Knight's Tale", "Knight and Day"), index.searchWords("knight", 10));
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight"),
+                index.searchWords("knight", 2));
+    }
+
+    @Test
+    public void testFinishedWordsAndPrefix() {
+        // "dark" is finished so Darkman is out, "kni" is still being typed
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight"),
+                index.searchWords("dark kni", 10));
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight", "Dark Shadows"),
+                index.searchWords("dark ", 10));
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight", "Dark Shadows",
+                "Darkman"), index.searchWords("dark", 10));
+        assertTrue(index.searchWords("dark wars", 10).isEmpty());
+    }
+
+    @Test
+    public void testStopWordsAndApostrophes() {
+        // "the" is ignored once finished, so this is just "rings"
+        assertEquals(Arrays.asList("The Lord of the Rings"), index.searchWords("the rings", 10));
+        // a finished stop word on its own doesn't match anything
+        assertTrue(index.searchWords("the ", 10).isEmpty());
+        assertEquals(Arrays.asList("A Knight's Tale"), index.searchWords("knights", 10));
+        assertEquals(Arrays.asList("It's a Wonderful Life"), index.searchWords("its won", 10));
+    }
+
+    @Test
+    public void testSubstring() {
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight"),
+                index.searchSubstring("ark kni", 10));
+        assertEquals(Arrays.asList("Star Wars"), index.searchSubstring("AR WA", 10));
+        assertTrue("Too short for substrings", index.searchSubstring("ar", 10).isEmpty());
+        assertTrue(index.searchSubstring("zzz", 10).isEmpty());
+    }
+
+    @Test
+    public void testSearchCombines() {
+        // no word starts with "ark", but it's inside a few titles
+        assertEquals(Arrays.asList("The Dark Knight Rises", "The Dark Knight", "Dark Shadows"),
+                index.search("ark", 3));
+        assertTrue(index.search("", 5).isEmpty());
+    }
+
+    @Test
+    public void testMatchesScanningEveryTitle() {
+        Random r = new Random(14);
+        String[] words = {"star", "dark", "knight", "the", "ring", "of", "war", "night"};
+        List<String> titles = new ArrayList<>();
+        double[] votes = new double[2000];
+        for (int i = 0; i < votes.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int w = 1 + r.nextInt(4); w > 0; w--) {
+                sb.append(words[r.nextInt(words.length)]).append(' ');
+            }
+            titles.add(sb.append(i).toString());
+            votes[i] = r.nextInt(1000);
+        }
+        TitleSearchIndex big = new TitleSearchIndex(titles, votes);
+        assertEquals(titles.size(), big.size());
+        Integer[] rank = new Integer[titles.size()];
+        for (int i = 0; i < rank.length; i++) {
+            rank[i] = i;
+        }
+        Arrays.sort(rank, (a, b) -> votes[a] != votes[b] ? Double.compare(votes[b], votes[a])
+                : titles.get(a).compareTo(titles.get(b)));
+        for (String query : Arrays.asList("kni", "dark ", "war ni", "ght ri", "star war ")) {
+            List<String> words0 = new ArrayList<>();
+            List<String> pieces = new ArrayList<>();
+            for (int i : rank) {
+                String t = titles.get(i);
+                if (pieces.size() < 20 && t.contains(query.trim())) {
+                    pieces.add(t);
+                }
+                if (words0.size() < 20 && matchesWords(t, query)) {
+                    words0.add(t);
+                }
+            }
+            assertEquals("words '" + query + "'", words0, big.searchWords(query, 20));
+            assertEquals("substring '" + query + "'", pieces,
+                    big.searchSubstring(query.trim(), 20));
+        }
+    }
+
+    // every finished word is a word of the title, the last unfinished one starts one
+    private static boolean matchesWords(String title, String query) {
+        List<String> titleWords = TitleSearchIndex.tokenize(title, true);
+        List<String> q = TitleSearchIndex.tokenize(query, true);
+        String typing = query.endsWith(" ") ? null : q.remove(q.size() - 1);
+        if (!titleWords.containsAll(q)) {
+            return false;
+        }
+        return typing == null || titleWords.stream().anyMatch(w -> w.startsWith(typing));
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+//the countdown of one game's turns, driven by a shared TimerWheel instead of a thread
+//of its own. start() begins a turn: onTick gets the seconds left right away and then
+//every whole second (30, 29, ... 0), and onExpired runs once the time is up. both
+//are called on the wheel's thread.
+//
+//only one tick is scheduled at a time, each one schedules the next for the moment the
+//shown number changes. a tick from an earlier turn that was already running when the
+//turn restarted sees the turn number changed and does nothing
+public class TurnTimer {
+
+    private final TimerWheel wheel;
+    private final long turnNanos;
+    private final IntConsumer onTick;
+    private final Runnable onExpired;
+
+    private long turn;
+    private long deadline;
+    private boolean running;
+    private TimerWheel.Timeout next;
+
+    public TurnTimer(TimerWheel wheel, int turnSeconds, IntConsumer onTick, Runnable onExpired) {
+        this.wheel = wheel;
+        this.turnNanos = TimeUnit.SECONDS.toNanos(turnSeconds);
+        this.onTick = onTick;
+        this.onExpired = onExpired;
+    }
+
+    //start a new turn (stops the current one)
+    public synchronized void start() {
+        stop();
+        running = true;
+        deadline = System.nanoTime() + turnNanos;
+        long mine = ++turn;
+        next = wheel.schedule(() -> tick(mine), 0, TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        turn++;
+        if (next != null) {
+            next.cancel();
+            next = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    //whole seconds left in this turn (rounded up), 0 if stopped
+    public synchronized int secondsRemaining() {
+        if (!running) {
+            return 0;
+        }
+        return seconds(deadline - System.nanoTime());
+    }
+
+    private void tick(long mine) {
+        int remaining;
+        synchronized (this) {
+            if (mine != turn) {
+                return;
+            }
+            long left = deadline - System.nanoTime();
+            remaining = seconds(left);
+            if (remaining > 0) {
+                // next time the number goes down
+                long untilNext = left - TimeUnit.SECONDS.toNanos(remaining - 1);
+                next = wheel.schedule(() -> tick(mine), untilNext, TimeUnit.NANOSECONDS);
+            } else {
+                running = false;
+                next = null;
+            }
+        }
+        onTick.accept(remaining);
+        if (remaining == 0) {
+            onExpired.run();
+        }
+    }
+
+    private static int seconds(long nanos) {
+        return nanos <= 0 ? 0 : (int) ((nanos + 999_999_999L) / 1_000_000_000L);
+    }
+}
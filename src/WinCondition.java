@@ -1,6 +1,7 @@
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.function.Supplier;
 
 public class WinCondition {
     //use enum to make sure the win condition type is one of the fixed set
@@ -24,6 +25,18 @@ public class WinCondition {
             progress++;
         }
     }
+    //a copy with the same progress so far, that goes on progressing on its own
+    public WinCondition copy() {
+        WinCondition copy = new WinCondition(type, value, target);
+        copy.progress = progress;
+        return copy;
+    }
+
+    //put progress back to an earlier point (see GameState.restore)
+    void setProgress(int progress) {
+        this.progress = Math.min(progress, target);
+    }
+
     //check if win condition has been met
     public boolean isMet() {
         return progress >= target;
@@ -47,7 +60,16 @@ public class WinCondition {
     //or to include all possible win condition types
     public static WinCondition random(MovieDatabase database, int targetCount,
                                       boolean defaultOnly) {
-        Random rand = new Random();
+        return random(database, targetCount, defaultOnly, new Random(),
+                database::getRandomMovie);
+    }
+
+    //same, with the randomness passed in: rand picks the type/value and randomMovies
+    //hands out the movies to take values from (e.g. GameState::drawRandomMovie, so a
+    //game on the server doesn't touch the shared database)
+    public static WinCondition random(MovieDatabase database, int targetCount,
+                                      boolean defaultOnly, Random rand,
+                                      Supplier<Movie> randomMovies) {
         //decide which type of win condition to generate
         Move.ConnectionType selectedType;
 
@@ -94,7 +116,7 @@ public class WinCondition {
             int maxAttempts = 20;
             for (int attempt = 0; attempt < maxAttempts; attempt++) {
                 //get a random movie
-                Movie randomMovie = database.getRandomMovie();
+                Movie randomMovie = randomMovies.get();
                 if (randomMovie == null) {
                     continue;
                 }
@@ -140,7 +162,7 @@ public class WinCondition {
             }
             //if no suitable value was found, fall back to genre base condition
             if (selectedValue == null) {
-                return random(database, targetCount, true);
+                return random(database, targetCount, true, rand, randomMovies);
             }
         }
         //create and return win condition